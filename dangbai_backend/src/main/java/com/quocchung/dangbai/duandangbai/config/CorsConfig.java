@@ -10,10 +10,14 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @Configuration
 public class CorsConfig {
 
+  /*- Dùng chung cho REST và handshake WebSocket (/ws) -*/
+  public static final List<String> ALLOWED_ORIGINS =
+      List.of("http://localhost:3000", "http://localhost:4200", "http://localhost:5173");
+
   @Bean
   public CorsConfigurationSource corsConfigurationSource() {
     CorsConfiguration configuration = new CorsConfiguration();
-    configuration.setAllowedOrigins(List.of("http://localhost:3000", "http://localhost:4200", "http://localhost:5173"));
+    configuration.setAllowedOrigins(ALLOWED_ORIGINS);
     configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
     configuration.setAllowedHeaders(List.of("*"));
     configuration.setAllowCredentials(true);
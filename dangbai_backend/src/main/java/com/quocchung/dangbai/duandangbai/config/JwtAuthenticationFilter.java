@@ -1,8 +1,9 @@
 package com.quocchung.dangbai.duandangbai.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quocchung.dangbai.duandangbai.dtos.response.ApiResponse;
+import com.quocchung.dangbai.duandangbai.security.AccessTokenAuthenticator;
+import com.quocchung.dangbai.duandangbai.security.VerifiedToken;
 import com.quocchung.dangbai.duandangbai.service.JwtService;
-import com.quocchung.dangbai.duandangbai.service.TokenStorageService;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -15,7 +16,6 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,8 +26,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
-  private final UserDetailsService userDetailsService;
-  private final TokenStorageService tokenStorageService;
+  private final AccessTokenAuthenticator accessTokenAuthenticator;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -41,9 +40,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     // lấy ra token
     final String token = authHeader.substring(7).trim();
-    String username;
+    // parse + verify chữ ký đúng 1 lần, các bước sau dùng lại claims
+    VerifiedToken verifiedToken;
     try {
-      username = jwtService.extractUsername(token);
+      verifiedToken = jwtService.verify(token);
     } catch (ExpiredJwtException e) {
       log.error("Token expired: {}", e.getMessage());
       unauthorizedResponse(response, "Token đã hết hạn");
@@ -54,21 +54,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       return;
     }
 
+    // chia sẻ claims đã verify cho controller (@CurrentUser)
+    request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verifiedToken);
+    String username = verifiedToken.getUsername();
+
     // nếu lấy được tên và
     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-      boolean tokenValid = jwtService.isTokenValid(token, userDetails)
-                           && tokenStorageService.isAccessTokenValid(token);
-      if (tokenValid) {
-        UsernamePasswordAuthenticationToken authToken =
-            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
-      } else {
-        log.warn("Token expired or not in Redis");
+      UserDetails userDetails = accessTokenAuthenticator.authenticate(token, verifiedToken);
+      if (userDetails == null) {
+        log.warn("Account inactive, authorities changed or token revoked for user {}", username);
         unauthorizedResponse(response, "Token không hợp lệ hoặc hết hạn");
         return;
       }
+      UsernamePasswordAuthenticationToken authToken =
+          new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+      authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+      SecurityContextHolder.getContext().setAuthentication(authToken);
     }
     filterChain.doFilter(request, response);
   }
@@ -0,0 +1,66 @@
+package com.quocchung.dangbai.duandangbai.config;
+
+import com.quocchung.dangbai.duandangbai.exception.RateLimitException;
+import com.quocchung.dangbai.duandangbai.security.VerifiedToken;
+import com.quocchung.dangbai.duandangbai.utils.ratelimit.RateLimitPolicy;
+import com.quocchung.dangbai.duandangbai.utils.ratelimit.RateLimitProperties;
+import com.quocchung.dangbai.duandangbai.utils.ratelimit.RateLimiter;
+import com.quocchung.dangbai.duandangbai.utils.web.ClientIp;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Giới hạn tần suất các endpoint trong RateLimitPolicy.
+ * Chạy trong security chain ngay sau JwtAuthenticationFilter (đã biết userId), trước khi
+ * request tới controller: request bị chặn không tốn BCrypt và không parse multipart.
+ * RateLimitException được chuyển cho GlobalExceptionHandler để trả 429 + Retry-After như mọi lỗi khác.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private final RateLimiter rateLimiter;
+  private final RateLimitProperties properties;
+  private final HandlerExceptionResolver handlerExceptionResolver;
+
+  public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties,
+      @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+    this.rateLimiter = rateLimiter;
+    this.properties = properties;
+    this.handlerExceptionResolver = handlerExceptionResolver;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    RateLimitPolicy policy = RateLimitPolicy.resolve(request.getMethod(), path);
+    if (policy != null) {
+      try {
+        rateLimiter.acquire(policy, resolveKey(policy, request));
+      } catch (RateLimitException e) {
+        handlerExceptionResolver.resolveException(request, response, null, e);
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private String resolveKey(RateLimitPolicy policy, HttpServletRequest request) {
+    if (policy.getKeyType() == RateLimitPolicy.KeyType.USER) {
+      VerifiedToken verifiedToken = (VerifiedToken) request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE);
+      if (verifiedToken != null && verifiedToken.getUserId() != null) {
+        return "user:" + verifiedToken.getUserId();
+      }
+    }
+    return "ip:" + ClientIp.resolve(request, properties.isTrustForwardedFor());
+  }
+}
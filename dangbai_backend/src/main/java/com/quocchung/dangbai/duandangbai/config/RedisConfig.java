@@ -1,16 +1,29 @@
 package com.quocchung.dangbai.duandangbai.config;
 
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import com.quocchung.dangbai.duandangbai.utils.resilience.RecoveringRedisMessageListenerContainer;
+import com.quocchung.dangbai.duandangbai.utils.resilience.RedisResilienceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.backoff.ExponentialBackOff;
+import redis.clients.jedis.JedisPoolConfig;
 
 
 @Configuration
+@Slf4j
 public class RedisConfig {
 
   @Value("${spring.data.redis.host}")
@@ -22,6 +35,25 @@ public class RedisConfig {
   @Value("${spring.data.redis.password:}")
   private String redisPassword;
 
+  // Timeout tính bằng ms: Redis chậm thì lời gọi lỗi nhanh và circuit breaker chuyển sang fallback
+  @Value("${spring.data.redis.connect-timeout:500ms}")
+  private Duration connectTimeout;
+
+  @Value("${spring.data.redis.timeout:200ms}")
+  private Duration readTimeout;
+
+  @Value("${spring.data.redis.jedis.pool.max-active:32}")
+  private int poolMaxActive;
+
+  @Value("${spring.data.redis.jedis.pool.max-idle:32}")
+  private int poolMaxIdle;
+
+  @Value("${spring.data.redis.jedis.pool.min-idle:0}")
+  private int poolMinIdle;
+
+  @Value("${spring.data.redis.jedis.pool.max-wait:100ms}")
+  private Duration poolMaxWait;
+
   @Bean
   public JedisConnectionFactory jedisConnectionFactory() {
     RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
@@ -30,7 +62,38 @@ public class RedisConfig {
     if(redisPassword != null && !redisPassword.trim().isEmpty()){
       config.setPassword(redisPassword);
     }
-    return new JedisConnectionFactory(config);
+
+    JedisPoolConfig poolConfig = new JedisPoolConfig();
+    poolConfig.setMaxTotal(poolMaxActive);
+    poolConfig.setMaxIdle(poolMaxIdle);
+    poolConfig.setMinIdle(poolMinIdle);
+    // Hết connection trong pool thì chờ tối đa maxWait rồi báo lỗi, không chặn request vô hạn
+    poolConfig.setMaxWait(poolMaxWait);
+    poolConfig.setBlockWhenExhausted(true);
+
+    JedisClientConfiguration clientConfig = JedisClientConfiguration.builder()
+        .connectTimeout(connectTimeout)
+        .readTimeout(readTimeout)
+        .usePooling()
+        .poolConfig(poolConfig)
+        .build();
+    return new JedisConnectionFactory(config, clientConfig);
+  }
+
+  /*- Circuit breaker cho các lời gọi Redis trên đường xác thực request -*/
+  @Bean
+  public CircuitBreaker redisCircuitBreaker(RedisResilienceProperties properties, MeterRegistry meterRegistry) {
+    RedisResilienceProperties.CircuitBreakerSpec spec = properties.getCircuitBreaker();
+    CircuitBreaker circuitBreaker = new CircuitBreaker("redis", spec.getFailureThreshold(), spec.getOpenDuration());
+    circuitBreaker.onTransition((from, to) -> {
+      log.warn("Redis circuit breaker {} -> {}", from, to);
+      meterRegistry.counter("circuit_breaker.transitions", "name", "redis", "to", to.name()).increment();
+    });
+    // 0 = CLOSED, 1 = HALF_OPEN, 2 = OPEN
+    Gauge.builder("circuit_breaker.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+        .tag("name", "redis")
+        .register(meterRegistry);
+    return circuitBreaker;
   }
 
   @Bean
@@ -49,4 +112,22 @@ public class RedisConfig {
     template.afterPropertiesSet();
     return template;
   }
-}
\ No newline at end of file
+
+  @Bean
+  public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+    return new StringRedisTemplate(connectionFactory);
+  }
+
+  /*- Container dùng chung cho các kênh pub/sub (revocation, invalidation...).
+   *  Redis lỗi lúc khởi động không làm dừng ứng dụng, container subscribe lại ở nền -*/
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+      RedisResilienceProperties properties) {
+    RedisResilienceProperties.SubscriptionSpec spec = properties.getSubscription();
+    ExponentialBackOff backOff = new ExponentialBackOff(spec.getInitialInterval().toMillis(), spec.getMultiplier());
+    backOff.setMaxInterval(spec.getMaxInterval().toMillis());
+    RedisMessageListenerContainer container = new RecoveringRedisMessageListenerContainer(backOff);
+    container.setConnectionFactory(connectionFactory);
+    return container;
+  }
+}
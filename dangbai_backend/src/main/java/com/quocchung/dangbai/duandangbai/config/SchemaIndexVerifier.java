@@ -0,0 +1,87 @@
+package com.quocchung.dangbai.duandangbai.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kiểm tra lúc khởi động: mọi index khai báo trong @Table(indexes) của entity phải tồn tại trong DB.
+ * Schema do Flyway quản lý (ddl-auto: none), thiếu index nghĩa là migration chưa chạy / bị sửa tay,
+ * các query list sẽ rơi về full scan + filesort -> dừng khởi động thay vì chạy chậm âm thầm.
+ * Chạy sau Flyway vì phụ thuộc EntityManagerFactory.
+ */
+@Component
+@Slf4j
+public class SchemaIndexVerifier {
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final DataSource dataSource;
+  private final boolean enabled;
+
+  public SchemaIndexVerifier(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+      @Value("${schema.verify-indexes:true}") boolean enabled) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.dataSource = dataSource;
+    this.enabled = enabled;
+  }
+
+  @PostConstruct
+  void verify() throws SQLException {
+    if (!enabled) {
+      return;
+    }
+    List<String> missing = new ArrayList<>();
+    int declared = 0;
+    try (Connection connection = dataSource.getConnection()) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+        Table table = entity.getJavaType().getAnnotation(Table.class);
+        if (table == null || table.indexes().length == 0) {
+          continue;
+        }
+        Set<String> existing = indexNames(metaData, connection.getCatalog(), table.name());
+        for (Index index : table.indexes()) {
+          declared++;
+          if (!existing.contains(index.name().toLowerCase(Locale.ROOT))) {
+            missing.add(table.name() + "." + index.name());
+          }
+        }
+      }
+    }
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException("Thiếu index trong database (chưa chạy migration?): " + missing);
+    }
+    log.info("Đã kiểm tra {} index khai báo trên entity", declared);
+  }
+
+  private static Set<String> indexNames(DatabaseMetaData metaData, String catalog, String table)
+      throws SQLException {
+    // MySQL giữ nguyên chữ thường, H2 lưu tên bảng chữ hoa
+    String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+    Set<String> names = new HashSet<>();
+    try (ResultSet rs = metaData.getIndexInfo(catalog, null, tableName, false, true)) {
+      while (rs.next()) {
+        String name = rs.getString("INDEX_NAME");
+        if (name != null) {
+          names.add(name.toLowerCase(Locale.ROOT));
+        }
+      }
+    }
+    return names;
+  }
+}
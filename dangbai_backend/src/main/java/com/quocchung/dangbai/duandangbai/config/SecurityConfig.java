@@ -1,14 +1,18 @@
 package com.quocchung.dangbai.duandangbai.config;
 
+import com.quocchung.dangbai.duandangbai.contants.ApiConstant;
+import com.quocchung.dangbai.duandangbai.security.BoundedPasswordEncoder;
 import com.quocchung.dangbai.duandangbai.security.CustomUserDetailsService;
+import com.quocchung.dangbai.duandangbai.utils.password.PasswordHashingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,6 +26,7 @@ public class SecurityConfig {
 
   private final JwtAuthenticationFilter jwtAuthenticationFilter;
   private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+  private final RateLimitFilter rateLimitFilter;
 
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -35,12 +40,15 @@ public class SecurityConfig {
                 "/v3/api-docs/**",
                 "/v3/api-docs.yaml",
                 "/api-docs/**",
-                "/uploads/posts/**").permitAll()
+                "/uploads/posts/**",
+                ApiConstant.WS_ENDPOINT + "/**").permitAll()  // xác thực ở frame STOMP CONNECT
+            .requestMatchers(HttpMethod.GET, ApiConstant.POST + ApiConstant.FEED_POST).permitAll()
             .anyRequest().authenticated()
         )
         .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint))
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-        .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+        .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
     return http.build();
   }
@@ -50,8 +58,9 @@ public class SecurityConfig {
     return config.getAuthenticationManager();
   }
 
-  @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  /*- BCrypt chạy trên executor riêng, không chiếm thread Tomcat -*/
+  @Bean(destroyMethod = "shutdown")
+  public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+    return new BoundedPasswordEncoder(properties, meterRegistry);
   }
 }
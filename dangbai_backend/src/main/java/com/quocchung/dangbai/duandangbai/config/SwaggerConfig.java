@@ -1,13 +1,20 @@
 package com.quocchung.dangbai.duandangbai.config;
 
+import com.quocchung.dangbai.duandangbai.security.annotation.CurrentUser;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springdoc.core.utils.SpringDocUtils;
 
 @Configuration
 public class SwaggerConfig {
 
+  static {
+    // Tham số @CurrentUser được resolve từ token, không hiển thị trên Swagger
+    SpringDocUtils.getConfig().addAnnotationsToIgnore(CurrentUser.class);
+  }
+
   @Bean
   public OpenAPI customOpenAPI() {
     return new OpenAPI()
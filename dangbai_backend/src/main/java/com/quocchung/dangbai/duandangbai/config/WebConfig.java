@@ -1,6 +1,9 @@
 package com.quocchung.dangbai.duandangbai.config;
 
+import com.quocchung.dangbai.duandangbai.security.CurrentUserArgumentResolver;
+import java.util.List;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,4 +15,9 @@ public class WebConfig implements WebMvcConfigurer {
     registry.addResourceHandler("/uploads/**")
         .addResourceLocations("file:uploads/");
   }
+
+  @Override
+  public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+    resolvers.add(new CurrentUserArgumentResolver());
+  }
 }
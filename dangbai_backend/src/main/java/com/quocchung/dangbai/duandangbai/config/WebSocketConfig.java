@@ -0,0 +1,61 @@
+package com.quocchung.dangbai.duandangbai.config;
+
+import com.quocchung.dangbai.duandangbai.contants.ApiConstant;
+import com.quocchung.dangbai.duandangbai.security.StompAuthChannelInterceptor;
+import com.quocchung.dangbai.duandangbai.utils.notification.NotificationPushProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP qua WebSocket để đẩy thông báo thay cho polling:
+ * - client kết nối /ws, CONNECT kèm access token, SUBSCRIBE /user/queue/notifications
+ * - simple broker trong bộ nhớ mỗi node; thông báo sinh ở node khác tới qua Redis pub/sub (NotificationPushService)
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+  private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+  private final NotificationPushProperties properties;
+  private TaskScheduler messageBrokerTaskScheduler;
+
+  public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+      NotificationPushProperties properties) {
+    this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+    this.properties = properties;
+  }
+
+  /*- Scheduler do chính cấu hình broker tạo ra, @Lazy để tránh vòng phụ thuộc -*/
+  @Autowired
+  public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+    this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+  }
+
+  @Override
+  public void registerStompEndpoints(StompEndpointRegistry registry) {
+    registry.addEndpoint(ApiConstant.WS_ENDPOINT)
+        .setAllowedOriginPatterns(CorsConfig.ALLOWED_ORIGINS.toArray(String[]::new));
+  }
+
+  @Override
+  public void configureMessageBroker(MessageBrokerRegistry registry) {
+    long heartbeat = properties.getHeartbeat().toMillis();
+    registry.enableSimpleBroker(ApiConstant.WS_QUEUE_PREFIX)
+        .setHeartbeatValue(new long[]{heartbeat, heartbeat})
+        .setTaskScheduler(messageBrokerTaskScheduler);
+    registry.setApplicationDestinationPrefixes("/app");
+    registry.setUserDestinationPrefix("/user");
+  }
+
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(stompAuthChannelInterceptor);
+  }
+}
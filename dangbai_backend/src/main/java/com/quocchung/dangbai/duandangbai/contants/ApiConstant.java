@@ -12,6 +12,7 @@ public class ApiConstant {
   public static final String REGISTER =  "/register";          // POST
   public static final String LOGIN = "/login";                // POST
   public static final String LOGOUT =  "/logout";
+  public static final String LOGOUT_ALL = "/logout-all";     // POST
   // POST
 
   public static final String FORGOT_PASSWORD =  "/forgot-password";  // POST
@@ -30,9 +31,20 @@ public class ApiConstant {
   public static final String APPROVE_POST = "/approve_post";
   public static final String FILTER_POST = "/filter";
   public static final String DETAIL_POST = "/{postId}";
+  public static final String FEED_POST = "/feed";              // GET, công khai
+  public static final String FEED_REBUILD = "/feed/rebuild";   // POST, ADMIN
 
   /* ======================= NOTIFYCATION =======================*/
   public static final String NOTIFICATION_BY_USER = "/user/{userId}";
+  public static final String NOTIFICATION_INBOX = "/inbox";           // GET, user đang đăng nhập
+  public static final String NOTIFICATION_UNREAD_COUNT = "/unread-count";  // GET
+  public static final String NOTIFICATION_READ = "/{notificationId}/read"; // PATCH
+  public static final String NOTIFICATION_READ_ALL = "/read-all";          // PATCH
+
+  /* ======================= WEBSOCKET ==========================*/
+  public static final String WS_ENDPOINT = "/ws";                          // STOMP, xác thực ở frame CONNECT
+  public static final String WS_QUEUE_PREFIX = "/queue";
+  public static final String WS_NOTIFICATION_QUEUE = "/queue/notifications"; // client SUBSCRIBE /user/queue/notifications
 
   /* ======================== USER ==============================*/
   public static final String USER_PROFILE = "/profile";
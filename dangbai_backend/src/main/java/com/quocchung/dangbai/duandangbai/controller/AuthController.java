@@ -3,6 +3,7 @@ package com.quocchung.dangbai.duandangbai.controller;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.AUTH;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.LOGIN;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.LOGOUT;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.LOGOUT_ALL;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.REFRESH_TOKEN;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.REGISTER;
 
@@ -11,6 +12,7 @@ import com.quocchung.dangbai.duandangbai.dtos.request.RefreshTokenRequest;
 import com.quocchung.dangbai.duandangbai.dtos.request.RegisterRequest;
 import com.quocchung.dangbai.duandangbai.dtos.response.ApiResponse;
 import com.quocchung.dangbai.duandangbai.dtos.response.AuthResponse;
+import com.quocchung.dangbai.duandangbai.security.annotation.CurrentUser;
 import com.quocchung.dangbai.duandangbai.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -72,4 +74,13 @@ public class AuthController {
         ApiResponse.successWithMessage("Đăng xuất thành công")
     );
   }
+
+  @PostMapping(LOGOUT_ALL)
+  public ResponseEntity<ApiResponse<Void>> logoutAll(@CurrentUser Long userId) {
+    authService.logoutAll(userId);
+
+    return ResponseEntity.ok(
+        ApiResponse.successWithMessage("Đã đăng xuất khỏi tất cả thiết bị")
+    );
+  }
 }
@@ -2,15 +2,24 @@ package com.quocchung.dangbai.duandangbai.controller;
 
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.NOTIFICATION;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.NOTIFICATION_BY_USER;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.NOTIFICATION_INBOX;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.NOTIFICATION_READ;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.NOTIFICATION_READ_ALL;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.NOTIFICATION_UNREAD_COUNT;
 
 import com.quocchung.dangbai.duandangbai.dtos.response.ApiResponse;
-import com.quocchung.dangbai.duandangbai.model.Notification;
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.security.annotation.CurrentUser;
 import com.quocchung.dangbai.duandangbai.service.NotificationService;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -19,9 +28,53 @@ import org.springframework.web.bind.annotation.RestController;
 public class NotificationController {
   private final NotificationService notificationService;
 
+  /**
+   * Hộp thư thông báo của user đang đăng nhập, mới nhất trước
+   *
+   * @param cursor - nextCursor của trang trước, bỏ trống để lấy trang đầu
+   * @param size - Số thông báo mỗi trang (tối đa 100)
+   */
+  @GetMapping(NOTIFICATION_INBOX)
+  public ApiResponse<PageResponse<NotificationResponse>> getInbox(
+      @CurrentUser Long currentUserId,
+      @RequestParam(defaultValue = "") String cursor,
+      @RequestParam(defaultValue = "20") Integer size) {
+    PageResponse<NotificationResponse> notifications =
+        notificationService.getUserNotifications(currentUserId, cursor, size);
+    return ApiResponse.successPage("Lấy thông báo thành công", notifications);
+  }
+
+  /*- Giữ đường dẫn cũ cho frontend, chỉ được xem hộp thư của chính mình -*/
   @GetMapping(NOTIFICATION_BY_USER)
-  public ApiResponse<List<Notification>> getUserNotifications(@PathVariable Long userId) {
-    List<Notification> notifications = notificationService.getUserNotifications(userId);
-    return ApiResponse.success("Lấy thông báo thành công", notifications);
+  public ApiResponse<PageResponse<NotificationResponse>> getUserNotifications(
+      @PathVariable Long userId,
+      @CurrentUser Long currentUserId,
+      @RequestParam(defaultValue = "") String cursor,
+      @RequestParam(defaultValue = "20") Integer size) {
+    if (!userId.equals(currentUserId)) {
+      throw new AppException(ErrorCode.NOT_NOTIFICATION_OWNER);
+    }
+    return getInbox(currentUserId, cursor, size);
+  }
+
+  /**
+   * Số thông báo chưa đọc (badge), header gọi liên tục nên đọc từ Redis
+   */
+  @GetMapping(NOTIFICATION_UNREAD_COUNT)
+  public ApiResponse<Long> getUnreadCount(@CurrentUser Long currentUserId) {
+    return ApiResponse.success("Lấy số thông báo chưa đọc thành công",
+        notificationService.getUnreadCount(currentUserId));
+  }
+
+  @PatchMapping(NOTIFICATION_READ)
+  public ApiResponse<Void> markAsRead(@PathVariable Long notificationId, @CurrentUser Long currentUserId) {
+    notificationService.markAsRead(currentUserId, notificationId);
+    return ApiResponse.successWithMessage("Đã đánh dấu thông báo là đã đọc");
+  }
+
+  @PatchMapping(NOTIFICATION_READ_ALL)
+  public ApiResponse<Integer> markAllAsRead(@CurrentUser Long currentUserId) {
+    return ApiResponse.success("Đã đánh dấu tất cả thông báo là đã đọc",
+        notificationService.markAllAsRead(currentUserId));
   }
 }
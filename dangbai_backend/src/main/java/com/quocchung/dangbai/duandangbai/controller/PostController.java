@@ -4,6 +4,8 @@ package com.quocchung.dangbai.duandangbai.controller;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.APPROVE_POST;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.CREATE_POST;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.DETAIL_POST;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.FEED_POST;
+import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.FEED_REBUILD;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.FILTER_POST;
 import static com.quocchung.dangbai.duandangbai.contants.ApiConstant.POST;
 
@@ -13,8 +15,13 @@ import com.quocchung.dangbai.duandangbai.dtos.request.PostFilterRequest;
 import com.quocchung.dangbai.duandangbai.dtos.response.ApiResponse;
 import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
 import com.quocchung.dangbai.duandangbai.dtos.response.PostResponse;
+import com.quocchung.dangbai.duandangbai.security.annotation.CurrentUser;
 import com.quocchung.dangbai.duandangbai.service.IPostService;
-import com.quocchung.dangbai.duandangbai.service.JwtService;
+import com.quocchung.dangbai.duandangbai.service.PostViewTracker;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.ratelimit.RateLimitProperties;
+import com.quocchung.dangbai.duandangbai.utils.web.ClientIp;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -25,7 +32,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
@@ -39,18 +45,17 @@ import org.springframework.web.multipart.MultipartFile;
 public class PostController {
 
   private final IPostService postService;
-  private final JwtService jwtService;
+  private final PostViewTracker postViewTracker;
+  private final RateLimitProperties rateLimitProperties;
 
   @PostMapping( value = CREATE_POST, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   public ApiResponse<PostResponse> createPost(
       @Valid @RequestPart("post") CreatePostRequest request,
       @RequestPart("images") List<MultipartFile> images,
-      @RequestHeader("Authorization") String authHeader
+      @CurrentUser Long userId
       ) {
 
-    String token = authHeader.substring(7);
-    // Lấy userId từ Authentication (Spring Security)
-    Long userId = jwtService.extractUserId(token);
+    // userId lấy từ token đã verify trong JwtAuthenticationFilter
     log.info(" User Id của người dùng  : "+ userId.toString()) ;
 
     PostResponse response = postService.createPost(request, images, userId);
@@ -65,10 +70,8 @@ public class PostController {
   @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
   public ApiResponse<PostResponse> approvePost(
       @Valid @RequestBody ApprovePostRequest request,
-      @RequestHeader("Authorization") String authHeader) {
+      @CurrentUser Long adminId) {
 
-    String token = authHeader.substring(7);
-    Long adminId = jwtService.extractUserId(token);
     log.info("Admin {} đang xử lý bài đăng {}", adminId, request.getPostId());
 
     PostResponse response = postService.approvePost(request, adminId);
@@ -87,8 +90,11 @@ public class PostController {
    * @param status - PENDING, APPROVED, REJECTED (optional - nếu null thì lấy tất cả)
    * @param page - Trang (default: 0)
    * @param size - Số bài đăng mỗi trang (default: 20)
-   * @param sortBy - Sắp xếp theo field (default: createdAt)
+   * @param sortBy - Sắp xếp theo field: createdAt | price (default: createdAt), giá trị khác trả 400
    * @param sortDirection - ASC hoặc DESC (default: DESC)
+   * @param cursor - Có tham số này thì phân trang theo cursor (rỗng = trang đầu), dùng nextCursor của trang trước;
+   *               chỉ hỗ trợ sortBy createdAt / price
+   * @param withTotal - Chế độ cursor: có trả totalItems hay không (default: false)
    */
   @GetMapping(FILTER_POST)
   public ApiResponse<PageResponse<PostResponse>> getPostsByStatus(
@@ -96,7 +102,9 @@ public class PostController {
       @RequestParam(defaultValue = "0") Integer page,
       @RequestParam(defaultValue = "20") Integer size,
       @RequestParam(defaultValue = "createdAt") String sortBy,
-      @RequestParam(defaultValue = "DESC") String sortDirection) {
+      @RequestParam(defaultValue = "DESC") String sortDirection,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "false") boolean withTotal) {
 
     PostFilterRequest request = PostFilterRequest.builder()
         .status(status)
@@ -104,31 +112,73 @@ public class PostController {
         .size(size)
         .sortBy(sortBy)
         .sortDirection(sortDirection)
+        .cursor(cursor)
+        .withTotal(withTotal)
         .build();
 
     PageResponse<PostResponse> pageResponse = postService.getPostsByStatus(request);
 
     return ApiResponse.successPage("Lấy danh sách bài đăng thành công", pageResponse);
   }
+  /**
+   * Feed bài đăng đã duyệt, mới nhất trước
+   * PUBLIC - Không cần đăng nhập, luôn phân trang theo cursor
+   *
+   * @param authorId - Chỉ lấy bài của một tác giả (optional)
+   * @param categoryId - Chỉ lấy bài của một danh mục (optional)
+   * @param cursor - nextCursor của trang trước, bỏ trống để lấy trang đầu
+   */
+  @GetMapping(FEED_POST)
+  public ApiResponse<PageResponse<PostResponse>> getFeed(
+      @RequestParam(required = false) Long authorId,
+      @RequestParam(required = false) Long categoryId,
+      @RequestParam(defaultValue = "") String cursor,
+      @RequestParam(defaultValue = "20") Integer size,
+      @RequestParam(defaultValue = "false") boolean withTotal) {
+    PageResponse<PostResponse> pageResponse = postService.getApprovedPosts(
+        authorId, categoryId, PostStatus.APPROVED.name(), 0, size, cursor, withTotal);
+    return ApiResponse.successPage("Lấy danh sách bài đăng thành công", pageResponse);
+  }
+
+  /**
+   * Dựng lại feed trên Redis từ MySQL (chạy nền, feed vẫn đọc được trong lúc dựng)
+   * ADMIN ONLY
+   */
+  @PostMapping(FEED_REBUILD)
+  @PreAuthorize("hasRole('ADMIN')")
+  public ApiResponse<Void> rebuildFeed() {
+    return postService.rebuildFeed()
+        ? ApiResponse.successWithMessage("Đã bắt đầu dựng lại feed")
+        : ApiResponse.successWithMessage("Feed đang được dựng lại");
+  }
+
   /**
    * Lấy chi tiết bài đăng theo ID
    * PUBLIC - Không cần đăng nhập
    */
   @GetMapping(DETAIL_POST)
-  public ApiResponse<PostResponse> getPostById(@PathVariable Long postId) {
+  public ApiResponse<PostResponse> getPostById(@PathVariable Long postId,
+      @CurrentUser(required = false) Long userId,
+      HttpServletRequest request) {
     PostResponse response = postService.getPostById(postId);
+
+    // Chỉ đếm khi bài tồn tại; ghi trong bộ nhớ, không chờ DB / Redis
+    String viewerKey = userId != null
+        ? "user:" + userId
+        : "ip:" + ClientIp.resolve(request, rateLimitProperties.isTrustForwardedFor());
+    postViewTracker.recordView(postId, viewerKey);
     return ApiResponse.success("Lấy chi tiết bài đăng thành công", response);
   }
 
   @GetMapping("/lstpost")
     public ApiResponse<PageResponse<PostResponse>> getPostsByStatus(
-            @RequestHeader("Authorization") String header,
+            @CurrentUser Long userId,
             @RequestParam(required = true) String status ,
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "20") Integer size){
-      String token = header.substring(7);
-      Long userId = jwtService.extractUserId(token);
-      PageResponse<PostResponse> pageResponse = postService.getPostsByStatus( userId,status, page, size);
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal){
+      PageResponse<PostResponse> pageResponse = postService.getPostsByStatus( userId,status, page, size, cursor, withTotal);
       return ApiResponse.success("Lấy thông tin thành công",  pageResponse);
   }
 
@@ -8,7 +8,7 @@ import com.quocchung.dangbai.duandangbai.dtos.request.RegisterRequest;
 import com.quocchung.dangbai.duandangbai.dtos.response.ApiResponse;
 import com.quocchung.dangbai.duandangbai.dtos.response.AuthResponse;
 import com.quocchung.dangbai.duandangbai.dtos.response.UserResponse;
-import com.quocchung.dangbai.duandangbai.service.JwtService;
+import com.quocchung.dangbai.duandangbai.security.annotation.CurrentUser;
 import com.quocchung.dangbai.duandangbai.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -16,7 +16,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -24,19 +23,14 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(USER)
 @RequiredArgsConstructor
 public class UserController {
-  private final JwtService jwtService;
   private final UserService userService;
 
 
   @GetMapping(USER_PROFILE)
   public ResponseEntity<ApiResponse<UserResponse>> getMyInfo(
-      @RequestHeader("Authorization") String authHeader
+      @CurrentUser Long userId
   ) {
-    // Lấy token từ header "Bearer xxx"
-    String token = authHeader.substring(7);
-
-    // Giải mã userId từ token
-    Long userId = jwtService.extractUserId(token);
+    // userId đã được giải mã sẵn từ token trong JwtAuthenticationFilter
 
     // Lấy user từ DB
     UserResponse user = userService.getUserById(userId);
@@ -21,4 +21,11 @@ public class PostFilterRequest {
 
   @Builder.Default
   private String sortDirection = "DESC";
+
+  // Khác null thì phân trang theo cursor (keyset), chuỗi rỗng = trang đầu; null = phân trang theo page
+  private String cursor;
+
+  // Chế độ cursor mặc định không đếm tổng số dòng
+  @Builder.Default
+  private boolean withTotal = false;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.quocchung.dangbai.duandangbai.dtos.response;
+
+import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thông báo trả về client: chỉ id của post / comment / reaction liên quan (đọc thẳng từ khóa ngoại),
+ * không serialize entity nên không kéo theo lazy load.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationResponse {
+  private Long id;
+  private NotificationType type;
+  private String message;
+  private Boolean isRead;
+  private LocalDateTime createdAt;
+  private Long postId;
+  private Long commentId;
+  private Long reactionId;
+}
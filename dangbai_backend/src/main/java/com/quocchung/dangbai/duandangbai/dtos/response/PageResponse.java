@@ -15,17 +15,20 @@ public class PageResponse<T> {
   private List<T> items;
   private int page;
   private int size;
-  private long totalItems;
-  private int totalPages;
+  // null khi phân trang bằng cursor mà client không yêu cầu đếm tổng
+  private Long totalItems;
+  private Integer totalPages;
   private boolean hasNext;
   private boolean hasPrevious;
+  // Cursor cho trang tiếp theo (chế độ keyset), null khi hết dữ liệu hoặc phân trang theo số trang
+  private String nextCursor;
 
   public static <T> PageResponse<T> empty() {
     return PageResponse.<T>builder()
         .items(Collections.emptyList())
         .page(0)
         .size(0)
-        .totalItems(0)
+        .totalItems(0L)
         .totalPages(0)
         .hasNext(false)
         .hasPrevious(false)
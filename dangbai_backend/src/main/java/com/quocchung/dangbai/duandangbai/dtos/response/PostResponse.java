@@ -6,7 +6,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PostResponse {
@@ -31,8 +31,16 @@ public class PostResponse {
   // tổng số comment
   private Long totalComments;
 
+  // tổng số reaction
+  private Long totalReactions;
+
+  // ước lượng số người xem khác nhau (HyperLogLog), chỉ có ở chi tiết bài viết
+  private Long uniqueViewers;
+
   @Data
   @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
   public static class AuthorResponse {
     private Long id;
     private String username;
@@ -41,6 +49,8 @@ public class PostResponse {
 
   @Data
   @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
   public static class CategoryResponse {
     private Long id;
     private String name;
@@ -48,6 +58,8 @@ public class PostResponse {
 
   @Data
   @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
   public static class MediaResponse {
     private Long id;
     private String type;
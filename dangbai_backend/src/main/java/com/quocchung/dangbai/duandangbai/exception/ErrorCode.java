@@ -28,6 +28,7 @@ public enum ErrorCode {
   INVALID_USERNAME_FORMAT(2006, 400, "Username must be 3-50 characters, alphanumeric and underscore only"),
   INVALID_URL_FORMAT(2007, 400, "Invalid URL format"),
   INVALID_STATUS(2015, 400, "Trạng thái không hợp lệ"),
+  INVALID_SORT_FIELD(2016, 400, "Sort field is not supported"),
   INVALID_DATE_FORMAT(2008, 400, "Invalid date format"),
   INVALID_ENUM_VALUE(2009, 400, "Invalid enum value"),
   VALUE_TOO_SHORT(2010, 400, "Value is too short"),
@@ -153,6 +154,7 @@ public enum ErrorCode {
   STORAGE_SERVICE_ERROR(14002, 500, "Storage service error"),
   PAYMENT_SERVICE_ERROR(14003, 500, "Payment service error"),
   NOTIFICATION_SERVICE_ERROR(14004, 500, "Notification service error"),
+  TOKEN_STORE_UNAVAILABLE(14005, 503, "Token store temporarily unavailable"),
 
   // ==================== BUSINESS LOGIC ERRORS (15xxx) ====================
   OPERATION_NOT_ALLOWED(15000, 403, "Operation not allowed in current state"),
@@ -1,5 +1,6 @@
 package com.quocchung.dangbai.duandangbai.model;
 
+import com.quocchung.dangbai.duandangbai.service.PostCounterListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,7 +15,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, PostCounterListener.class})
 public class Comment {
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
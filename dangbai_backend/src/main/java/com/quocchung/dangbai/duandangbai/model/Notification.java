@@ -8,7 +8,10 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_notifications_user_read", columnList = "user_id, is_read")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,42 @@
+package com.quocchung.dangbai.duandangbai.model;
+
+import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.*;
+
+/**
+ * Thông báo chờ chuyển vào bảng notifications (transactional outbox).
+ * Ghi / đọc bằng JDBC trong NotificationOutboxRelay; entity chỉ khai báo schema.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationOutbox {
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(length = 500)
+  private NotificationType type;
+
+  private String message;
+
+  @Column(name = "post_id")
+  private Long postId;
+
+  @Column(name = "comment_id")
+  private Long commentId;
+
+  @Column(name = "reaction_id")
+  private Long reactionId;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+}
@@ -6,13 +6,25 @@ import lombok.*;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // Được tạo bởi migration V2, SchemaIndexVerifier kiểm tra tồn tại lúc khởi động
+    @Index(name = "idx_posts_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_posts_author_status_created", columnList = "author_id, status, created_at, id"),
+    @Index(name = "idx_posts_author_created", columnList = "author_id, created_at, id"),
+    @Index(name = "idx_posts_created", columnList = "created_at, id"),
+    @Index(name = "idx_posts_status_price", columnList = "status, price, id"),
+    @Index(name = "idx_posts_price", columnList = "price, id"),
+    // Migration V3: feed theo danh mục khi đọc từ DB, bắt kịp thay đổi lúc dựng lại feed Redis
+    @Index(name = "idx_posts_category_status_created", columnList = "category_id, status, created_at, id"),
+    @Index(name = "idx_posts_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,6 +63,23 @@ public class Post {
 
   private LocalDateTime approvedAt;
 
+  /*- Bộ đếm phi chuẩn hóa: tăng/giảm bằng UPDATE nguyên tử, job đối soát sửa lệch định kỳ.
+   *  updatable = false: save(post) không ghi đè giá trị đọc lúc load lên các lượt cộng dồn xảy ra sau đó -*/
+  @Builder.Default
+  @Column(nullable = false, updatable = false)
+  @ColumnDefault("0")
+  private Long commentCount = 0L;
+
+  @Builder.Default
+  @Column(nullable = false, updatable = false)
+  @ColumnDefault("0")
+  private Long reactionCount = 0L;
+
+  @Builder.Default
+  @Column(nullable = false, updatable = false)
+  @ColumnDefault("0")
+  private Long viewCount = 0L;
+
   @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<PostMedia> media;
 
@@ -10,6 +10,9 @@ import java.time.LocalDateTime;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @Entity
+@Table(name = "post_media", indexes = {
+    @Index(name = "idx_post_media_post_position", columnList = "post_id, position")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,6 @@
 package com.quocchung.dangbai.duandangbai.model;
 
+import com.quocchung.dangbai.duandangbai.service.PostCounterListener;
 import com.quocchung.dangbai.duandangbai.utils.enums.ReactionType;
 
 import jakarta.persistence.*;
@@ -19,7 +20,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
     }
 )
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, PostCounterListener.class})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
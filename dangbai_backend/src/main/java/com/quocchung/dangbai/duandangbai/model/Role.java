@@ -14,9 +14,12 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// So sánh theo id: tránh load users/permissions (lazy) khi đưa role vào Set, kể cả khi role detached
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @EntityListeners(AuditingEntityListener.class)
 public class Role {
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @EqualsAndHashCode.Include
   private Long id;
 
   private String name; // ADMIN, USER, MODERATOR
@@ -25,6 +28,7 @@ public class Role {
 
   /*-  Một role có thể được gắn cho nhiều người  -*/
   @ManyToMany(mappedBy = "roles")
+  @ToString.Exclude
   private List<User> users = new ArrayList<>();
 
   @ManyToMany
@@ -33,5 +37,6 @@ public class Role {
       joinColumns = @JoinColumn(name = "role_id"),
       inverseJoinColumns = @JoinColumn(name = "permission_id")
   )
+  @ToString.Exclude
   private Set<Permission> permissions = new HashSet<>();
 }
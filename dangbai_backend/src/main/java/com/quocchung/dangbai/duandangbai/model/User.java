@@ -14,7 +14,11 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+    // Tên constraint được dùng để dịch DataIntegrityViolationException khi đăng ký
+    @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+    @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,11 +26,13 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @EntityListeners(AuditingEntityListener.class)
 /*- Lưu trữ thông tin người dùng (cả người mua và người bán) -*/
 public class User {
+  public static final String UK_USERNAME = "uk_users_username";
+  public static final String UK_EMAIL = "uk_users_email";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @Column(unique = true)
   private String email;
 
   private String passwordHash;
@@ -44,6 +50,12 @@ public class User {
   @Enumerated(EnumType.STRING)
   private AccountStatus accountStatus = AccountStatus.ACTIVE;
 
+  /*- Phiên bản quyền: tăng khi đổi role/permission/trạng thái để vô hiệu hóa token cũ.
+   *  Chỉ UserAuthChangeListener tăng bằng UPDATE riêng, save(user) không ghi đè -*/
+  @Builder.Default
+  @Column(nullable = false, updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+  private Long authVersion = 0L;
+
 
   @CreatedDate
   private LocalDateTime createdAt;
@@ -1,21 +1,64 @@
 package com.quocchung.dangbai.duandangbai.repository;
 
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
 import com.quocchung.dangbai.duandangbai.model.Notification;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
-  @Query("SELECT n FROM Notification  n "
-         + "WHERE n.user.id =  :userId "
-         + "ORDER BY n.createdAt DESC")
-  List<Notification> findAllByUserIdOrderByCreatedAtDesc(Long userId);
+  /*- Trang đầu hộp thư. Projection: n.post.id... đọc từ cột khóa ngoại, không join / không load entity liên quan;
+   *  WHERE user_id + ORDER BY created_at, id đi thẳng theo idx_notifications_user_created
+   *  (readOnly transaction riêng: service đọc hộp thư không mở transaction, trang đầu thường lấy từ Redis) -*/
+  @Query("SELECT new com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse("
+         + "n.id, n.type, n.message, n.isRead, n.createdAt, n.post.id, n.comment.id, n.reaction.id) "
+         + "FROM Notification n "
+         + "WHERE n.user.id = :userId "
+         + "ORDER BY n.createdAt DESC, n.id DESC")
+  @Transactional(readOnly = true)
+  List<NotificationResponse> findInbox(@Param("userId") Long userId, Pageable pageable);
 
+  /*- Các trang sau: keyset (createdAt, id) < cursor, chi phí không phụ thuộc số thông báo đã có -*/
+  @Query("SELECT new com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse("
+         + "n.id, n.type, n.message, n.isRead, n.createdAt, n.post.id, n.comment.id, n.reaction.id) "
+         + "FROM Notification n "
+         + "WHERE n.user.id = :userId "
+         + "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) "
+         + "ORDER BY n.createdAt DESC, n.id DESC")
+  @Transactional(readOnly = true)
+  List<NotificationResponse> findInboxAfter(@Param("userId") Long userId,
+      @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+  /*- Một thông báo của user (sau khi đánh dấu đã đọc, để cập nhật cache) -*/
+  @Query("SELECT new com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse("
+         + "n.id, n.type, n.message, n.isRead, n.createdAt, n.post.id, n.comment.id, n.reaction.id) "
+         + "FROM Notification n "
+         + "WHERE n.id = :id AND n.user.id = :userId")
+  Optional<NotificationResponse> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+  /*- Chỉ chạy khi Redis chưa có bộ đếm (nạp lại) hoặc Redis lỗi; dùng idx_notifications_user_read -*/
   @Query("SELECT COUNT(n) FROM Notification n "
          + "WHERE   n.user.id = :userId AND n.isRead = false ")
-  long countByUserIdAndIsReadFalse(Long userId);
+  @Transactional(readOnly = true)
+  long countByUserIdAndIsReadFalse(@Param("userId") Long userId);
+
+  /*- Trả 0 khi không phải thông báo của user hoặc đã đọc từ trước -*/
+  @Modifying
+  @Query("UPDATE Notification n SET n.isRead = true "
+         + "WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
+  int markAsRead(@Param("id") Long id, @Param("userId") Long userId);
+
+  @Modifying
+  @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+  int markAllAsRead(@Param("userId") Long userId);
 
 }
@@ -0,0 +1,36 @@
+package com.quocchung.dangbai.duandangbai.repository;
+
+import com.quocchung.dangbai.duandangbai.repository.projection.PostListRow;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostCursor;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Đường đọc danh sách bài viết: trả về projection thay vì entity để tránh lazy load
+ * author / category / comments / notifications cho từng dòng.
+ */
+public interface PostListRepository {
+
+  /**
+   * Lọc theo tác giả, danh mục và / hoặc trạng thái, tham số null thì bỏ qua điều kiện đó.
+   * Chỉ sắp xếp theo các key trong PostSortField.
+   */
+  Page<PostListRow> findListRows(Long authorId, Long categoryId, PostStatus status, Pageable pageable);
+
+  /**
+   * Keyset pagination: tối đa limit dòng đứng sau cursor theo thứ tự (order.property, id).
+   * Không OFFSET, không COUNT: trang sâu tốn như trang đầu.
+   * @param after null để lấy trang đầu
+   */
+  List<PostListRow> findListRowsAfter(Long authorId, Long categoryId, PostStatus status, Sort.Order order,
+      PostCursor after, int limit);
+
+  long countListRows(Long authorId, Long categoryId, PostStatus status);
+
+  /*- Các dòng theo danh sách id (không theo thứ tự), dùng để nạp những post chưa có trong cache -*/
+  List<PostListRow> findListRowsByIds(Collection<Long> ids);
+}
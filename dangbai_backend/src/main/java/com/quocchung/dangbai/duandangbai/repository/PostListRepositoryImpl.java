@@ -0,0 +1,163 @@
+package com.quocchung.dangbai.duandangbai.repository;
+
+import com.quocchung.dangbai.duandangbai.repository.projection.PostListRow;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostCursor;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+/**
+ * Một câu SELECT cho cả trang (join author, left join category, bộ đếm đọc thẳng từ posts)
+ * + một câu COUNT khi cần tổng số dòng.
+ */
+class PostListRepositoryImpl implements PostListRepository {
+
+  private static final String SELECT_ROWS = "SELECT new "
+      + "com.quocchung.dangbai.duandangbai.repository.projection.PostListRow("
+      + "p.id, p.title, p.description, p.price, p.location, p.status, p.rejectedReason, "
+      + "p.createdAt, p.updatedAt, p.approvedAt, "
+      + "a.id, a.username, a.email, "
+      + "c.id, c.name, "
+      + "p.viewCount, p.commentCount, p.reactionCount) "
+      + "FROM Post p JOIN p.author a LEFT JOIN p.category c";
+
+  private static final String SELECT_COUNT = "SELECT COUNT(p) FROM Post p";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Page<PostListRow> findListRows(Long authorId, Long categoryId, PostStatus status, Pageable pageable) {
+    String where = where(filters(authorId, categoryId, status));
+
+    TypedQuery<PostListRow> query = entityManager.createQuery(
+        SELECT_ROWS + where + orderBy(pageable.getSort()), PostListRow.class);
+    bind(query, authorId, categoryId, status);
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    List<PostListRow> rows = query.getResultList();
+
+    // Trang cuối / trang chưa đầy thì PageableExecutionUtils tự tính tổng, không chạy COUNT
+    return PageableExecutionUtils.getPage(rows, pageable, () -> countListRows(authorId, categoryId, status));
+  }
+
+  @Override
+  public List<PostListRow> findListRowsAfter(Long authorId, Long categoryId, PostStatus status, Sort.Order order,
+      PostCursor after, int limit) {
+    String column = "p." + sortField(order).getKey();
+    List<String> conditions = filters(authorId, categoryId, status);
+    if (after != null) {
+      conditions.add(keysetPredicate(column, order.isAscending(), after.getValue() == null));
+    }
+    // id cùng chiều với cột chính để MySQL đi ngược / xuôi trên một index (cột, id)
+    String direction = order.isAscending() ? " ASC" : " DESC";
+    String orderBy = " ORDER BY " + column + direction + ", p.id" + direction;
+
+    TypedQuery<PostListRow> query = entityManager.createQuery(
+        SELECT_ROWS + where(conditions) + orderBy, PostListRow.class);
+    bind(query, authorId, categoryId, status);
+    if (after != null) {
+      query.setParameter("afterId", after.getId());
+      if (after.getValue() != null) {
+        query.setParameter("afterValue", after.getValue());
+      }
+    }
+    query.setMaxResults(limit);
+    return query.getResultList();
+  }
+
+  @Override
+  public long countListRows(Long authorId, Long categoryId, PostStatus status) {
+    TypedQuery<Long> count = entityManager.createQuery(
+        SELECT_COUNT + where(filters(authorId, categoryId, status)), Long.class);
+    bind(count, authorId, categoryId, status);
+    return count.getSingleResult();
+  }
+
+  @Override
+  public List<PostListRow> findListRowsByIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return entityManager.createQuery(SELECT_ROWS + " WHERE p.id IN :ids", PostListRow.class)
+        .setParameter("ids", ids)
+        .getResultList();
+  }
+
+  private static List<String> filters(Long authorId, Long categoryId, PostStatus status) {
+    List<String> conditions = new ArrayList<>(4);
+    if (authorId != null) {
+      conditions.add("p.author.id = :authorId");
+    }
+    if (categoryId != null) {
+      conditions.add("p.category.id = :categoryId");
+    }
+    if (status != null) {
+      conditions.add("p.status = :status");
+    }
+    return conditions;
+  }
+
+  private static String where(List<String> conditions) {
+    return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+  }
+
+  private static void bind(TypedQuery<?> query, Long authorId, Long categoryId, PostStatus status) {
+    if (authorId != null) {
+      query.setParameter("authorId", authorId);
+    }
+    if (categoryId != null) {
+      query.setParameter("categoryId", categoryId);
+    }
+    if (status != null) {
+      query.setParameter("status", status);
+    }
+  }
+
+  /**
+   * Điều kiện "đứng sau (afterValue, afterId)".
+   * NULL được MySQL / H2 xếp nhỏ nhất: đứng đầu khi ASC, cuối khi DESC.
+   */
+  private static String keysetPredicate(String column, boolean ascending, boolean afterNull) {
+    String cmp = ascending ? " > " : " < ";
+    if (afterNull) {
+      return ascending
+          ? "((" + column + " IS NULL AND p.id > :afterId) OR " + column + " IS NOT NULL)"
+          : "(" + column + " IS NULL AND p.id < :afterId)";
+    }
+    String afterValue = "(" + column + cmp + ":afterValue OR (" + column + " = :afterValue AND p.id" + cmp + ":afterId)";
+    return ascending ? afterValue + ")" : afterValue + " OR " + column + " IS NULL)";
+  }
+
+  /*- Tên thuộc tính được ghép thẳng vào JPQL nên chỉ nhận key trong danh mục -*/
+  private static PostSortField sortField(Sort.Order order) {
+    return PostSortField.fromKey(order.getProperty())
+        .orElseThrow(() -> new IllegalArgumentException("Không hỗ trợ sắp xếp theo: " + order.getProperty()));
+  }
+
+  private static String orderBy(Sort sort) {
+    if (sort.isUnsorted()) {
+      return "";
+    }
+    StringBuilder clause = new StringBuilder(" ORDER BY ");
+    String direction = " DESC";
+    for (Sort.Order order : sort) {
+      direction = order.isAscending() ? " ASC" : " DESC";
+      clause.append("p.").append(sortField(order).getKey()).append(direction).append(", ");
+    }
+    // Thêm id (cùng chiều với cột cuối, khớp index (cột, id)) để thứ tự ổn định khi cột sắp xếp trùng giá trị
+    return clause.append("p.id").append(direction).toString();
+  }
+}
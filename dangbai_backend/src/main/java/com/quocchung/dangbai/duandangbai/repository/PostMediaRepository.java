@@ -1,9 +1,17 @@
 package com.quocchung.dangbai.duandangbai.repository;
 
 import com.quocchung.dangbai.duandangbai.model.PostMedia;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PostMediaRepository extends JpaRepository<PostMedia, Long> {
+
+  /*- Lấy media của cả một trang bài viết trong một câu IN, đã sắp theo thứ tự hiển thị -*/
+  @Query("SELECT m FROM PostMedia m WHERE m.post.id IN :postIds ORDER BY m.post.id, m.position")
+  List<PostMedia> findByPostIdIn(@Param("postIds") Collection<Long> postIds);
 }
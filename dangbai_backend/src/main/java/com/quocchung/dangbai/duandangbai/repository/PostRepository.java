@@ -1,16 +1,22 @@
 package com.quocchung.dangbai.duandangbai.repository;
 
 import com.quocchung.dangbai.duandangbai.model.Post;
+import com.quocchung.dangbai.duandangbai.repository.projection.PostFeedEntry;
 import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostListRepository {
   // Lấy bài viết theo trạng thái
   Page<Post> findByStatus(PostStatus status, Pageable pageable);
 
@@ -26,4 +32,57 @@ public interface PostRepository extends JpaRepository<Post, Long> {
                                    @Param("status") PostStatus status,
                                    Pageable pageable);
 
-}
\ No newline at end of file
+  /*- Cộng dồn bộ đếm nguyên tử ở DB (delta có thể âm), không đụng updatedAt -*/
+  @Modifying
+  @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :id")
+  int addCommentCount(@Param("id") Long id, @Param("delta") long delta);
+
+  @Modifying
+  @Query("UPDATE Post p SET p.reactionCount = p.reactionCount + :delta WHERE p.id = :id")
+  int addReactionCount(@Param("id") Long id, @Param("delta") long delta);
+
+  @Modifying
+  @Query("UPDATE Post p SET p.viewCount = p.viewCount + :delta WHERE p.id = :id")
+  int addViewCount(@Param("id") Long id, @Param("delta") long delta);
+
+  /*- Chi tiết bài viết: post + author + category + media trong một câu (không lazy load khi map sang response).
+   *  readOnly transaction riêng như các finder đọc khác: OSIV tắt nên gọi ngoài transaction của service vẫn load đủ -*/
+  @Query("SELECT p FROM Post p "
+         + "JOIN FETCH p.author "
+         + "LEFT JOIN FETCH p.category "
+         + "LEFT JOIN FETCH p.media "
+         + "WHERE p.id = :id")
+  @Transactional(readOnly = true)
+  Optional<Post> findDetailById(@Param("id") Long id);
+
+  /*- Duyệt các post theo trạng thái theo lô id tăng dần (dựng lại feed), không load entity -*/
+  @Query("SELECT new com.quocchung.dangbai.duandangbai.repository.projection.PostFeedEntry("
+         + "p.id, c.id, p.status, p.createdAt) "
+         + "FROM Post p LEFT JOIN p.category c "
+         + "WHERE p.status = :status AND p.id > :afterId ORDER BY p.id")
+  @Transactional(readOnly = true)
+  List<PostFeedEntry> findFeedEntries(@Param("status") PostStatus status, @Param("afterId") long afterId,
+      Pageable pageable);
+
+  /*- Các post thay đổi từ thời điểm since (mọi trạng thái) -*/
+  @Query("SELECT new com.quocchung.dangbai.duandangbai.repository.projection.PostFeedEntry("
+         + "p.id, c.id, p.status, p.createdAt) "
+         + "FROM Post p LEFT JOIN p.category c WHERE p.updatedAt >= :since")
+  @Transactional(readOnly = true)
+  List<PostFeedEntry> findFeedEntriesUpdatedSince(@Param("since") LocalDateTime since);
+
+  @Query("SELECT COALESCE(MAX(p.id), 0) FROM Post p")
+  long findMaxId();
+
+  /*- Đối soát comment/reaction của các post trong khoảng id (fromId, toId], trả về số dòng bị lệch đã sửa -*/
+  @Modifying
+  @Query(value = "UPDATE posts p SET "
+                 + "comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id), "
+                 + "reaction_count = (SELECT COUNT(*) FROM reactions r WHERE r.post_id = p.id) "
+                 + "WHERE p.id > :fromId AND p.id <= :toId AND ("
+                 + "p.comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id) "
+                 + "OR p.reaction_count <> (SELECT COUNT(*) FROM reactions r WHERE r.post_id = p.id))",
+         nativeQuery = true)
+  int reconcileCounters(@Param("fromId") long fromId, @Param("toId") long toId);
+
+}
@@ -4,6 +4,8 @@ package com.quocchung.dangbai.duandangbai.repository;
 import com.quocchung.dangbai.duandangbai.model.Role;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,6 +14,10 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
   /*- Lấy ra role từ name -*/
   Optional<Role> findByName(String name);
 
+  /*- Lấy role kèm permissions trong 1 query -*/
+  @Query("SELECT r FROM Role r LEFT JOIN FETCH r.permissions WHERE r.name = :name")
+  Optional<Role> findByNameWithPermissions(@Param("name") String name);
+
   /*- Kiểm tra role có tồn tại không từ name -*/
   boolean existsByName(String name);
 }
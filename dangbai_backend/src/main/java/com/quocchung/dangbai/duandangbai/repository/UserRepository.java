@@ -1,10 +1,14 @@
 package com.quocchung.dangbai.duandangbai.repository;
 
 import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.security.UserAuthState;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -15,13 +19,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
   /*- Lấy ra người dùng từ email -*/
   Optional<User> findByEmail(String email);
 
-  /*- Lấy ra  một user cùng tất cả role và permission của họ trong một query duy nhất -*/
+  /*- Lấy ra  một user cùng tất cả role và permission của họ trong một query duy nhất
+   *  (readOnly transaction riêng: được gọi từ UserDetailsCache khi miss, ngoài transaction của service) -*/
   @Query("  SELECT u FROM User u "
          + "LEFT JOIN FETCH u.roles r "
          + "LEFT JOIN FETCH r.permissions p "
          + "WHERE u.username = :username")
+  @Transactional(readOnly = true)
   Optional<User> findByUsernameWithRolesAndPermissions(String username);
 
+  /*- Giống trên nhưng tìm theo email (đăng nhập bằng email) -*/
+  @Query("  SELECT u FROM User u "
+         + "LEFT JOIN FETCH u.roles r "
+         + "LEFT JOIN FETCH r.permissions p "
+         + "WHERE u.email = :email")
+  @Transactional(readOnly = true)
+  Optional<User> findByEmailWithRolesAndPermissions(String email);
+
+  /*- Giống trên nhưng tìm theo id -*/
+  @Query("  SELECT u FROM User u "
+         + "LEFT JOIN FETCH u.roles r "
+         + "LEFT JOIN FETCH r.permissions p "
+         + "WHERE u.id = :id")
+  @Transactional(readOnly = true)
+  Optional<User> findByIdWithRolesAndPermissions(Long id);
+
+  /*- Chỉ lấy trạng thái tài khoản + authVersion (không load roles) -*/
+  @Query("SELECT new com.quocchung.dangbai.duandangbai.security.UserAuthState(u.accountStatus, u.authVersion) "
+         + "FROM User u WHERE u.id = :id")
+  Optional<UserAuthState> findAuthStateById(@Param("id") Long id);
+
+  /*- Cập nhật hash mật khẩu (hash lại khi strength BCrypt tăng) -*/
+  @Modifying
+  @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :id")
+  int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
   /*- Kiểm tra người dùng có tồn tại không từ username -*/
   boolean existsByUsername(String username);
 
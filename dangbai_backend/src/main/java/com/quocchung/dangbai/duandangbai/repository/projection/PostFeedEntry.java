@@ -0,0 +1,19 @@
+package com.quocchung.dangbai.duandangbai.repository.projection;
+
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Phần tối thiểu của post để dựng feed trên Redis (id, danh mục, thời điểm tạo làm score).
+ */
+@Getter
+@AllArgsConstructor
+public class PostFeedEntry {
+
+  private final Long id;
+  private final Long categoryId;
+  private final PostStatus status;
+  private final LocalDateTime createdAt;
+}
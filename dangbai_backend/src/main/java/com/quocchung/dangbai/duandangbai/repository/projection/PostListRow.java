@@ -0,0 +1,37 @@
+package com.quocchung.dangbai.duandangbai.repository.projection;
+
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Một dòng của danh sách bài viết: cột của post + author + category và các số đếm,
+ * lấy bằng một câu SELECT duy nhất (constructor projection), không load entity.
+ */
+@Getter
+@AllArgsConstructor
+public class PostListRow {
+
+  private final Long id;
+  private final String title;
+  private final String description;
+  private final Double price;
+  private final String location;
+  private final PostStatus status;
+  private final String rejectedReason;
+  private final LocalDateTime createdAt;
+  private final LocalDateTime updatedAt;
+  private final LocalDateTime approvedAt;
+
+  private final Long authorId;
+  private final String authorUsername;
+  private final String authorEmail;
+
+  private final Long categoryId;
+  private final String categoryName;
+
+  private final Long totalViews;
+  private final Long totalComments;
+  private final Long totalReactions;
+}
@@ -0,0 +1,78 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.exception.ExternalServiceException;
+import com.quocchung.dangbai.duandangbai.service.JwtService;
+import com.quocchung.dangbai.duandangbai.service.TokenStore;
+import com.quocchung.dangbai.duandangbai.utils.token.JwtProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kiểm tra access token đã verify chữ ký: tài khoản còn hoạt động, quyền trong token chưa lỗi thời,
+ * token chưa bị thu hồi. Dùng chung cho request HTTP (JwtAuthenticationFilter) và STOMP CONNECT.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessTokenAuthenticator {
+
+  private final JwtService jwtService;
+  private final UserDetailsService userDetailsService;
+  private final TokenStore tokenStore;
+  private final UserAuthStateCache userAuthStateCache;
+  private final JwtProperties jwtProperties;
+  private final RevocationList revocationList;
+  private final DegradedAuthPolicy degradedAuthPolicy;
+
+  /**
+   * @return principal nếu token còn hiệu lực, null nếu tài khoản không còn hoạt động,
+   *         quyền trong token đã lỗi thời hoặc token đã hết hạn / bị thu hồi
+   */
+  public UserDetails authenticate(String token, VerifiedToken verifiedToken) {
+    UserDetails userDetails = resolvePrincipal(verifiedToken);
+    if (userDetails == null) {
+      return null;
+    }
+    boolean tokenValid = jwtService.isTokenValid(verifiedToken, userDetails)
+                         && isAccessTokenActive(token, verifiedToken);
+    return tokenValid ? userDetails : null;
+  }
+
+  /**
+   * Dựng principal cho request:
+   * - CLAIMS: lấy từ claims trong token + trạng thái tài khoản trong cache (không query DB khi cache hit)
+   * - DATABASE (hoặc token cũ không có userId): load đầy đủ user từ DB
+   * @return null nếu tài khoản không còn hoạt động hoặc quyền trong token đã lỗi thời
+   */
+  private UserDetails resolvePrincipal(VerifiedToken verifiedToken) {
+    boolean claimsMode = jwtProperties.getPrincipal().getMode() == JwtProperties.PrincipalMode.CLAIMS;
+    if (!claimsMode || verifiedToken.getUserId() == null) {
+      return userDetailsService.loadUserByUsername(verifiedToken.getUsername());
+    }
+
+    UserAuthState state = userAuthStateCache.get(verifiedToken.getUserId());
+    if (state == null || !state.isActive() || !state.accepts(verifiedToken.getAuthVersion())) {
+      return null;
+    }
+    return CustomUserDetails.fromToken(verifiedToken, state);
+  }
+
+  /**
+   * Access token còn hiệu lực (chưa logout):
+   * - STORE: token phải còn trong TokenStore
+   * - STATELESS: không gọi TokenStore, chỉ kiểm tra revocation list trong bộ nhớ
+   * TokenStore không truy cập được (Redis lỗi / circuit breaker mở) thì quyết định theo DegradedAuthPolicy
+   */
+  private boolean isAccessTokenActive(String token, VerifiedToken verifiedToken) {
+    if (jwtProperties.getAccessTokenMode() == JwtProperties.AccessTokenMode.STATELESS) {
+      // Refresh token không có userId, không được dùng thay access token
+      return verifiedToken.getUserId() != null && !revocationList.isRevoked(verifiedToken);
+    }
+    try {
+      return tokenStore.isAccessTokenValid(token, verifiedToken.getUserId(), verifiedToken.getExpiration());
+    } catch (ExternalServiceException e) {
+      return degradedAuthPolicy.allow(verifiedToken);
+    }
+  }
+}
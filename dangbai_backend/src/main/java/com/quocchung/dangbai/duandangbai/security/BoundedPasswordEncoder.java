@@ -0,0 +1,146 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.exception.RateLimitException;
+import com.quocchung.dangbai.duandangbai.utils.password.PasswordHashingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt chạy trên executor riêng có giới hạn thay vì trên thread Tomcat:
+ * - Số thread cố định: login/register dồn dập chỉ chiếm tối đa N core, request đọc vẫn có CPU
+ * - Hàng đợi có giới hạn: đầy thì ném RateLimitException (429) ngay, không xếp hàng vô hạn
+ * - Chờ quá maxWait cũng trả 429
+ * - Strength có thể tự chọn lúc khởi động theo targetLatency; hash cũ có strength thấp hơn
+ *   được upgradeEncoding() báo để DaoAuthenticationProvider hash lại khi login thành công
+ * Metrics: password_encoder.queue.size, password_encoder.active, password_encoder.hash (tag op),
+ * password_encoder.wait, password_encoder.rejected.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private static final long RETRY_AFTER_SECONDS = 1;
+
+  private final ThreadPoolExecutor executor;
+  private final BCryptPasswordEncoder delegate;
+  @Getter
+  private final int strength;
+  private final long maxWaitNanos;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Timer waitTimer;
+  private final Counter rejected;
+
+  public BoundedPasswordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+    this.strength = properties.getAdaptive().isEnabled()
+        ? calibrateStrength(properties.getAdaptive())
+        : properties.getStrength();
+    this.delegate = new BCryptPasswordEncoder(strength);
+    this.maxWaitNanos = properties.getMaxWait().toNanos();
+
+    AtomicInteger threadIndex = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(
+        properties.getThreads(), properties.getThreads(),
+        0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
+    this.encodeTimer = Timer.builder("password_encoder.hash").tag("op", "encode").register(meterRegistry);
+    this.matchesTimer = Timer.builder("password_encoder.hash").tag("op", "matches").register(meterRegistry);
+    this.waitTimer = Timer.builder("password_encoder.wait").register(meterRegistry);
+    this.rejected = meterRegistry.counter("password_encoder.rejected");
+    Gauge.builder("password_encoder.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+    Gauge.builder("password_encoder.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    log.info("Password encoder: BCrypt strength {}, {} threads, queue {}",
+        strength, properties.getThreads(), properties.getQueueCapacity());
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+  }
+
+  /*- Hash có strength thấp hơn strength hiện tại thì cần hash lại -*/
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    long submittedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        return task.call();
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new RateLimitException(ErrorCode.TOO_MANY_REQUESTS, RETRY_AFTER_SECONDS);
+    }
+    try {
+      return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejected.increment();
+      throw new RateLimitException(ErrorCode.TOO_MANY_REQUESTS, RETRY_AFTER_SECONDS);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing password", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  /*- Đo thời gian hash với strength tăng dần, chọn strength lớn nhất không vượt targetLatency -*/
+  private static int calibrateStrength(PasswordHashingProperties.Adaptive adaptive) {
+    long targetNanos = adaptive.getTargetLatency().toNanos();
+    int chosen = adaptive.getMinStrength();
+    for (int candidate = adaptive.getMinStrength(); candidate <= adaptive.getMaxStrength(); candidate++) {
+      BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+      encoder.encode("calibration"); // warm-up
+      long start = System.nanoTime();
+      encoder.encode("calibration");
+      long elapsed = System.nanoTime() - start;
+      if (elapsed > targetNanos) {
+        break;
+      }
+      chosen = candidate;
+    }
+    log.info("Calibrated BCrypt strength {} for target latency {}", chosen, adaptive.getTargetLatency());
+    return chosen;
+  }
+}
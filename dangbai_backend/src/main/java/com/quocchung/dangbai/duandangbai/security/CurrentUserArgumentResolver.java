@@ -0,0 +1,53 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.exception.AuthenticationException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.security.annotation.CurrentUser;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolve các tham số được đánh dấu @CurrentUser từ VerifiedToken trong request attribute
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    if (!parameter.hasParameterAnnotation(CurrentUser.class)) {
+      return false;
+    }
+    Class<?> type = parameter.getParameterType();
+    return Long.class.equals(type) || VerifiedToken.class.equals(type);
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    CurrentUser annotation = parameter.getParameterAnnotation(CurrentUser.class);
+    boolean required = annotation == null || annotation.required();
+
+    VerifiedToken verifiedToken = (VerifiedToken) webRequest.getAttribute(
+        VerifiedToken.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+    if (verifiedToken == null) {
+      if (required) {
+        throw new AuthenticationException(ErrorCode.UNAUTHORIZED);
+      }
+      return null;
+    }
+
+    if (VerifiedToken.class.equals(parameter.getParameterType())) {
+      return verifiedToken;
+    }
+
+    // Refresh token không chứa userId -> không dùng được để gọi API
+    if (verifiedToken.getUserId() == null && required) {
+      throw new AuthenticationException(ErrorCode.TOKEN_INVALID);
+    }
+    return verifiedToken.getUserId();
+  }
+}
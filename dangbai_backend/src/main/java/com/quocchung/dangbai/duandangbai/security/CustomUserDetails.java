@@ -3,6 +3,7 @@ package com.quocchung.dangbai.duandangbai.security;
 import com.quocchung.dangbai.duandangbai.model.User;
 import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,6 +23,7 @@ public class CustomUserDetails  implements UserDetails {
   private String password;
   private String displayName;
   private AccountStatus accountStatus;
+  private Long authVersion;
 
   private Collection<? extends GrantedAuthority> authorities;
   public static CustomUserDetails build(User user) {
@@ -46,10 +48,40 @@ public class CustomUserDetails  implements UserDetails {
         user.getPasswordHash(),
         user.getDisplayName(),
         user.getAccountStatus(),
+        user.getAuthVersion(),
         authorities
     );
   }
 
+  /**
+   * Dựng principal trực tiếp từ claims của access token, không query DB.
+   * Password/email/displayName không có trong token nên để null.
+   */
+  public static CustomUserDetails fromToken(VerifiedToken token, UserAuthState state) {
+    Collection<GrantedAuthority> authorities = token.getAuthorities().stream()
+        .map(SimpleGrantedAuthority::new)
+        .collect(Collectors.toSet());
+
+    return new CustomUserDetails(
+        token.getUserId(),
+        token.getUsername(),
+        null,
+        null,
+        null,
+        state.getAccountStatus(),
+        token.getAuthVersion(),
+        authorities
+    );
+  }
+
+  /*- Tên các role (authority có prefix ROLE_), dùng để trả về cho client -*/
+  public List<String> getRoleNames() {
+    return authorities.stream()
+        .map(GrantedAuthority::getAuthority)
+        .filter(authority -> authority.startsWith("ROLE_"))
+        .toList();
+  }
+
   /*- Trả về danh sách các quyền  -*/
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
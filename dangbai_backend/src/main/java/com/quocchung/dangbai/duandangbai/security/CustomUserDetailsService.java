@@ -5,6 +5,7 @@ import com.quocchung.dangbai.duandangbai.model.User;
 import com.quocchung.dangbai.duandangbai.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,29 +13,52 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
   private final UserRepository userRepository;
+  private final UserDetailsCache userDetailsCache;
 
+  /**
+   * Load user theo username hoặc email.
+   * Đọc từ UserDetailsCache, chỉ khi miss mới query DB (1 query fetch join roles + permissions)
+   */
   @Override
-  @Transactional(readOnly = true)
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    User user = userRepository.findByUsername(username)
-        .orElseGet(() -> userRepository.findByEmail(username)
+    return userDetailsCache.getByLogin(username, this::loadFromDatabase);
+  }
+
+  public UserDetails loadUserById(Long id) {
+    return userDetailsCache.getById(id, key -> {
+      User user = userRepository.findByIdWithRolesAndPermissions(key)
+          .orElseThrow(() -> new UsernameNotFoundException(
+              ErrorCode.USER_NOT_FOUND.getMessage() + " with id: " + key
+          ));
+      return CustomUserDetails.build(user);
+    });
+  }
+
+  /**
+   * DaoAuthenticationProvider gọi sau khi login thành công nếu hash cũ có strength thấp hơn hiện tại
+   * (PasswordEncoder.upgradeEncoding), newPassword là hash mới của mật khẩu vừa nhập
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    CustomUserDetails details = (CustomUserDetails) user;
+    userRepository.updatePasswordHash(details.getId(), newPassword);
+    // UPDATE JPQL không qua entity listener nên tự xóa cache
+    userDetailsCache.invalidate(details.getId());
+    return new CustomUserDetails(details.getId(), details.getUsername(), details.getEmail(), newPassword,
+        details.getDisplayName(), details.getAccountStatus(), details.getAuthVersion(), details.getAuthorities());
+  }
+
+  private CustomUserDetails loadFromDatabase(String username) {
+    User user = userRepository.findByUsernameWithRolesAndPermissions(username)
+        .orElseGet(() -> userRepository.findByEmailWithRolesAndPermissions(username)
             .orElseThrow(() -> new UsernameNotFoundException(
                 ErrorCode.USER_NOT_FOUND.getMessage() + ": " + username
             ))
         );
-
-    return CustomUserDetails.build(user);
-  }
-
-  @Transactional(readOnly = true)
-  public UserDetails loadUserById(Long id) {
-    User user = userRepository.findById(id)
-        .orElseThrow(() -> new UsernameNotFoundException(
-            ErrorCode.USER_NOT_FOUND.getMessage() + " with id: " + id
-        ));
     return CustomUserDetails.build(user);
   }
 }
@@ -0,0 +1,37 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.exception.ResourceNotFoundException;
+import com.quocchung.dangbai.duandangbai.model.Role;
+import com.quocchung.dangbai.duandangbai.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Giữ role mặc định (ROLE_USER) cùng permissions trong bộ nhớ để đăng ký không phải query role.
+ * Entity được giữ ở trạng thái detached (permissions đã load sẵn), chỉ dùng id khi insert user_roles.
+ * UserAuthChangeListener xóa cache khi Role / Permission thay đổi.
+ */
+@Component
+@RequiredArgsConstructor
+public class DefaultRoleCache {
+
+  public static final String DEFAULT_ROLE = "ROLE_USER";
+
+  private final RoleRepository roleRepository;
+  private volatile Role defaultRole;
+
+  public Role get() {
+    Role role = defaultRole;
+    if (role == null) {
+      role = roleRepository.findByNameWithPermissions(DEFAULT_ROLE)
+          .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.ROLE_NOT_FOUND));
+      defaultRole = role;
+    }
+    return role;
+  }
+
+  public void invalidate() {
+    defaultRole = null;
+  }
+}
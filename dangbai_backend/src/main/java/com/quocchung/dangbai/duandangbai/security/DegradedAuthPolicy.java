@@ -0,0 +1,48 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.utils.resilience.RedisResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quyết định cho access token khi TokenStore không trả lời được (Redis lỗi, timeout, circuit breaker mở).
+ * Token tới đây đã được verify chữ ký + exp; nếu bật redis-resilience.fail-open thì chấp nhận
+ * khi không có trong revocation list cục bộ, ngược lại từ chối như trước.
+ * Mỗi quyết định được đếm trong metric auth.token_store.fallback (tag decision).
+ */
+@Component
+@Slf4j
+public class DegradedAuthPolicy {
+
+  private final RedisResilienceProperties properties;
+  private final RevocationList revocationList;
+  private final Counter allowed;
+  private final Counter revoked;
+  private final Counter rejected;
+
+  public DegradedAuthPolicy(RedisResilienceProperties properties, RevocationList revocationList,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.revocationList = revocationList;
+    this.allowed = meterRegistry.counter("auth.token_store.fallback", "decision", "allowed");
+    this.revoked = meterRegistry.counter("auth.token_store.fallback", "decision", "revoked");
+    this.rejected = meterRegistry.counter("auth.token_store.fallback", "decision", "rejected");
+  }
+
+  public boolean allow(VerifiedToken verifiedToken) {
+    // Fail closed, hoặc refresh token (không có userId) dùng thay access token
+    if (!properties.isFailOpen() || verifiedToken.getUserId() == null) {
+      rejected.increment();
+      return false;
+    }
+    if (revocationList.isRevoked(verifiedToken)) {
+      revoked.increment();
+      return false;
+    }
+    allowed.increment();
+    log.debug("Token store unavailable, accepted token of user {} on signature", verifiedToken.getUserId());
+    return true;
+  }
+}
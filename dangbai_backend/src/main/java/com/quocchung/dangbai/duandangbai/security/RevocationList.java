@@ -0,0 +1,246 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.utils.cache.BloomFilter;
+import com.quocchung.dangbai.duandangbai.utils.resilience.RedisResilienceProperties;
+import com.quocchung.dangbai.duandangbai.utils.token.JwtProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Danh sách access token bị thu hồi, dùng khi:
+ * - jwt.access-token-mode=STATELESS: filter không gọi TokenStore mỗi request
+ * - redis-resilience.fail-open: filter cần biết token đã logout khi Redis không truy cập được
+ * Kiểm tra hoàn toàn trong bộ nhớ:
+ * - Token bị thu hồi lẻ (logout): bloom filter lọc nhanh, tập jti chính xác xác nhận lại
+ * - Logout all devices: mốc thời gian theo user, token có iat <= mốc bị coi là thu hồi
+ * Mỗi thay đổi được ghi vào Redis (ZSET jti theo exp, HASH user -> mốc) để node mới khởi động dựng lại,
+ * và publish lên kênh pub/sub để các node khác áp dụng ngay.
+ * Entry chỉ được giữ tới khi token tương ứng hết hạn tự nhiên.
+ */
+@Component
+@Slf4j
+public class RevocationList implements MessageListener, SubscriptionListener {
+
+  public static final String REVOCATION_CHANNEL = "access_token_revocations";
+  private static final String REVOKED_JTI_KEY = "revoked_jti";
+  private static final String REVOKED_USERS_KEY = "revoked_users";
+  private static final String JTI_MESSAGE_PREFIX = "jti:";
+  private static final String USER_MESSAGE_PREFIX = "user:";
+  private static final long CLEANUP_INTERVAL_SECONDS = 60;
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final JwtProperties jwtProperties;
+  private final RedisResilienceProperties resilienceProperties;
+
+  // jti -> thời điểm hết hạn của token (ms)
+  private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+  // userId -> mốc thu hồi (ms)
+  private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+  private final Object writeLock = new Object();
+  private volatile BloomFilter bloomFilter;
+  private ScheduledExecutorService cleaner;
+
+  public RevocationList(StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer listenerContainer,
+      JwtProperties jwtProperties,
+      RedisResilienceProperties resilienceProperties) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.listenerContainer = listenerContainer;
+    this.jwtProperties = jwtProperties;
+    this.resilienceProperties = resilienceProperties;
+    this.bloomFilter = newBloomFilter(0);
+  }
+
+  public boolean isEnabled() {
+    return jwtProperties.getAccessTokenMode() == JwtProperties.AccessTokenMode.STATELESS
+           || resilienceProperties.isFailOpen();
+  }
+
+  @PostConstruct
+  void start() {
+    if (!isEnabled()) {
+      return;
+    }
+    // Dựng ngay để phục vụ request đầu tiên; khi kênh subscribe xong sẽ dựng lại (onChannelSubscribed)
+    // để không bỏ sót thu hồi xảy ra trước lúc subscribe
+    listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+    rebuild();
+    cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "revocation-list-cleanup");
+      thread.setDaemon(true);
+      return thread;
+    });
+    cleaner.scheduleAtFixedRate(this::cleanup, CLEANUP_INTERVAL_SECONDS, CLEANUP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (cleaner != null) {
+      cleaner.shutdownNow();
+    }
+  }
+
+  /**
+   * Token đã bị thu hồi hay chưa
+   * Token phát hành trước khi có jti chỉ bị chặn bởi mốc logout all
+   */
+  public boolean isRevoked(VerifiedToken verifiedToken) {
+    Long userId = verifiedToken.getUserId();
+    if (userId != null && verifiedToken.getIssuedAt() != null) {
+      Long cutoff = userCutoffs.get(userId);
+      // So sánh theo giây: iat chỉ có độ chính xác giây, token cấp trong cùng giây với logout all
+      // (kể cả ngay sau đó) cũng bị thu hồi. floorDiv cho cả mốc ms ghi bởi phiên bản cũ
+      if (cutoff != null
+          && Math.floorDiv(verifiedToken.getIssuedAt().getTime(), 1000L) <= Math.floorDiv(cutoff, 1000L)) {
+        return true;
+      }
+    }
+    String jti = verifiedToken.getJti();
+    return jti != null && bloomFilter.mightContain(jti) && revokedTokens.containsKey(jti);
+  }
+
+  /*- Thu hồi một access token (logout) -*/
+  public void revoke(VerifiedToken verifiedToken) {
+    if (!isEnabled() || verifiedToken.getJti() == null || verifiedToken.getExpiration() == null) {
+      return;
+    }
+    String jti = verifiedToken.getJti();
+    long expiresAt = verifiedToken.getExpiration().getTime();
+    applyToken(jti, expiresAt);
+    try {
+      stringRedisTemplate.opsForZSet().add(REVOKED_JTI_KEY, jti, expiresAt);
+      stringRedisTemplate.convertAndSend(REVOCATION_CHANNEL, JTI_MESSAGE_PREFIX + expiresAt + ":" + jti);
+    } catch (Exception e) {
+      log.error("Error replicating token revocation: {}", e.getMessage());
+    }
+  }
+
+  /*- Thu hồi mọi access token đã cấp cho user tới thời điểm hiện tại (logout all devices) -*/
+  public void revokeUser(Long userId) {
+    if (!isEnabled() || userId == null) {
+      return;
+    }
+    // Mốc làm tròn xuống giây, cùng độ chính xác với iat
+    long cutoff = Math.floorDiv(System.currentTimeMillis(), 1000L) * 1000L;
+    applyUser(userId, cutoff);
+    try {
+      stringRedisTemplate.opsForHash().put(REVOKED_USERS_KEY, userId.toString(), Long.toString(cutoff));
+      stringRedisTemplate.convertAndSend(REVOCATION_CHANNEL, USER_MESSAGE_PREFIX + cutoff + ":" + userId);
+    } catch (Exception e) {
+      log.error("Error replicating user revocation: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    try {
+      if (body.startsWith(JTI_MESSAGE_PREFIX)) {
+        String[] parts = body.substring(JTI_MESSAGE_PREFIX.length()).split(":", 2);
+        applyToken(parts[1], Long.parseLong(parts[0]));
+      } else if (body.startsWith(USER_MESSAGE_PREFIX)) {
+        String[] parts = body.substring(USER_MESSAGE_PREFIX.length()).split(":", 2);
+        applyUser(Long.valueOf(parts[1]), Long.parseLong(parts[0]));
+      }
+    } catch (RuntimeException e) {
+      log.warn("Invalid revocation message: {}", body);
+    }
+  }
+
+  /*- Subscribe lần đầu hoặc subscribe lại sau khi Redis mất kết nối: message trong khoảng đó đã mất,
+   *  đọc lại toàn bộ từ Redis -*/
+  @Override
+  public void onChannelSubscribed(byte[] channel, long count) {
+    rebuild();
+  }
+
+  /*- Dựng lại danh sách từ Redis (khi khởi động và mỗi lần subscribe) -*/
+  void rebuild() {
+    long now = System.currentTimeMillis();
+    try {
+      stringRedisTemplate.opsForZSet().removeRangeByScore(REVOKED_JTI_KEY, Double.NEGATIVE_INFINITY, now);
+      Set<ZSetOperations.TypedTuple<String>> tokens =
+          stringRedisTemplate.opsForZSet().rangeByScoreWithScores(REVOKED_JTI_KEY, now, Double.POSITIVE_INFINITY);
+      if (tokens != null) {
+        for (ZSetOperations.TypedTuple<String> token : tokens) {
+          if (token.getValue() != null && token.getScore() != null) {
+            applyToken(token.getValue(), token.getScore().longValue());
+          }
+        }
+      }
+
+      Map<Object, Object> users = stringRedisTemplate.opsForHash().entries(REVOKED_USERS_KEY);
+      for (Map.Entry<Object, Object> user : users.entrySet()) {
+        long cutoff = Long.parseLong(user.getValue().toString());
+        if (isUserCutoffActive(cutoff, now)) {
+          applyUser(Long.valueOf(user.getKey().toString()), cutoff);
+        } else {
+          stringRedisTemplate.opsForHash().delete(REVOKED_USERS_KEY, user.getKey());
+        }
+      }
+      log.info("Revocation list rebuilt: {} tokens, {} users", revokedTokens.size(), userCutoffs.size());
+    } catch (Exception e) {
+      log.error("Error rebuilding revocation list: {}", e.getMessage());
+    }
+  }
+
+  /*- Bỏ entry đã hết hạn và dựng lại bloom filter (bloom filter không xóa được phần tử) -*/
+  void cleanup() {
+    long now = System.currentTimeMillis();
+    try {
+      synchronized (writeLock) {
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        userCutoffs.values().removeIf(cutoff -> !isUserCutoffActive(cutoff, now));
+        BloomFilter rebuilt = newBloomFilter(revokedTokens.size());
+        revokedTokens.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+      }
+      stringRedisTemplate.opsForZSet().removeRangeByScore(REVOKED_JTI_KEY, Double.NEGATIVE_INFINITY, now);
+    } catch (Exception e) {
+      log.error("Error cleaning up revocation list: {}", e.getMessage());
+    }
+  }
+
+  private void applyToken(String jti, long expiresAt) {
+    if (expiresAt <= System.currentTimeMillis()) {
+      return;
+    }
+    // Ghi tập chính xác trước rồi mới bloom filter, cùng lock với cleanup để không mất phần tử khi đổi filter
+    synchronized (writeLock) {
+      revokedTokens.merge(jti, expiresAt, Math::max);
+      bloomFilter.put(jti);
+    }
+  }
+
+  private void applyUser(Long userId, long cutoff) {
+    userCutoffs.merge(userId, cutoff, Math::max);
+  }
+
+  /*- Mốc logout all chỉ cần giữ tới khi access token cấp trước mốc đó (tới hết giây của mốc) hết hạn -*/
+  private boolean isUserCutoffActive(long cutoff, long now) {
+    return cutoff + 1000L + jwtProperties.getExpiration() > now;
+  }
+
+  private BloomFilter newBloomFilter(int size) {
+    JwtProperties.Revocation revocation = jwtProperties.getRevocation();
+    return BloomFilter.create(Math.max(revocation.getExpectedInsertions(), size * 2L),
+        revocation.getFalsePositiveRate());
+  }
+}
@@ -0,0 +1,100 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.contants.ApiConstant;
+import com.quocchung.dangbai.duandangbai.exception.AuthenticationException;
+import com.quocchung.dangbai.duandangbai.exception.AuthorizationException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.service.JwtService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Xác thực STOMP bằng cùng access token với JwtAuthenticationFilter:
+ * - CONNECT: header "Authorization: Bearer <token>" (trình duyệt không gửi được header lúc handshake nên
+ *   /ws mở, xác thực ở frame CONNECT), token hợp lệ thì gắn WebSocketPrincipal cho phiên
+ * - SUBSCRIBE: chỉ được nghe hàng đợi của chính mình (/user/queue/...), token hết hạn / bị thu hồi thì từ chối
+ * - SEND: không có đích nào nhận message từ client
+ * - DISCONNECT: bỏ token của phiên khỏi StompSessionTokens
+ * Token của phiên còn được kiểm tra lại mỗi lần đẩy thông báo (NotificationPushService).
+ * Ném exception trong preSend: Spring gửi frame ERROR rồi đóng phiên.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+  private static final String USER_QUEUE_PREFIX = "/user" + ApiConstant.WS_QUEUE_PREFIX + "/";
+
+  private final JwtService jwtService;
+  private final AccessTokenAuthenticator accessTokenAuthenticator;
+  private final StompSessionTokens stompSessionTokens;
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+    if (accessor == null || accessor.getCommand() == null) {
+      return message;
+    }
+    switch (accessor.getCommand()) {
+      case CONNECT -> accessor.setUser(authenticate(accessor));
+      case SUBSCRIBE -> {
+        requireActiveToken(accessor);
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(USER_QUEUE_PREFIX)) {
+          throw new AuthorizationException(ErrorCode.FORBIDDEN);
+        }
+      }
+      case SEND -> throw new AuthorizationException(ErrorCode.FORBIDDEN);
+      case DISCONNECT -> stompSessionTokens.remove(accessor.getSessionId());
+      default -> {
+      }
+    }
+    return message;
+  }
+
+  private WebSocketPrincipal authenticate(StompHeaderAccessor accessor) {
+    String authHeader = accessor.getFirstNativeHeader("Authorization");
+    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+      throw new AuthenticationException(ErrorCode.UNAUTHORIZED);
+    }
+    String token = authHeader.substring(7).trim();
+    VerifiedToken verifiedToken;
+    try {
+      verifiedToken = jwtService.verify(token);
+    } catch (ExpiredJwtException e) {
+      throw new AuthenticationException(ErrorCode.TOKEN_EXPIRED);
+    } catch (JwtException e) {
+      throw new AuthenticationException(ErrorCode.TOKEN_INVALID);
+    }
+    // Refresh token không có userId, không dùng để mở phiên
+    if (verifiedToken.getUserId() == null
+        || accessTokenAuthenticator.authenticate(token, verifiedToken) == null) {
+      log.warn("STOMP CONNECT rejected for user {}", verifiedToken.getUsername());
+      throw new AuthenticationException(ErrorCode.TOKEN_INVALID);
+    }
+    stompSessionTokens.register(accessor.getSessionId(), verifiedToken);
+    return new WebSocketPrincipal(verifiedToken.getUserId(), verifiedToken.getUsername());
+  }
+
+  /*- Phiên mở lâu hơn access token: hết hạn / bị thu hồi thì client phải CONNECT lại với token mới -*/
+  private void requireActiveToken(StompHeaderAccessor accessor) {
+    VerifiedToken verifiedToken = stompSessionTokens.get(accessor.getSessionId());
+    if (!(accessor.getUser() instanceof WebSocketPrincipal principal) || verifiedToken == null) {
+      throw new AuthenticationException(ErrorCode.UNAUTHORIZED);
+    }
+    if (verifiedToken.isExpired()) {
+      throw new AuthenticationException(ErrorCode.TOKEN_EXPIRED);
+    }
+    if (!stompSessionTokens.isActive(accessor.getSessionId(), principal.userId())) {
+      throw new AuthenticationException(ErrorCode.TOKEN_INVALID);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access token của từng phiên STOMP trên node này (sessionId -> token đã verify lúc CONNECT).
+ * Phiên sống lâu hơn access token nên mỗi lần SUBSCRIBE / đẩy thông báo đều kiểm tra lại token của phiên:
+ * hết hạn, logout, logout-all (revokeUser), tài khoản bị khóa hay quyền lỗi thời thì phiên không nhận gì nữa
+ * cho tới khi client CONNECT lại với token mới.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompSessionTokens {
+
+  private final AccessTokenAuthenticator accessTokenAuthenticator;
+  private final Map<String, VerifiedToken> sessions = new ConcurrentHashMap<>();
+
+  public void register(String sessionId, VerifiedToken verifiedToken) {
+    if (sessionId != null) {
+      sessions.put(sessionId, verifiedToken);
+    }
+  }
+
+  /*- Gọi khi phiên đóng (frame DISCONNECT, kể cả khi kết nối rớt) -*/
+  public void remove(String sessionId) {
+    if (sessionId != null) {
+      sessions.remove(sessionId);
+    }
+  }
+
+  /*- Token đã ghi nhận của phiên, null nếu phiên chưa CONNECT trên node này -*/
+  public VerifiedToken get(String sessionId) {
+    return sessionId != null ? sessions.get(sessionId) : null;
+  }
+
+  /**
+   * Phiên còn được nhận dữ liệu của user hay không: token còn hạn, đúng user và chưa bị thu hồi
+   * (cùng kiểm tra với JwtAuthenticationFilter, đi qua cache nên không query DB khi cache hit).
+   * Token không còn hiệu lực thì bỏ khỏi danh sách, các lần sau trả false ngay.
+   */
+  public boolean isActive(String sessionId, Long userId) {
+    VerifiedToken verifiedToken = get(sessionId);
+    if (verifiedToken == null || userId == null || !userId.equals(verifiedToken.getUserId())) {
+      return false;
+    }
+    boolean active;
+    try {
+      active = !verifiedToken.isExpired()
+               && accessTokenAuthenticator.authenticate(verifiedToken.getToken(), verifiedToken) != null;
+    } catch (RuntimeException e) {
+      log.debug("STOMP session {} token check failed: {}", sessionId, e.getMessage());
+      active = false;
+    }
+    if (!active) {
+      sessions.remove(sessionId, verifiedToken);
+    }
+    return active;
+  }
+}
@@ -0,0 +1,186 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.model.Permission;
+import com.quocchung.dangbai.duandangbai.model.Role;
+import com.quocchung.dangbai.duandangbai.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Objects;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate event listener: khi User, Role, Permission hoặc bảng nối user_roles / role_permissions thay đổi
+ * thì xóa cache trạng thái xác thực, cache CustomUserDetails và role mặc định trên mọi node (UserAuthInvalidations).
+ * - Nghe cả event collection: thêm / bớt role của user chỉ ghi bảng nối, không kích hoạt callback của entity
+ * - Đổi trạng thái tài khoản, role của user, permission của role hoặc chính role / permission: tăng auth_version
+ *   của các user bị ảnh hưởng ngay trong transaction (cùng connection), token mang version cũ bị từ chối
+ * - Chỉ xóa cache sau khi commit, để request đồng thời không nạp lại dòng chưa commit vào cache
+ * Dùng ObjectProvider cho UserAuthInvalidations để tránh vòng phụ thuộc với EntityManagerFactory lúc khởi động.
+ */
+@Component
+public class UserAuthChangeListener implements PostUpdateEventListener, PostDeleteEventListener,
+    PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+  // Phía sở hữu bảng nối; Role.users / Permission.roles là mappedBy, không ghi gì xuống DB
+  private static final String USER_ROLES = User.class.getName() + ".roles";
+  private static final String ROLE_PERMISSIONS = Role.class.getName() + ".permissions";
+
+  private static final String BUMP_USER_SQL =
+      "UPDATE users SET auth_version = auth_version + 1 WHERE id = ?";
+  private static final String BUMP_ROLE_HOLDERS_SQL =
+      "UPDATE users SET auth_version = auth_version + 1 "
+      + "WHERE id IN (SELECT user_id FROM user_roles WHERE role_id = ?)";
+  private static final String BUMP_PERMISSION_HOLDERS_SQL =
+      "UPDATE users SET auth_version = auth_version + 1 "
+      + "WHERE id IN (SELECT ur.user_id FROM user_roles ur "
+      + "JOIN role_permissions rp ON rp.role_id = ur.role_id WHERE rp.permission_id = ?)";
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final ObjectProvider<UserAuthInvalidations> invalidations;
+
+  public UserAuthChangeListener(EntityManagerFactory entityManagerFactory,
+      ObjectProvider<UserAuthInvalidations> invalidations) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.invalidations = invalidations;
+  }
+
+  @PostConstruct
+  void register() {
+    EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .requireService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_UPDATE, this);
+    registry.appendListeners(EventType.POST_DELETE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    Object entity = event.getEntity();
+    if (entity instanceof User user && propertyChanged(event, "accountStatus")) {
+      bumpUser(event.getSession(), user);
+    } else if (entity instanceof Role role) {
+      bump(event.getSession(), BUMP_ROLE_HOLDERS_SQL, role.getId());
+    } else if (entity instanceof Permission permission) {
+      bump(event.getSession(), BUMP_PERMISSION_HOLDERS_SQL, permission.getId());
+    }
+    entityChanged(entity);
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    entityChanged(event.getEntity());
+  }
+
+  @Override
+  public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+    collectionChanged(event);
+  }
+
+  @Override
+  public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+    collectionChanged(event);
+  }
+
+  @Override
+  public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+    collectionChanged(event);
+  }
+
+  private void entityChanged(Object entity) {
+    if (entity instanceof User user) {
+      evictAfterCommit(user.getId());
+    } else if (entity instanceof Role || entity instanceof Permission) {
+      // Role / Permission thay đổi ảnh hưởng tới nhiều user
+      evictAfterCommit(null);
+    }
+  }
+
+  /*- Recreate: collection của entity mới insert (chưa có token nào) hoặc collection được thay cả object,
+   *  trường hợp sau Hibernate phát thêm event remove cho collection cũ nên vẫn tăng version -*/
+  private void collectionChanged(AbstractCollectionEvent event) {
+    String role = event.getCollection().getRole();
+    boolean bump = !(event instanceof PostCollectionRecreateEvent);
+    if (USER_ROLES.equals(role) && event.getAffectedOwnerOrNull() instanceof User user) {
+      if (bump) {
+        bumpUser(event.getSession(), user);
+      }
+      evictAfterCommit(user.getId());
+    } else if (ROLE_PERMISSIONS.equals(role)) {
+      if (bump && event.getAffectedOwnerOrNull() instanceof Role owner) {
+        bump(event.getSession(), BUMP_ROLE_HOLDERS_SQL, owner.getId());
+      }
+      evictAfterCommit(null);
+    }
+  }
+
+  private static boolean propertyChanged(PostUpdateEvent event, String property) {
+    int index = Arrays.asList(event.getPersister().getPropertyNames()).indexOf(property);
+    if (index < 0) {
+      return false;
+    }
+    // Không có trạng thái cũ (update entity detached) thì coi như đã đổi
+    Object[] oldState = event.getOldState();
+    return oldState == null || !Objects.equals(oldState[index], event.getState()[index]);
+  }
+
+  /*- auth_version không nằm trong UPDATE của entity (updatable = false): đồng bộ giá trị trong bộ nhớ
+   *  để token cấp tiếp trong cùng luồng mang version mới -*/
+  private static void bumpUser(EventSource session, User user) {
+    bump(session, BUMP_USER_SQL, user.getId());
+    user.setAuthVersion((user.getAuthVersion() != null ? user.getAuthVersion() : 0L) + 1);
+  }
+
+  /*- JDBC trực tiếp trên connection của session: đang trong flush nên không chạy query HQL (sẽ auto-flush) -*/
+  private static void bump(EventSource session, String sql, Long id) {
+    if (id == null) {
+      return;
+    }
+    session.doWork(connection -> {
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        statement.setLong(1, id);
+        statement.executeUpdate();
+      }
+    });
+  }
+
+  /*- userId null: xóa toàn bộ. Ngoài transaction thì xóa ngay -*/
+  private void evictAfterCommit(Long userId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(userId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict(userId);
+      }
+    });
+  }
+
+  private void evict(Long userId) {
+    invalidations.ifAvailable(invalidation -> invalidation.invalidate(userId));
+  }
+}
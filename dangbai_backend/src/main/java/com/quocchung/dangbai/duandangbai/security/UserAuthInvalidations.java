@@ -0,0 +1,104 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Xóa cache xác thực (UserAuthStateCache, UserDetailsCache, DefaultRoleCache) trên mọi node:
+ * - Node thay đổi User/Role/Permission xóa cache của mình rồi publish lên kênh user_auth_invalidations,
+ *   mọi node nhận được xóa theo (node gửi cũng nhận lại, xóa lần hai không sao)
+ * - Subscribe lại sau khi mất kết nối Redis: message trong khoảng đó đã mất nên xóa toàn bộ
+ * - Redis lỗi thì chỉ xóa trên node hiện tại, node khác cập nhật khi entry hết TTL
+ */
+@Component
+@Slf4j
+public class UserAuthInvalidations implements MessageListener, SubscriptionListener {
+
+  public static final String INVALIDATION_CHANNEL = "user_auth_invalidations";
+  private static final String USER_MESSAGE_PREFIX = "user:";
+  private static final String ALL_MESSAGE = "all";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final CircuitBreaker redisCircuitBreaker;
+  private final UserAuthStateCache authStateCache;
+  private final UserDetailsCache userDetailsCache;
+  private final DefaultRoleCache defaultRoleCache;
+
+  public UserAuthInvalidations(StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer listenerContainer,
+      CircuitBreaker redisCircuitBreaker,
+      UserAuthStateCache authStateCache,
+      UserDetailsCache userDetailsCache,
+      DefaultRoleCache defaultRoleCache) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.listenerContainer = listenerContainer;
+    this.redisCircuitBreaker = redisCircuitBreaker;
+    this.authStateCache = authStateCache;
+    this.userDetailsCache = userDetailsCache;
+    this.defaultRoleCache = defaultRoleCache;
+  }
+
+  @PostConstruct
+  void subscribe() {
+    listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+  }
+
+  /*- userId null: xóa toàn bộ (Role / Permission thay đổi ảnh hưởng nhiều user) -*/
+  public void invalidate(Long userId) {
+    evictLocal(userId);
+    publish(userId != null ? USER_MESSAGE_PREFIX + userId : ALL_MESSAGE);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (ALL_MESSAGE.equals(body)) {
+      evictLocal(null);
+    } else if (body.startsWith(USER_MESSAGE_PREFIX)) {
+      try {
+        evictLocal(Long.valueOf(body.substring(USER_MESSAGE_PREFIX.length())));
+      } catch (NumberFormatException e) {
+        log.warn("Invalid user auth invalidation message: {}", body);
+      }
+    }
+  }
+
+  @Override
+  public void onChannelSubscribed(byte[] channel, long count) {
+    evictLocal(null);
+  }
+
+  private void evictLocal(Long userId) {
+    if (userId != null) {
+      authStateCache.invalidate(userId);
+      userDetailsCache.invalidate(userId);
+    } else {
+      authStateCache.invalidateAll();
+      userDetailsCache.invalidateAll();
+      defaultRoleCache.invalidate();
+    }
+  }
+
+  private void publish(String message) {
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.error("Error publishing user auth invalidation: {}", e.getMessage());
+    }
+  }
+}
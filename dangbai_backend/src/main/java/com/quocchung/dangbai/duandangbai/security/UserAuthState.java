@@ -0,0 +1,29 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Trạng thái xác thực tối thiểu của user: trạng thái tài khoản + phiên bản quyền.
+ * Được cache để filter không phải query DB cho mỗi request.
+ */
+@Getter
+@AllArgsConstructor
+public class UserAuthState {
+
+  private final AccountStatus accountStatus;
+  private final Long authVersion;
+
+  /*- Tài khoản còn được phép gọi API hay không -*/
+  public boolean isActive() {
+    return accountStatus == AccountStatus.ACTIVE;
+  }
+
+  /*- Token được cấp với authVersion cũ hơn thì quyền trong token đã lỗi thời -*/
+  public boolean accepts(Long tokenAuthVersion) {
+    long current = authVersion != null ? authVersion : 0L;
+    long issued = tokenAuthVersion != null ? tokenAuthVersion : 0L;
+    return issued >= current;
+  }
+}
@@ -0,0 +1,51 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quocchung.dangbai.duandangbai.repository.UserRepository;
+import com.quocchung.dangbai.duandangbai.utils.token.JwtProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache nhỏ (theo userId) cho trạng thái tài khoản và authVersion.
+ * - Bị xóa trên mọi node sau khi commit thay đổi User/Role/Permission (UserAuthChangeListener, UserAuthInvalidations)
+ * - Hết hạn theo TTL: giới hạn trên cho độ trễ nếu message pub/sub bị mất
+ */
+@Component
+@Slf4j
+public class UserAuthStateCache {
+
+  private final UserRepository userRepository;
+  private final Cache<Long, UserAuthState> cache;
+
+  public UserAuthStateCache(UserRepository userRepository, JwtProperties jwtProperties) {
+    this.userRepository = userRepository;
+    JwtProperties.Principal principal = jwtProperties.getPrincipal();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(principal.getStateCacheMaxSize())
+        .expireAfterWrite(principal.getStateCacheTtl())
+        .build();
+  }
+
+  /**
+   * Lấy trạng thái xác thực của user, chỉ query DB khi cache miss
+   * @param userId
+   * @return null nếu user không tồn tại
+   */
+  public UserAuthState get(Long userId) {
+    return cache.get(userId, id -> userRepository.findAuthStateById(id).orElse(null));
+  }
+
+  public void invalidate(Long userId) {
+    if (userId != null) {
+      cache.invalidate(userId);
+      log.debug("Invalidated auth state for user {}", userId);
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+    log.debug("Invalidated all cached auth states");
+  }
+}
@@ -0,0 +1,94 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quocchung.dangbai.duandangbai.utils.cache.LocalCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache in-process cho CustomUserDetails, tra cứu được theo id và theo username/email.
+ * - Giới hạn kích thước + TTL
+ * - Single-flight: nhiều request cùng miss một key chỉ chạy loader (query DB) một lần
+ * - Xóa chủ động trên mọi node khi roles/permissions/AccountStatus thay đổi (UserAuthChangeListener,
+ *   UserAuthInvalidations); mất message pub/sub thì TTL là giới hạn trên
+ */
+@Component
+@Slf4j
+public class UserDetailsCache {
+
+  private final Cache<Long, CustomUserDetails> byId;
+  private final Cache<String, CustomUserDetails> byLogin;
+  private final Timer loadTimer;
+
+  public UserDetailsCache(LocalCacheProperties cacheProperties, MeterRegistry meterRegistry) {
+    LocalCacheProperties.Spec spec = cacheProperties.getUserDetails();
+    this.byId = Caffeine.newBuilder()
+        .maximumSize(spec.getMaxSize())
+        .expireAfterWrite(spec.getTtl())
+        .recordStats()
+        .build();
+    this.byLogin = Caffeine.newBuilder()
+        .maximumSize(spec.getMaxSize())
+        .expireAfterWrite(spec.getTtl())
+        .recordStats()
+        .build();
+
+    this.loadTimer = Timer.builder("user_details.cache.load")
+        .description("Thời gian load CustomUserDetails từ DB khi cache miss")
+        .register(meterRegistry);
+    CaffeineCacheMetrics.monitor(meterRegistry, byId, "user_details_by_id");
+    CaffeineCacheMetrics.monitor(meterRegistry, byLogin, "user_details_by_login");
+    Gauge.builder("user_details.cache.hit_ratio", this, UserDetailsCache::hitRatio)
+        .description("Tỉ lệ hit gộp của cả hai cache (id + username)")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Lấy user theo username hoặc email, load từ DB nếu chưa có
+   * @param login username hoặc email
+   * @param loader hàm load từ DB (chỉ chạy khi miss)
+   */
+  public CustomUserDetails getByLogin(String login, Function<String, CustomUserDetails> loader) {
+    return byLogin.get(login, key -> {
+      CustomUserDetails details = loadTimer.record(() -> loader.apply(key));
+      byId.put(details.getId(), details);
+      return details;
+    });
+  }
+
+  /**
+   * Lấy user theo id, load từ DB nếu chưa có
+   */
+  public CustomUserDetails getById(Long id, Function<Long, CustomUserDetails> loader) {
+    return byId.get(id, key -> loadTimer.record(() -> loader.apply(key)));
+  }
+
+  /**
+   * Xóa toàn bộ entry của một user (cả key id lẫn username/email)
+   */
+  public void invalidate(Long userId) {
+    if (userId == null) {
+      return;
+    }
+    byId.invalidate(userId);
+    byLogin.asMap().values().removeIf(details -> userId.equals(details.getId()));
+    log.debug("Invalidated cached user details for user {}", userId);
+  }
+
+  public void invalidateAll() {
+    byId.invalidateAll();
+    byLogin.invalidateAll();
+  }
+
+  private double hitRatio() {
+    long hits = byId.stats().hitCount() + byLogin.stats().hitCount();
+    long requests = byId.stats().requestCount() + byLogin.stats().requestCount();
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+}
@@ -0,0 +1,50 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import io.jsonwebtoken.Claims;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Kết quả của một lần parse + verify JWT duy nhất cho mỗi request.
+ * JwtAuthenticationFilter đặt object này vào request attribute,
+ * các thành phần phía sau (controller, @CurrentUser) đọc lại mà không parse token thêm lần nào.
+ */
+@Getter
+public class VerifiedToken {
+
+  /*- Tên attribute lưu trong HttpServletRequest -*/
+  public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+  private final String token;
+  private final Claims claims;
+  private final String jti;
+  private final Long userId;
+  private final String username;
+  private final List<String> authorities;
+  private final Long authVersion;
+  private final Date issuedAt;
+  private final Date expiration;
+
+  @SuppressWarnings("unchecked")
+  public VerifiedToken(String token, Claims claims) {
+    this.token = token;
+    this.claims = claims;
+    this.jti = claims.getId();
+    this.userId = claims.get("userId", Long.class);
+    this.username = claims.getSubject();
+    List<String> claimAuthorities = claims.get("authorities", List.class);
+    this.authorities = claimAuthorities != null
+        ? Collections.unmodifiableList(claimAuthorities)
+        : Collections.emptyList();
+    this.authVersion = claims.get("authVersion", Long.class);
+    this.issuedAt = claims.getIssuedAt();
+    this.expiration = claims.getExpiration();
+  }
+
+  /*- Token còn hạn hay không (so với thời điểm hiện tại) -*/
+  public boolean isExpired() {
+    return expiration != null && expiration.before(new Date());
+  }
+}
@@ -0,0 +1,15 @@
+package com.quocchung.dangbai.duandangbai.security;
+
+import java.security.Principal;
+
+/**
+ * User của một phiên STOMP. getName() là userId để gửi theo /user/{userId}/... và tra SimpUserRegistry
+ * chỉ với userId (người nhận thông báo), không cần username.
+ */
+public record WebSocketPrincipal(Long userId, String username) implements Principal {
+
+  @Override
+  public String getName() {
+    return String.valueOf(userId);
+  }
+}
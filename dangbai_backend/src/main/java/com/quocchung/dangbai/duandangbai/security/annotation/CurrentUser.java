@@ -0,0 +1,21 @@
+package com.quocchung.dangbai.duandangbai.security.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Inject thông tin người dùng hiện tại vào tham số của controller.
+ * Hỗ trợ kiểu Long (userId) hoặc VerifiedToken (toàn bộ claims đã verify).
+ * Dữ liệu được lấy từ token đã parse trong JwtAuthenticationFilter, không decode lại JWT.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+  /*- Nếu true mà request chưa xác thực thì trả về 401 -*/
+  boolean required() default true;
+}
@@ -0,0 +1,139 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.quocchung.dangbai.duandangbai.utils.cache.LocalCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Near-cache (in-process) cho kết quả "access token còn hợp lệ" để filter không phải gọi Redis mỗi request.
+ * Key là fingerprint của token (TokenFingerprint), không giữ JWT đầy đủ trong bộ nhớ.
+ * - Chỉ cache kết quả hợp lệ, mỗi entry sống tối đa min(TTL cấu hình, thời điểm exp của token)
+ * - Khi logout, node thực hiện publish lên kênh revocation, mọi node nhận được sẽ xóa entry tương ứng
+ * - Nếu message bị mất, TTL cấu hình là giới hạn trên cho độ trễ của logout giữa các node
+ */
+@Component
+@ConditionalOnProperty(name = "token-store.type", havingValue = "redis", matchIfMissing = true)
+@Slf4j
+public class AccessTokenNearCache implements MessageListener {
+
+  public static final String REVOCATION_CHANNEL = "token_revocations";
+  private static final String TOKEN_MESSAGE_PREFIX = "token:";
+  private static final String USER_MESSAGE_PREFIX = "user:";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final Cache<String, CachedValidity> cache;
+
+  public AccessTokenNearCache(StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer listenerContainer,
+      LocalCacheProperties cacheProperties,
+      MeterRegistry meterRegistry) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.listenerContainer = listenerContainer;
+
+    LocalCacheProperties.Spec spec = cacheProperties.getAccessToken();
+    long maxStalenessNanos = spec.getTtl().toNanos();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(spec.getMaxSize())
+        .expireAfter(new Expiry<String, CachedValidity>() {
+          @Override
+          public long expireAfterCreate(String key, CachedValidity value, long currentTime) {
+            long untilTokenExpiry = TimeUnit.MILLISECONDS.toNanos(
+                value.expiresAtMillis - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxStalenessNanos, untilTokenExpiry));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, CachedValidity value, long currentTime,
+              long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, CachedValidity value, long currentTime,
+              long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "access_token_validity");
+  }
+
+  @PostConstruct
+  void subscribe() {
+    listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+  }
+
+  /*- Token đã được xác nhận hợp lệ gần đây trên node này hay chưa -*/
+  public boolean isKnownValid(String fingerprint) {
+    return cache.getIfPresent(fingerprint) != null;
+  }
+
+  /**
+   * Ghi nhận token hợp lệ (sau khi đã kiểm tra trong Redis)
+   * @param expiration thời điểm exp của token, null thì chỉ giới hạn bởi TTL cấu hình
+   */
+  public void markValid(String fingerprint, Long userId, Date expiration) {
+    long expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    cache.put(fingerprint, new CachedValidity(userId, expiresAt));
+  }
+
+  /*- Xóa token trên node này và thông báo cho các node khác -*/
+  public void revokeToken(String fingerprint) {
+    cache.invalidate(fingerprint);
+    publish(TOKEN_MESSAGE_PREFIX + fingerprint);
+  }
+
+  /*- Xóa mọi token của user trên node này và thông báo cho các node khác -*/
+  public void revokeUser(Long userId) {
+    evictUser(userId);
+    publish(USER_MESSAGE_PREFIX + userId);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (body.startsWith(TOKEN_MESSAGE_PREFIX)) {
+      cache.invalidate(body.substring(TOKEN_MESSAGE_PREFIX.length()));
+    } else if (body.startsWith(USER_MESSAGE_PREFIX)) {
+      try {
+        evictUser(Long.valueOf(body.substring(USER_MESSAGE_PREFIX.length())));
+      } catch (NumberFormatException e) {
+        log.warn("Invalid revocation message: {}", body);
+      }
+    }
+  }
+
+  private void evictUser(Long userId) {
+    if (userId != null) {
+      cache.asMap().values().removeIf(value -> userId.equals(value.userId));
+    }
+  }
+
+  private void publish(String message) {
+    try {
+      stringRedisTemplate.convertAndSend(REVOCATION_CHANNEL, message);
+    } catch (Exception e) {
+      log.error("Error publishing token revocation: {}", e.getMessage());
+    }
+  }
+
+  private record CachedValidity(Long userId, long expiresAtMillis) {
+  }
+}
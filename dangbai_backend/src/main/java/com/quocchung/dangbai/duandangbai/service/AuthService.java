@@ -14,4 +14,6 @@ public interface AuthService {
 
   void  logout(String token);
 
+  void logoutAll(Long userId);
+
 }
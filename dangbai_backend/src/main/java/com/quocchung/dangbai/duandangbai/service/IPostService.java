@@ -26,9 +26,20 @@ public interface IPostService {
 
 
   /**
-   * Lấy danh sách bài đăng chưa được duyệt hoặc đẵ duyệt của người dùng
+   * Lấy danh sách bài đăng chưa được duyệt hoặc đẵ duyệt của người dùng (dùng cho feed công khai)
+   * Bài APPROVED không lọc theo tác giả được đọc từ feed dựng sẵn trên Redis, lỗi thì đọc MySQL
+   * @param categoryId chỉ lấy bài của một danh mục (optional)
+   * @param cursor khác null thì phân trang theo cursor (createdAt, id), bỏ qua page
+   * @param withTotal chế độ cursor: có đếm tổng số dòng hay không
    */
-  PageResponse<PostResponse> getApprovedPosts(Long userId, String status,  Integer page, Integer size);
+  PageResponse<PostResponse> getApprovedPosts(Long userId, Long categoryId, String status, Integer page,
+      Integer size, String cursor, boolean withTotal);
+
+  /**
+   * Dựng lại feed trên Redis từ MySQL (chạy nền)
+   * @return false khi đang có một lần dựng lại chạy trên node này
+   */
+  boolean rebuildFeed();
 
 
   /**
@@ -38,8 +49,10 @@ public interface IPostService {
 
 
     /**
-     *
+     * Bài đăng của một người dùng theo trạng thái
+     * @param cursor khác null thì phân trang theo cursor (createdAt, id), bỏ qua page
      */
-    PageResponse<PostResponse> getPostsByStatus(Long userId,String status, Integer page, Integer size );
+    PageResponse<PostResponse> getPostsByStatus(Long userId,String status, Integer page, Integer size,
+        String cursor, boolean withTotal);
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.quocchung.dangbai.duandangbai.service;
 
+import com.quocchung.dangbai.duandangbai.security.VerifiedToken;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Map;
@@ -17,6 +18,12 @@ public interface JwtService {
   // Validate Token
   boolean isTokenValid(String token, UserDetails userDetails);
 
+  // Validate Token đã được parse sẵn (không parse lại)
+  boolean isTokenValid(VerifiedToken verifiedToken, UserDetails userDetails);
+
+  // Parse + verify chữ ký một lần duy nhất, trả về toàn bộ claims
+  VerifiedToken verify(String token);
+
   // Lấy ra username từ token
   String extractUsername(String token);
 
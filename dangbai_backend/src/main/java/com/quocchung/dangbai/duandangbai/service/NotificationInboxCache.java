@@ -0,0 +1,298 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.utils.notification.NotificationInboxProperties;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Badge + trang đầu hộp thư thông báo trên Redis, mỗi user:
+ * - notif:unread:<userId>: số thông báo chưa đọc
+ * - notif:recent:<userId>: sorted set id N thông báo mới nhất (score = createdAt tính bằng micro giây,
+ *   member = id đệm 0 nên cùng createdAt thì id lớn đứng trước, đúng thứ tự ORDER BY created_at DESC, id DESC)
+ * - notif:recent_items:<userId>: hash id -> NotificationResponse (JSON), field "_" đánh dấu đã nạp từ MySQL
+ * Key chưa có thì caller đọc MySQL rồi nạp lại (store...); thông báo mới / đánh dấu đã đọc chỉ cập nhật
+ * key đang tồn tại. Key có TTL để lệch (nạp lại chạy song song với ghi) tự hết sau tối đa một TTL.
+ * Mọi hàm trả null khi Redis không dùng được: caller đọc MySQL.
+ */
+@Component
+@Slf4j
+public class NotificationInboxCache {
+
+  private static final String UNREAD_PREFIX = "notif:unread:";
+  private static final String RECENT_PREFIX = "notif:recent:";
+  private static final String ITEMS_PREFIX = "notif:recent_items:";
+  private static final String LOADED_FIELD = "_";
+
+  /**
+   * Thêm một thông báo mới.
+   * KEYS: unread, recent, items
+   * ARGV: score, id, JSON, số thông báo giữ lại
+   */
+  private static final RedisScript<Long> APPEND_SCRIPT = RedisScript.of(
+      "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCR', KEYS[1]) end "
+      + "if redis.call('EXISTS', KEYS[3]) == 0 then return 0 end "
+      + "redis.call('ZADD', KEYS[2], ARGV[1], ARGV[2]) "
+      + "redis.call('HSET', KEYS[3], ARGV[2], ARGV[3]) "
+      + "redis.call('PEXPIRE', KEYS[2], redis.call('PTTL', KEYS[3])) "
+      + "local excess = redis.call('ZCARD', KEYS[2]) - tonumber(ARGV[4]) "
+      + "if excess > 0 then "
+      + "  local old = redis.call('ZRANGE', KEYS[2], 0, excess - 1) "
+      + "  redis.call('ZREMRANGEBYRANK', KEYS[2], 0, excess - 1) "
+      + "  redis.call('HDEL', KEYS[3], unpack(old)) "
+      + "end "
+      + "return 1",
+      Long.class);
+
+  /**
+   * Đánh dấu một thông báo đã đọc.
+   * KEYS: unread, items
+   * ARGV: id, JSON đã đọc
+   */
+  private static final RedisScript<Long> MARK_READ_SCRIPT = RedisScript.of(
+      "local unread = tonumber(redis.call('GET', KEYS[1])) "
+      + "if unread ~= nil and unread > 0 then redis.call('DECR', KEYS[1]) end "
+      + "if redis.call('HEXISTS', KEYS[2], ARGV[1]) == 1 then redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) end "
+      + "return 1",
+      Long.class);
+
+  /**
+   * Đánh dấu tất cả đã đọc: bộ đếm về 0, danh sách gần đây xóa để nạp lại (hiếm khi gọi).
+   * KEYS: unread, recent, items
+   */
+  private static final RedisScript<Long> MARK_ALL_READ_SCRIPT = RedisScript.of(
+      "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('SET', KEYS[1], 0, 'KEEPTTL') end "
+      + "redis.call('DEL', KEYS[2], KEYS[3]) "
+      + "return 1",
+      Long.class);
+
+  /**
+   * Nạp lại danh sách gần đây từ MySQL.
+   * KEYS: recent, items
+   * ARGV: TTL (giây), sau đó từng bộ (score, id, JSON)
+   */
+  private static final RedisScript<Long> STORE_RECENT_SCRIPT = RedisScript.of(
+      "redis.call('DEL', KEYS[1], KEYS[2]) "
+      + "redis.call('HSET', KEYS[2], '" + LOADED_FIELD + "', '1') "
+      + "for i = 2, #ARGV, 3 do "
+      + "  redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) "
+      + "  redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2]) "
+      + "end "
+      + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+      + "redis.call('EXPIRE', KEYS[2], ARGV[1]) "
+      + "return 1",
+      Long.class);
+
+  /**
+   * Đọc trang đầu trong 1 round trip, false (null phía Java) khi chưa nạp.
+   * KEYS: recent, items
+   * ARGV: số thông báo
+   */
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> READ_RECENT_SCRIPT = RedisScript.of(
+      "if redis.call('HEXISTS', KEYS[2], '" + LOADED_FIELD + "') == 0 then return false end "
+      + "local ids = redis.call('ZREVRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1) "
+      + "if #ids == 0 then return {} end "
+      + "return redis.call('HMGET', KEYS[2], unpack(ids))",
+      List.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisSerializer<Object> serializer;
+  private final CircuitBreaker redisCircuitBreaker;
+  private final NotificationInboxProperties properties;
+  private final Counter unreadHits;
+  private final Counter unreadMisses;
+  private final Counter recentHits;
+  private final Counter recentMisses;
+
+  @SuppressWarnings("unchecked")
+  public NotificationInboxCache(StringRedisTemplate stringRedisTemplate,
+      RedisTemplate<String, Object> redisTemplate,
+      CircuitBreaker redisCircuitBreaker,
+      NotificationInboxProperties properties,
+      MeterRegistry meterRegistry) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    // JSON cùng định dạng với các cache khác trên Redis
+    this.serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    this.redisCircuitBreaker = redisCircuitBreaker;
+    this.properties = properties;
+    this.unreadHits = requests(meterRegistry, "unread", "hit");
+    this.unreadMisses = requests(meterRegistry, "unread", "miss");
+    this.recentHits = requests(meterRegistry, "recent", "hit");
+    this.recentMisses = requests(meterRegistry, "recent", "miss");
+  }
+
+  /*- Số thông báo gần đây giữ trên Redis: trang đầu lớn hơn (size + 1) thì caller đọc MySQL -*/
+  public int recentSize() {
+    return properties.getRecentSize();
+  }
+
+  /*- Số chưa đọc, null khi chưa có trên Redis hoặc Redis lỗi -*/
+  public Long unreadCount(Long userId) {
+    if (!properties.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return null;
+    }
+    try {
+      String value = stringRedisTemplate.opsForValue().get(UNREAD_PREFIX + userId);
+      redisCircuitBreaker.onSuccess();
+      (value != null ? unreadHits : unreadMisses).increment();
+      return value != null ? Long.valueOf(value) : null;
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không đọc được số thông báo chưa đọc của user {}: {}", userId, e.getMessage());
+      return null;
+    }
+  }
+
+  /*- Ghi số chưa đọc vừa đếm từ MySQL; NX: không đè giá trị node khác vừa nạp / cập nhật -*/
+  public void storeUnreadCount(Long userId, long count) {
+    if (!properties.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      stringRedisTemplate.opsForValue().setIfAbsent(UNREAD_PREFIX + userId, String.valueOf(count),
+          properties.getTtl().toSeconds(), TimeUnit.SECONDS);
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không ghi được số thông báo chưa đọc của user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /**
+   * limit thông báo mới nhất (limit <= recentSize), null khi chưa nạp hoặc Redis lỗi
+   */
+  public List<NotificationResponse> recent(Long userId, int limit) {
+    if (!properties.isEnabled() || limit > properties.getRecentSize()
+        || !redisCircuitBreaker.tryAcquirePermission()) {
+      return null;
+    }
+    try {
+      List<?> values = stringRedisTemplate.execute(READ_RECENT_SCRIPT,
+          List.of(RECENT_PREFIX + userId, ITEMS_PREFIX + userId), String.valueOf(limit));
+      redisCircuitBreaker.onSuccess();
+      if (values == null) {
+        recentMisses.increment();
+        return null;
+      }
+      recentHits.increment();
+      return values.stream()
+          .filter(Objects::nonNull)
+          .map(value -> (NotificationResponse) serializer.deserialize(
+              ((String) value).getBytes(StandardCharsets.UTF_8)))
+          .toList();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không đọc được thông báo gần đây của user {}: {}", userId, e.getMessage());
+      return null;
+    }
+  }
+
+  /*- Nạp lại danh sách gần đây từ kết quả MySQL (tối đa recentSize thông báo mới nhất) -*/
+  public void storeRecent(Long userId, List<NotificationResponse> notifications) {
+    if (!properties.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    List<String> args = new ArrayList<>(1 + notifications.size() * 3);
+    args.add(String.valueOf(properties.getTtl().toSeconds()));
+    for (NotificationResponse notification : notifications) {
+      args.add(score(notification));
+      args.add(member(notification.getId()));
+      args.add(toJson(notification));
+    }
+    try {
+      stringRedisTemplate.execute(STORE_RECENT_SCRIPT,
+          List.of(RECENT_PREFIX + userId, ITEMS_PREFIX + userId), args.toArray());
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không nạp được thông báo gần đây của user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /*- Thông báo vừa được ghi vào MySQL (sau commit) -*/
+  public void appended(Long userId, Collection<NotificationResponse> notifications) {
+    if (!properties.isEnabled() || notifications.isEmpty() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    List<String> keys = List.of(UNREAD_PREFIX + userId, RECENT_PREFIX + userId, ITEMS_PREFIX + userId);
+    String keep = String.valueOf(properties.getRecentSize());
+    try {
+      for (NotificationResponse notification : notifications) {
+        stringRedisTemplate.execute(APPEND_SCRIPT, keys,
+            score(notification), member(notification.getId()), toJson(notification), keep);
+      }
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      // Bộ đếm / danh sách thiếu thông báo này cho tới khi key hết TTL và được nạp lại
+      log.warn("Không cập nhật được hộp thư Redis của user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /*- Một thông báo vừa được đánh dấu đã đọc (sau commit) -*/
+  public void markedRead(Long userId, NotificationResponse notification) {
+    if (!properties.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      stringRedisTemplate.execute(MARK_READ_SCRIPT, List.of(UNREAD_PREFIX + userId, ITEMS_PREFIX + userId),
+          member(notification.getId()), toJson(notification));
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không cập nhật được trạng thái đọc trên Redis của user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /*- Tất cả thông báo của user vừa được đánh dấu đã đọc (sau commit) -*/
+  public void markedAllRead(Long userId) {
+    if (!properties.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      stringRedisTemplate.execute(MARK_ALL_READ_SCRIPT,
+          List.of(UNREAD_PREFIX + userId, RECENT_PREFIX + userId, ITEMS_PREFIX + userId));
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không đặt lại hộp thư Redis của user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /*- createdAt (UTC) tính bằng micro giây: khớp độ chính xác DATETIME(6), vẫn biểu diễn chính xác bằng double -*/
+  private static String score(NotificationResponse notification) {
+    long micros = notification.getCreatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000L
+                  + notification.getCreatedAt().getNano() / 1_000;
+    return String.valueOf(micros);
+  }
+
+  private static String member(Long id) {
+    return String.format("%019d", id);
+  }
+
+  private String toJson(NotificationResponse notification) {
+    return new String(serializer.serialize(notification), StandardCharsets.UTF_8);
+  }
+
+  private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+    return Counter.builder("notification_inbox.requests")
+        .tag("tier", tier)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
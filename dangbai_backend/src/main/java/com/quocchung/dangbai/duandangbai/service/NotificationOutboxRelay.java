@@ -0,0 +1,346 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
+import com.quocchung.dangbai.duandangbai.utils.notification.NotificationOutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Chuyển thông báo ra khỏi request bằng transactional outbox:
+ * - publish: một INSERT notification_outbox trong transaction của nghiệp vụ (rollback thì không có thông báo),
+ *   sau commit đưa id vào hàng đợi trong bộ nhớ
+ * - consumer nền gom id theo batchSize / maxDelay, mỗi batch một transaction:
+ *   SELECT ... FOR UPDATE, batch INSERT notifications, DELETE outbox
+ * - sau commit cập nhật bộ đếm chưa đọc / danh sách gần đây trên Redis (NotificationInboxCache)
+ * - job quét chuyển nốt các dòng bị bỏ sót (process chết trước khi consumer chạy, hàng đợi đầy, ghi lỗi)
+ * Dòng outbox chỉ bị xóa cùng transaction với INSERT notifications nên không mất và không trùng,
+ * kể cả khi nhiều node cùng quét (FOR UPDATE, node sau không còn thấy dòng đã chuyển).
+ */
+@Component
+@Slf4j
+public class NotificationOutboxRelay {
+
+  private static final String INSERT_OUTBOX_SQL =
+      "INSERT INTO notification_outbox (user_id, type, message, post_id, comment_id, reaction_id, created_at) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+  private static final String LOCK_OUTBOX_SQL =
+      "SELECT id, user_id, type, message, post_id, comment_id, reaction_id, created_at "
+      + "FROM notification_outbox WHERE id IN (:ids) ORDER BY id FOR UPDATE";
+  private static final String INSERT_NOTIFICATION_SQL =
+      "INSERT INTO notifications (user_id, type, message, post_id, comment_id, reaction_id, is_read, created_at) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String DELETE_OUTBOX_SQL = "DELETE FROM notification_outbox WHERE id IN (:ids)";
+  private static final String SWEEP_SQL =
+      "SELECT id FROM notification_outbox WHERE id > ? AND created_at < ? ORDER BY id LIMIT ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+  private final NotificationOutboxProperties properties;
+  private final TransactionTemplate requiresNew;
+  // Không có Redis (test JPA) thì bỏ qua bước cập nhật hộp thư trên Redis
+  private final ObjectProvider<NotificationInboxCache> notificationInboxCache;
+  private final ObjectProvider<NotificationPushService> notificationPushService;
+  private final BlockingQueue<Long> queue;
+  private final Counter deliveredCounter;
+  private final Counter queueFullCounter;
+  private ExecutorService consumer;
+  private ScheduledExecutorService sweeper;
+
+  public NotificationOutboxRelay(JdbcTemplate jdbcTemplate,
+      NotificationOutboxProperties properties,
+      PlatformTransactionManager transactionManager,
+      ObjectProvider<NotificationInboxCache> notificationInboxCache,
+      ObjectProvider<NotificationPushService> notificationPushService,
+      MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.notificationInboxCache = notificationInboxCache;
+    this.notificationPushService = notificationPushService;
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.properties = properties;
+    // Consumer / job quét chạy ngoài transaction của request
+    this.requiresNew = new TransactionTemplate(transactionManager);
+    this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    this.deliveredCounter = Counter.builder("notification_outbox.delivered")
+        .description("Số thông báo đã chuyển từ outbox sang notifications")
+        .register(meterRegistry);
+    this.queueFullCounter = Counter.builder("notification_outbox.queue_full")
+        .description("Thông báo không vào được hàng đợi, chờ job quét outbox")
+        .register(meterRegistry);
+    meterRegistry.gauge("notification_outbox.queue_size", queue, BlockingQueue::size);
+  }
+
+  @PostConstruct
+  void start() {
+    consumer = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "notification-outbox");
+      thread.setDaemon(true);
+      return thread;
+    });
+    consumer.execute(this::consume);
+
+    long intervalMillis = properties.getSweepInterval().toMillis();
+    sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "notification-outbox-sweep");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Lần đầu chạy ngay: chuyển các dòng còn sót từ lần chạy trước
+    sweeper.scheduleWithFixedDelay(this::sweepSafely, 0, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+    if (consumer != null) {
+      consumer.shutdownNow();
+      try {
+        consumer.awaitTermination(properties.getMaxDelay().toMillis() * 10, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    // Chuyển nốt phần còn trong hàng đợi; không kịp thì dòng vẫn nằm trong outbox chờ lần khởi động sau
+    List<Long> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    for (int from = 0; from < remaining.size(); from += properties.getBatchSize()) {
+      deliverSafely(remaining.subList(from, Math.min(remaining.size(), from + properties.getBatchSize())));
+    }
+  }
+
+  /**
+   * Ghi thông báo vào outbox.
+   * Trong transaction: dùng chung connection / transaction của nghiệp vụ, đưa vào hàng đợi sau commit.
+   * Ngoài transaction: INSERT tự commit, đưa vào hàng đợi ngay.
+   */
+  public void publish(Long userId, NotificationType type, String message,
+      Long postId, Long commentId, Long reactionId) {
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.update(connection -> {
+      PreparedStatement statement = connection.prepareStatement(INSERT_OUTBOX_SQL, Statement.RETURN_GENERATED_KEYS);
+      statement.setLong(1, userId);
+      statement.setString(2, type.name());
+      statement.setString(3, message);
+      statement.setObject(4, postId);
+      statement.setObject(5, commentId);
+      statement.setObject(6, reactionId);
+      statement.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
+      return statement;
+    }, keyHolder);
+    Long id = keyHolder.getKeyAs(Long.class);
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      enqueue(id);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        enqueue(id);
+      }
+    });
+  }
+
+  /*- Dòng outbox cũ hơn sweepAfter chưa được chuyển; được gọi bởi thread quét -*/
+  void sweep() {
+    LocalDateTime before = LocalDateTime.now().minus(properties.getSweepAfter());
+    int batchSize = properties.getBatchSize();
+    long afterId = 0;
+    List<Long> ids;
+    do {
+      // Đi theo id tăng dần: dòng không chuyển được (lỗi dữ liệu) không làm vòng lặp quay lại chỗ cũ
+      ids = jdbcTemplate.queryForList(SWEEP_SQL, Long.class, afterId, Timestamp.valueOf(before), batchSize);
+      if (!ids.isEmpty()) {
+        deliverSafely(ids);
+        afterId = ids.get(ids.size() - 1);
+      }
+    } while (ids.size() == batchSize);
+  }
+
+  private void enqueue(Long id) {
+    if (id != null && !queue.offer(id)) {
+      // Dòng vẫn nằm trong outbox, job quét sẽ chuyển
+      queueFullCounter.increment();
+    }
+  }
+
+  /*- Lấy id đầu tiên rồi gom thêm tới khi đủ batchSize hoặc hết maxDelay -*/
+  private void consume() {
+    int batchSize = properties.getBatchSize();
+    long maxDelayNanos = properties.getMaxDelay().toNanos();
+    List<Long> batch = new ArrayList<>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          Long next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        deliverSafely(batch);
+      } catch (InterruptedException e) {
+        // Batch đang gom dở vẫn nằm trong outbox
+        Thread.currentThread().interrupt();
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void deliverSafely(List<Long> ids) {
+    try {
+      deliver(ids);
+    } catch (RuntimeException e) {
+      if (ids.size() == 1) {
+        log.error("Không chuyển được thông báo outbox {}, giữ lại trong outbox", ids.get(0), e);
+        return;
+      }
+      // Một dòng lỗi (vd. bài / user đã bị xóa) không được chặn cả batch: chuyển từng dòng
+      log.warn("Chuyển batch {} thông báo outbox thất bại, thử từng dòng: {}", ids.size(), e.getMessage());
+      for (Long id : ids) {
+        deliverSafely(List.of(id));
+      }
+    }
+  }
+
+  /*- Một transaction: khóa các dòng outbox còn tồn tại, batch INSERT notifications, xóa outbox -*/
+  private void deliver(List<Long> ids) {
+    List<Delivered> delivered = requiresNew.execute(status -> {
+      List<Map<String, Object>> rows = namedJdbcTemplate.queryForList(LOCK_OUTBOX_SQL, Map.of("ids", ids));
+      if (rows.isEmpty()) {
+        // Đã được node khác / job quét chuyển
+        return List.of();
+      }
+      List<Object[]> batch = new ArrayList<>(rows.size());
+      List<Long> lockedIds = new ArrayList<>(rows.size());
+      for (Map<String, Object> row : rows) {
+        batch.add(new Object[]{
+            row.get("user_id"), row.get("type"), row.get("message"),
+            row.get("post_id"), row.get("comment_id"), row.get("reaction_id"),
+            Boolean.FALSE, row.get("created_at")});
+        lockedIds.add(((Number) row.get("id")).longValue());
+      }
+      KeyHolder keyHolder = new GeneratedKeyHolder();
+      jdbcTemplate.batchUpdate(
+          connection -> connection.prepareStatement(INSERT_NOTIFICATION_SQL, Statement.RETURN_GENERATED_KEYS),
+          new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+              new ArgumentPreparedStatementSetter(batch.get(i)).setValues(statement);
+            }
+
+            @Override
+            public int getBatchSize() {
+              return batch.size();
+            }
+          },
+          keyHolder);
+      namedJdbcTemplate.update(DELETE_OUTBOX_SQL, Map.of("ids", lockedIds));
+      return toDelivered(rows, keyHolder.getKeyList());
+    });
+    if (delivered == null || delivered.isEmpty()) {
+      return;
+    }
+    deliveredCounter.increment(delivered.size());
+    // Sau commit: cập nhật bộ đếm chưa đọc / danh sách gần đây trên Redis, rồi đẩy realtime qua WebSocket
+    NotificationInboxCache inboxCache = notificationInboxCache.getIfAvailable();
+    NotificationPushService pushService = notificationPushService.getIfAvailable();
+    if (inboxCache == null && pushService == null) {
+      return;
+    }
+    Map<Long, List<NotificationResponse>> byUser = new LinkedHashMap<>();
+    delivered.forEach(entry ->
+        byUser.computeIfAbsent(entry.userId(), id -> new ArrayList<>()).add(entry.notification()));
+    if (inboxCache != null) {
+      byUser.forEach(inboxCache::appended);
+    }
+    if (pushService != null) {
+      byUser.forEach(pushService::push);
+    }
+  }
+
+  /*- Ghép dòng outbox với id notifications vừa sinh (cùng thứ tự batch) -*/
+  private static List<Delivered> toDelivered(List<Map<String, Object>> rows, List<Map<String, Object>> keys) {
+    List<Delivered> delivered = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      Map<String, Object> row = rows.get(i);
+      // Tên cột khóa sinh ra khác nhau theo driver (GENERATED_KEY, ID...)
+      Long id = i < keys.size() ? toLong(keys.get(i).values().iterator().next()) : null;
+      if (id == null) {
+        continue;
+      }
+      delivered.add(new Delivered(toLong(row.get("user_id")), NotificationResponse.builder()
+          .id(id)
+          .type(NotificationType.valueOf((String) row.get("type")))
+          .message((String) row.get("message"))
+          .isRead(false)
+          .createdAt(toLocalDateTime(row.get("created_at")))
+          .postId(toLong(row.get("post_id")))
+          .commentId(toLong(row.get("comment_id")))
+          .reactionId(toLong(row.get("reaction_id")))
+          .build()));
+    }
+    return delivered;
+  }
+
+  private static Long toLong(Object value) {
+    return value != null ? ((Number) value).longValue() : null;
+  }
+
+  private static LocalDateTime toLocalDateTime(Object value) {
+    return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+  }
+
+  private void sweepSafely() {
+    try {
+      sweep();
+    } catch (RuntimeException e) {
+      log.error("Quét notification outbox thất bại", e);
+    }
+  }
+
+  private record Delivered(Long userId, NotificationResponse notification) {
+  }
+}
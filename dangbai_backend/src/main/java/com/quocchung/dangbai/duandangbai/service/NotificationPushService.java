@@ -0,0 +1,149 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.contants.ApiConstant;
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.security.StompSessionTokens;
+import com.quocchung.dangbai.duandangbai.utils.notification.NotificationPushProperties;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đẩy thông báo mới tới các phiên WebSocket đang mở của người nhận:
+ * - NotificationOutboxRelay gọi push sau khi thông báo đã commit vào notifications
+ * - publish lên kênh Redis notification_push, mọi node nhận được và chỉ gửi khi người nhận có phiên
+ *   trên node đó (SimpUserRegistry: user -> các phiên STOMP của node)
+ * - gửi riêng từng phiên, chỉ phiên có access token còn hiệu lực (StompSessionTokens): token hết hạn hoặc
+ *   bị thu hồi sau khi CONNECT thì phiên không nhận thêm thông báo
+ * - Redis lỗi thì chỉ gửi tới phiên trên node hiện tại; client mất message thì vẫn thấy trong hộp thư
+ */
+@Component
+@Slf4j
+public class NotificationPushService implements MessageListener {
+
+  public static final String PUSH_CHANNEL = "notification_push";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final CircuitBreaker redisCircuitBreaker;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final SimpUserRegistry simpUserRegistry;
+  private final StompSessionTokens stompSessionTokens;
+  private final NotificationPushProperties properties;
+  private final Counter pushedCounter;
+
+  public NotificationPushService(RedisTemplate<String, Object> redisTemplate,
+      RedisMessageListenerContainer listenerContainer,
+      CircuitBreaker redisCircuitBreaker,
+      SimpMessagingTemplate messagingTemplate,
+      SimpUserRegistry simpUserRegistry,
+      StompSessionTokens stompSessionTokens,
+      NotificationPushProperties properties,
+      MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.listenerContainer = listenerContainer;
+    this.redisCircuitBreaker = redisCircuitBreaker;
+    this.messagingTemplate = messagingTemplate;
+    this.simpUserRegistry = simpUserRegistry;
+    this.stompSessionTokens = stompSessionTokens;
+    this.properties = properties;
+    this.pushedCounter = Counter.builder("notification_push.delivered")
+        .description("Số thông báo đã gửi tới phiên WebSocket trên node này")
+        .register(meterRegistry);
+    meterRegistry.gauge("notification_push.connected_users", simpUserRegistry, SimpUserRegistry::getUserCount);
+  }
+
+  @PostConstruct
+  void start() {
+    if (properties.isEnabled()) {
+      listenerContainer.addMessageListener(this, new ChannelTopic(PUSH_CHANNEL));
+    }
+  }
+
+  /*- Thông báo đã commit của một user, gọi ngoài transaction -*/
+  public void push(Long userId, List<NotificationResponse> notifications) {
+    if (!properties.isEnabled() || notifications.isEmpty()) {
+      return;
+    }
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      deliverLocally(userId, notifications);
+      return;
+    }
+    try {
+      // ArrayList: JSON kèm kiểu trên Redis không đọc lại được List bất biến
+      redisTemplate.convertAndSend(PUSH_CHANNEL, new PushMessage(userId, new ArrayList<>(notifications)));
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không publish được thông báo realtime cho user {}: {}", userId, e.getMessage());
+      deliverLocally(userId, notifications);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      Object value = redisTemplate.getValueSerializer().deserialize(message.getBody());
+      if (value instanceof PushMessage push && push.getUserId() != null && push.getNotifications() != null) {
+        deliverLocally(push.getUserId(), push.getNotifications());
+      }
+    } catch (Exception e) {
+      log.warn("Invalid notification push message: {}", e.getMessage());
+    }
+  }
+
+  /*- Người nhận không có phiên trên node này thì bỏ qua, không tốn công chuyển đổi message -*/
+  private void deliverLocally(Long userId, List<NotificationResponse> notifications) {
+    String user = String.valueOf(userId);
+    SimpUser simpUser = simpUserRegistry.getUser(user);
+    if (simpUser == null) {
+      return;
+    }
+    for (SimpSession session : simpUser.getSessions()) {
+      if (!stompSessionTokens.isActive(session.getId(), userId)) {
+        continue;
+      }
+      for (NotificationResponse notification : notifications) {
+        messagingTemplate.convertAndSendToUser(user, ApiConstant.WS_NOTIFICATION_QUEUE, notification,
+            sessionHeaders(session.getId()));
+      }
+      pushedCounter.increment(notifications.size());
+    }
+  }
+
+  /*- Header sessionId: chỉ gửi tới đúng phiên này thay vì mọi phiên của user (mỗi message một bộ header) -*/
+  private static MessageHeaders sessionHeaders(String sessionId) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setSessionId(sessionId);
+    accessor.setLeaveMutable(true);
+    return accessor.getMessageHeaders();
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class PushMessage {
+    private Long userId;
+    private List<NotificationResponse> notifications;
+  }
+}
@@ -1,12 +1,12 @@
 package com.quocchung.dangbai.duandangbai.service;
 
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
 import com.quocchung.dangbai.duandangbai.model.Comment;
-import com.quocchung.dangbai.duandangbai.model.Notification;
 import com.quocchung.dangbai.duandangbai.model.Post;
 import com.quocchung.dangbai.duandangbai.model.Reaction;
 import com.quocchung.dangbai.duandangbai.model.User;
 import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
-import java.util.List;
 
 public interface NotificationService {
   void createNotification(User user, NotificationType type, String message, Post post);
@@ -21,5 +21,11 @@ public interface NotificationService {
 
   void notifyReaction(Post post, Reaction reaction);
 
-  List<Notification> getUserNotifications(Long userId);
+  PageResponse<NotificationResponse> getUserNotifications(Long userId, String cursor, int size);
+
+  long getUnreadCount(Long userId);
+
+  void markAsRead(Long userId, Long notificationId);
+
+  int markAllAsRead(Long userId);
 }
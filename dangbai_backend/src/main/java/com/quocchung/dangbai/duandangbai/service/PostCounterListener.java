@@ -0,0 +1,49 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.model.Comment;
+import com.quocchung.dangbai.duandangbai.model.Post;
+import com.quocchung.dangbai.duandangbai.model.Reaction;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostCounterType;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener: comment / reaction được tạo hoặc xóa thì cập nhật bộ đếm trên post.
+ * Dùng ObjectProvider để tránh vòng phụ thuộc với EntityManagerFactory lúc khởi động.
+ */
+@Component
+public class PostCounterListener {
+
+  private final ObjectProvider<PostCounterService> postCounterService;
+
+  public PostCounterListener(ObjectProvider<PostCounterService> postCounterService) {
+    this.postCounterService = postCounterService;
+  }
+
+  @PostPersist
+  public void onCreate(Object entity) {
+    update(entity, 1);
+  }
+
+  @PostRemove
+  public void onDelete(Object entity) {
+    update(entity, -1);
+  }
+
+  private void update(Object entity, long delta) {
+    if (entity instanceof Comment comment) {
+      apply(PostCounterType.COMMENTS, comment.getPost(), delta);
+    } else if (entity instanceof Reaction reaction) {
+      // Reaction trên comment không có post
+      apply(PostCounterType.REACTIONS, reaction.getPost(), delta);
+    }
+  }
+
+  private void apply(PostCounterType type, Post post, long delta) {
+    if (post != null) {
+      postCounterService.ifAvailable(service -> service.increment(type, post.getId(), delta));
+    }
+  }
+}
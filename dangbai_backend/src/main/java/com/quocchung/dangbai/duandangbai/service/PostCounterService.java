@@ -0,0 +1,20 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.utils.enums.PostCounterType;
+
+/**
+ * Bộ đếm comment / reaction / view lưu thẳng trên bảng posts.
+ * List và detail chỉ đọc các cột này, không đếm bảng con.
+ */
+public interface PostCounterService {
+
+  /**
+   * Cộng delta vào bộ đếm của post.
+   * Trong transaction: gom theo post và chỉ áp dụng sau khi commit (rollback thì bỏ qua).
+   * Ngoài transaction: áp dụng ngay.
+   */
+  void increment(PostCounterType type, Long postId, long delta);
+
+  /*- Tính lại comment_count / reaction_count từ bảng con, trả về số post bị lệch đã sửa -*/
+  int reconcile();
+}
@@ -0,0 +1,431 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quocchung.dangbai.duandangbai.dtos.response.PostResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.utils.post.PostDetailCacheProperties;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache đọc xuyên (read-through) hai tầng cho chi tiết bài viết:
+ * - L1: Caffeine trong bộ nhớ mỗi node, có giới hạn kích thước
+ * - L2: Redis dùng chung giữa các node, có TTL
+ * - Mỗi node chỉ một thread nạp một post tại một thời điểm (single-flight): L1 miss đồng thời
+ *   trên cùng key sẽ chờ chung một lần đọc L2 / DB
+ * - Stale-while-revalidate: entry quá freshFor vẫn được trả về ngay, việc nạp lại chạy ở nền
+ * - Khi bài viết thay đổi, node thực hiện xóa L2 rồi publish lên kênh invalidation (sau commit nếu
+ *   đang trong transaction), mọi node nhận được sẽ xóa L1; mất message thì L1 ttl là giới hạn trên
+ * Số liệu đếm (lượt xem...) trong entry có thể cũ tối đa một chu kỳ làm mới, caller tự cộng phần động.
+ */
+@Component
+@Slf4j
+public class PostDetailCache implements MessageListener {
+
+  public static final String INVALIDATION_CHANNEL = "post_detail_invalidations";
+  private static final String REMOTE_KEY_PREFIX = "post_detail:";
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final CircuitBreaker redisCircuitBreaker;
+  private final PostDetailCacheProperties properties;
+
+  private final Cache<Long, LocalEntry> local;
+  private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+  private final Counter localHits;
+  private final Counter localMisses;
+  private final Counter remoteHits;
+  private final Counter remoteMisses;
+  private final Counter staleServed;
+  private ThreadPoolExecutor refresher;
+
+  public PostDetailCache(RedisTemplate<String, Object> redisTemplate,
+      StringRedisTemplate stringRedisTemplate,
+      RedisMessageListenerContainer listenerContainer,
+      CircuitBreaker redisCircuitBreaker,
+      PostDetailCacheProperties properties,
+      MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.listenerContainer = listenerContainer;
+    this.redisCircuitBreaker = redisCircuitBreaker;
+    this.properties = properties;
+
+    PostDetailCacheProperties.Local spec = properties.getLocal();
+    this.local = Caffeine.newBuilder()
+        .maximumSize(spec.getMaxSize())
+        .expireAfterWrite(spec.getTtl())
+        .build();
+
+    this.localHits = requests(meterRegistry, "local", "hit");
+    this.localMisses = requests(meterRegistry, "local", "miss");
+    this.remoteHits = requests(meterRegistry, "remote", "hit");
+    this.remoteMisses = requests(meterRegistry, "remote", "miss");
+    this.staleServed = Counter.builder("post_detail_cache.stale_served")
+        .description("Số lần trả entry quá hạn freshFor trong lúc nạp lại ở nền")
+        .register(meterRegistry);
+    hitRatio(meterRegistry, "local", localHits, localMisses);
+    hitRatio(meterRegistry, "remote", remoteHits, remoteMisses);
+    meterRegistry.gauge("post_detail_cache.local_size", local, Cache::estimatedSize);
+  }
+
+  @PostConstruct
+  void start() {
+    listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    // Hàng đợi đầy thì bỏ qua lần làm mới, entry cũ vẫn được phục vụ tới khi hết ttl
+    refresher = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1_000),
+        runnable -> {
+          Thread thread = new Thread(runnable, "post-detail-refresh");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @PreDestroy
+  void stop() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
+  }
+
+  /**
+   * Lấy chi tiết bài viết qua L1 -> L2 -> loader
+   * Giá trị trả về dùng chung giữa các request, caller muốn sửa thì phải copy (toBuilder)
+   * @param loader đọc từ DB; ném AppException khi không tìm thấy (kết quả lỗi không được cache)
+   */
+  public PostResponse get(Long postId, Function<Long, PostResponse> loader) {
+    if (!properties.isEnabled()) {
+      return loader.apply(postId);
+    }
+    LocalEntry entry = local.getIfPresent(postId);
+    if (entry != null) {
+      localHits.increment();
+    } else {
+      localMisses.increment();
+      entry = local.get(postId, id -> loadLocal(id, loader));
+    }
+    if (System.currentTimeMillis() >= entry.refreshAtMillis) {
+      staleServed.increment();
+      refreshAsync(postId, loader);
+    }
+    return entry.post;
+  }
+
+  /**
+   * Lấy nhiều bài viết một lượt: L1, rồi một MGET trên L2 cho phần còn thiếu, rồi một lần bulkLoader cho phần
+   * vẫn thiếu. Không single-flight theo từng key như get(), đổi lại số round-trip cố định cho cả trang.
+   * @param bulkLoader nạp từ DB, id không tồn tại thì không có trong map kết quả
+   * @return map id -> bài viết (dùng chung, không được sửa), thiếu những id không tồn tại
+   */
+  public Map<Long, PostResponse> getAll(List<Long> postIds,
+      Function<List<Long>, Map<Long, PostResponse>> bulkLoader) {
+    if (!properties.isEnabled()) {
+      return bulkLoader.apply(postIds);
+    }
+    Function<Long, PostResponse> loader = single(bulkLoader);
+    long now = System.currentTimeMillis();
+    Map<Long, PostResponse> result = new HashMap<>(postIds.size() * 2);
+    List<Long> missing = new ArrayList<>();
+    for (Long postId : postIds) {
+      LocalEntry entry = local.getIfPresent(postId);
+      if (entry == null) {
+        localMisses.increment();
+        missing.add(postId);
+        continue;
+      }
+      localHits.increment();
+      result.put(postId, entry.post);
+      if (now >= entry.refreshAtMillis) {
+        staleServed.increment();
+        refreshAsync(postId, loader);
+      }
+    }
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    List<RemoteEntry> remote = readRemoteAll(missing);
+    List<Long> toLoad = new ArrayList<>();
+    for (int i = 0; i < missing.size(); i++) {
+      Long postId = missing.get(i);
+      RemoteEntry entry = remote.get(i);
+      if (entry == null || entry.getPost() == null) {
+        remoteMisses.increment();
+        toLoad.add(postId);
+        continue;
+      }
+      remoteHits.increment();
+      boolean fresh = now < entry.getRefreshAtMillis();
+      local.put(postId, new LocalEntry(entry.getPost(), fresh ? localRefreshAt() : 0L));
+      result.put(postId, entry.getPost());
+      if (!fresh) {
+        staleServed.increment();
+        refreshAsync(postId, loader);
+      }
+    }
+    if (!toLoad.isEmpty()) {
+      Map<Long, PostResponse> loaded = bulkLoader.apply(toLoad);
+      loaded.forEach((postId, post) -> local.put(postId, new LocalEntry(post, localRefreshAt())));
+      writeRemoteAll(loaded);
+      result.putAll(loaded);
+    }
+    return result;
+  }
+
+  /**
+   * Xóa bài viết khỏi cache trên mọi node
+   * Gọi trong transaction thì chỉ xóa sau khi commit, để node khác không nạp lại dữ liệu cũ
+   */
+  public void evict(Long postId) {
+    if (postId == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          evictNow(postId);
+        }
+      });
+    } else {
+      evictNow(postId);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    try {
+      local.invalidate(Long.valueOf(body));
+    } catch (NumberFormatException e) {
+      log.warn("Invalid post detail invalidation message: {}", body);
+    }
+  }
+
+  private LocalEntry loadLocal(Long postId, Function<Long, PostResponse> loader) {
+    RemoteEntry remote = readRemote(postId);
+    if (remote != null && remote.getPost() != null) {
+      remoteHits.increment();
+      // L2 đã cũ thì L1 cũng coi là cũ ngay, lần đọc sau sẽ nạp lại từ DB ở nền
+      long refreshAt = System.currentTimeMillis() < remote.getRefreshAtMillis()
+          ? localRefreshAt()
+          : 0L;
+      return new LocalEntry(remote.getPost(), refreshAt);
+    }
+    remoteMisses.increment();
+    PostResponse post = loader.apply(postId);
+    writeRemote(postId, post);
+    return new LocalEntry(post, localRefreshAt());
+  }
+
+  private void refreshAsync(Long postId, Function<Long, PostResponse> loader) {
+    if (refresher == null || !refreshing.add(postId)) {
+      return;
+    }
+    try {
+      refresher.execute(() -> {
+        try {
+          refresh(postId, loader);
+        } finally {
+          refreshing.remove(postId);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(postId);
+    }
+  }
+
+  private void refresh(Long postId, Function<Long, PostResponse> loader) {
+    PostResponse post;
+    try {
+      post = loader.apply(postId);
+    } catch (AppException e) {
+      // Bài viết không còn đọc được (đã xóa...) thì bỏ khỏi cache
+      evictNow(postId);
+      return;
+    } catch (Exception e) {
+      log.warn("Không làm mới được cache của post {}: {}", postId, e.getMessage());
+      return;
+    }
+    // Chỉ thay entry còn tồn tại: nếu vừa bị invalidate trong lúc nạp thì không ghi đè lại bản cũ
+    LocalEntry refreshed = local.asMap()
+        .computeIfPresent(postId, (id, old) -> new LocalEntry(post, localRefreshAt()));
+    if (refreshed != null) {
+      writeRemote(postId, post);
+    }
+  }
+
+  private static Function<Long, PostResponse> single(Function<List<Long>, Map<Long, PostResponse>> bulkLoader) {
+    return postId -> {
+      PostResponse post = bulkLoader.apply(List.of(postId)).get(postId);
+      if (post == null) {
+        throw new AppException(ErrorCode.NOT_FOUND);
+      }
+      return post;
+    };
+  }
+
+  private void evictNow(Long postId) {
+    local.invalidate(postId);
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      redisTemplate.delete(REMOTE_KEY_PREFIX + postId);
+      stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.valueOf(postId));
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.error("Error publishing post detail invalidation: {}", e.getMessage());
+    }
+  }
+
+  private RemoteEntry readRemote(Long postId) {
+    if (!properties.getRemote().isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return null;
+    }
+    try {
+      Object value = redisTemplate.opsForValue().get(REMOTE_KEY_PREFIX + postId);
+      redisCircuitBreaker.onSuccess();
+      return value instanceof RemoteEntry entry ? entry : null;
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không đọc được cache Redis của post {}: {}", postId, e.getMessage());
+      return null;
+    }
+  }
+
+  /*- Một MGET cho cả danh sách; lỗi / tắt L2 thì trả toàn null để caller nạp từ DB -*/
+  private List<RemoteEntry> readRemoteAll(List<Long> postIds) {
+    List<RemoteEntry> entries = new ArrayList<>(Collections.nCopies(postIds.size(), null));
+    if (!properties.getRemote().isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return entries;
+    }
+    try {
+      List<Object> values = redisTemplate.opsForValue().multiGet(
+          postIds.stream().map(postId -> REMOTE_KEY_PREFIX + postId).toList());
+      redisCircuitBreaker.onSuccess();
+      for (int i = 0; values != null && i < values.size(); i++) {
+        if (values.get(i) instanceof RemoteEntry entry) {
+          entries.set(i, entry);
+        }
+      }
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không đọc được cache Redis của {} post: {}", postIds.size(), e.getMessage());
+    }
+    return entries;
+  }
+
+  /*- Ghi nhiều entry trong một pipeline (SET kèm TTL cho từng key) -*/
+  @SuppressWarnings("unchecked")
+  private void writeRemoteAll(Map<Long, PostResponse> posts) {
+    PostDetailCacheProperties.Remote spec = properties.getRemote();
+    if (posts.isEmpty() || !spec.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    long refreshAt = System.currentTimeMillis() + spec.getFreshFor().toMillis();
+    Expiration expiration = Expiration.from(spec.getTtl());
+    try {
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        posts.forEach((postId, post) -> connection.stringCommands().set(
+            (REMOTE_KEY_PREFIX + postId).getBytes(StandardCharsets.UTF_8),
+            serializer.serialize(new RemoteEntry(post, refreshAt)),
+            expiration,
+            SetOption.upsert()));
+        return null;
+      });
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không ghi được cache Redis của {} post: {}", posts.size(), e.getMessage());
+    }
+  }
+
+  private void writeRemote(Long postId, PostResponse post) {
+    PostDetailCacheProperties.Remote spec = properties.getRemote();
+    if (!spec.isEnabled() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      long refreshAt = System.currentTimeMillis() + spec.getFreshFor().toMillis();
+      redisTemplate.opsForValue().set(REMOTE_KEY_PREFIX + postId, new RemoteEntry(post, refreshAt), spec.getTtl());
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không ghi được cache Redis của post {}: {}", postId, e.getMessage());
+    }
+  }
+
+  private long localRefreshAt() {
+    return System.currentTimeMillis() + properties.getLocal().getFreshFor().toMillis();
+  }
+
+  private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+    return Counter.builder("post_detail_cache.requests")
+        .tag("tier", tier)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private static void hitRatio(MeterRegistry meterRegistry, String tier, Counter hits, Counter misses) {
+    Gauge.builder("post_detail_cache.hit_ratio", () -> {
+          double total = hits.count() + misses.count();
+          return total == 0 ? 0.0 : hits.count() / total;
+        })
+        .tag("tier", tier)
+        .description("Tỉ lệ hit tích lũy từ lúc khởi động của từng tầng cache")
+        .register(meterRegistry);
+  }
+
+  private record LocalEntry(PostResponse post, long refreshAtMillis) {
+  }
+
+  /*- Giá trị lưu trên Redis (JSON), kèm thời điểm cần làm mới -*/
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RemoteEntry {
+    private PostResponse post;
+    private long refreshAtMillis;
+  }
+}
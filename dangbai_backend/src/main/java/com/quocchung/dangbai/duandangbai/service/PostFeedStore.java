@@ -0,0 +1,499 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.repository.PostRepository;
+import com.quocchung.dangbai.duandangbai.repository.projection.PostFeedEntry;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.post.PostFeedProperties;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Feed bài viết đã duyệt dựng sẵn trên Redis: một sorted set toàn cục + một sorted set cho mỗi danh mục.
+ * - Score = createdAt (epoch micro giây, như DATETIME(6)), member = id đệm 0 bên trái để các post trùng score xếp theo id,
+ *   thứ tự (createdAt DESC, id DESC) giống hệt feed đọc từ MySQL nên cursor dùng chung được giữa hai đường
+ * - Đọc một trang = một ZREVRANGE / ZREVRANGEBYSCORE, O(log n + size), không chạm DB
+ * - Cập nhật khi duyệt / từ chối bài (sau commit), dựng lại từ MySQL khi khởi động nếu chưa có,
+ *   khi ghi Redis lỗi hoặc khi admin yêu cầu; chỉ một node dựng tại một thời điểm (khóa trên Redis)
+ * Mọi phương thức đọc trả null khi feed chưa sẵn sàng hoặc Redis lỗi: caller đọc MySQL.
+ */
+@Component
+@Slf4j
+public class PostFeedStore {
+
+  private static final String GLOBAL_KEY = "feed:global";
+  private static final String CATEGORY_KEY_PREFIX = "feed:category:";
+  // Danh sách category đang có sorted set, để xóa feed của category không còn bài khi dựng lại
+  private static final String CATEGORIES_KEY = "feed:categories";
+  // Marker đổi tên khi đổi đơn vị score (millis -> micros): node bản mới thấy feed chưa có và dựng lại toàn bộ
+  private static final String READY_KEY = "feed:ready:micros";
+  private static final String LOCK_KEY = "feed:rebuild_lock";
+  private static final String REBUILD_PREFIX = "feed:rebuild:";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final PostRepository postRepository;
+  private final CircuitBreaker redisCircuitBreaker;
+  private final PostFeedProperties properties;
+
+  // ready: feed trên Redis đã dựng xong; dirty: một lần ghi bị lỗi nên feed có thể thiếu / thừa bài
+  private volatile boolean ready;
+  private volatile boolean dirty;
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private final Counter rebuilds;
+  private final Counter writeFailures;
+  private ScheduledExecutorService worker;
+
+  public PostFeedStore(StringRedisTemplate stringRedisTemplate,
+      PostRepository postRepository,
+      CircuitBreaker redisCircuitBreaker,
+      PostFeedProperties properties,
+      MeterRegistry meterRegistry) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.postRepository = postRepository;
+    this.redisCircuitBreaker = redisCircuitBreaker;
+    this.properties = properties;
+    this.rebuilds = Counter.builder("post_feed.rebuilds")
+        .description("Số lần dựng lại feed từ MySQL")
+        .register(meterRegistry);
+    this.writeFailures = Counter.builder("post_feed.write_failures")
+        .description("Số lần cập nhật feed trên Redis bị lỗi (feed sẽ được dựng lại)")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    long intervalMillis = properties.getCheckInterval().toMillis();
+    worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "post-feed");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Lần đầu chạy ngay: node đầu tiên khởi động sẽ dựng feed nếu Redis chưa có
+    worker.scheduleWithFixedDelay(this::rebuildIfNeeded, 0, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (worker != null) {
+      worker.shutdownNow();
+    }
+  }
+
+  /*- Thêm bài vừa được duyệt vào feed (sau commit nếu đang trong transaction) -*/
+  public void postApproved(Long postId, Long categoryId, LocalDateTime createdAt) {
+    if (postId != null && createdAt != null) {
+      afterCommit(() -> write(connection -> add(connection, postId, categoryId, createdAt)));
+    }
+  }
+
+  /*- Bỏ bài khỏi feed (bị từ chối, gỡ, xóa) -*/
+  public void postRemoved(Long postId, Long categoryId) {
+    if (postId != null) {
+      afterCommit(() -> write(connection -> remove(connection, postId, categoryId)));
+    }
+  }
+
+  /**
+   * Keyset: tối đa limit id đứng sau (afterCreatedAt, afterId) theo thứ tự createdAt DESC, id DESC
+   * @param categoryId null = feed toàn cục
+   * @param afterCreatedAt null để lấy trang đầu
+   * @return null khi phải đọc MySQL
+   */
+  public List<Long> readAfter(Long categoryId, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+    if (!readable()) {
+      return null;
+    }
+    String key = key(categoryId);
+    try {
+      List<Long> ids = new ArrayList<>(limit);
+      if (afterCreatedAt == null) {
+        collect(stringRedisTemplate.opsForZSet().reverseRange(key, 0, limit - 1L), ids);
+      } else {
+        double maxScore = score(afterCreatedAt);
+        String afterMember = member(afterId);
+        long offset = 0;
+        // Các bài trùng score với cursor mà id >= afterId nằm đầu kết quả: bỏ qua rồi đọc tiếp nếu chưa đủ
+        while (ids.size() < limit) {
+          int fetch = limit - ids.size() + 1;
+          Set<TypedTuple<String>> batch = stringRedisTemplate.opsForZSet()
+              .reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, maxScore, offset, fetch);
+          if (batch == null) {
+            break;
+          }
+          for (TypedTuple<String> tuple : batch) {
+            boolean notAfter = tuple.getScore() != null && tuple.getScore() == maxScore
+                               && tuple.getValue().compareTo(afterMember) >= 0;
+            if (!notAfter && ids.size() < limit) {
+              ids.add(Long.valueOf(tuple.getValue()));
+            }
+          }
+          if (batch.size() < fetch) {
+            break;
+          }
+          offset += batch.size();
+        }
+      }
+      return verified(ids);
+    } catch (Exception e) {
+      readFailed(e);
+      return null;
+    }
+  }
+
+  /*- Phân trang theo số trang: một ZREVRANGE, null khi phải đọc MySQL -*/
+  public List<Long> readRange(Long categoryId, long offset, int limit) {
+    if (!readable()) {
+      return null;
+    }
+    try {
+      List<Long> ids = new ArrayList<>(limit);
+      collect(stringRedisTemplate.opsForZSet().reverseRange(key(categoryId), offset, offset + limit - 1), ids);
+      return verified(ids);
+    } catch (Exception e) {
+      readFailed(e);
+      return null;
+    }
+  }
+
+  /*- Số bài trong feed (ZCARD, O(1)), null khi phải đếm trên MySQL -*/
+  public Long size(Long categoryId) {
+    if (!readable()) {
+      return null;
+    }
+    try {
+      Long size = stringRedisTemplate.opsForZSet().zCard(key(categoryId));
+      redisCircuitBreaker.onSuccess();
+      return size;
+    } catch (Exception e) {
+      readFailed(e);
+      return null;
+    }
+  }
+
+  /**
+   * Yêu cầu dựng lại feed từ MySQL ở nền. Khóa được lấy ngay trên thread gọi, việc dựng chạy ở nền
+   * @return false khi node này hoặc node khác đang dựng lại (không lấy được khóa), Redis lỗi hoặc feed bị tắt
+   */
+  public boolean requestRebuild() {
+    if (worker == null || !rebuilding.compareAndSet(false, true)) {
+      return false;
+    }
+    String lockToken = UUID.randomUUID().toString();
+    try {
+      if (!tryLock(lockToken)) {
+        rebuilding.set(false);
+        return false;
+      }
+    } catch (Exception e) {
+      rebuilding.set(false);
+      log.warn("Không lấy được khóa dựng feed: {}", e.getMessage());
+      return false;
+    }
+    try {
+      worker.execute(() -> rebuildLocked(lockToken));
+      return true;
+    } catch (RejectedExecutionException e) {
+      releaseLock(lockToken);
+      rebuilding.set(false);
+      return false;
+    }
+  }
+
+  /*- Được gọi định kỳ: dựng lại khi Redis chưa có feed hoặc node này ghi lỗi trước đó -*/
+  void rebuildIfNeeded() {
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+    try {
+      boolean exists = Boolean.TRUE.equals(stringRedisTemplate.hasKey(READY_KEY));
+      redisCircuitBreaker.onSuccess();
+      if (exists && !dirty) {
+        ready = true;
+        return;
+      }
+      ready = false;
+      rebuild();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không kiểm tra được trạng thái feed: {}", e.getMessage());
+    }
+  }
+
+  /*- Dựng lại toàn bộ feed; trả về số bài, -1 khi node khác / thread khác đang dựng -*/
+  int rebuild() {
+    if (!rebuilding.compareAndSet(false, true)) {
+      return -1;
+    }
+    String lockToken = UUID.randomUUID().toString();
+    try {
+      if (!tryLock(lockToken)) {
+        rebuilding.set(false);
+        return -1;
+      }
+    } catch (Exception e) {
+      dirty = true;
+      rebuilding.set(false);
+      log.error("Dựng lại feed thất bại: {}", e.getMessage());
+      return -1;
+    }
+    return rebuildLocked(lockToken);
+  }
+
+  /*- Dựng lại khi đã giữ khóa; trả khóa và cờ rebuilding khi xong -*/
+  private int rebuildLocked(String lockToken) {
+    try {
+      // Lỗi ghi xảy ra trong lúc dựng sẽ bật lại dirty để lần kiểm tra sau dựng lại
+      dirty = false;
+      int total = doRebuild();
+      ready = !dirty;
+      rebuilds.increment();
+      log.info("Đã dựng lại feed: {} bài", total);
+      return total;
+    } catch (Exception e) {
+      dirty = true;
+      log.error("Dựng lại feed thất bại: {}", e.getMessage());
+      return -1;
+    } finally {
+      releaseLock(lockToken);
+      rebuilding.set(false);
+    }
+  }
+
+  private int doRebuild() {
+    LocalDateTime startedAt = LocalDateTime.now();
+    String tempGlobal = REBUILD_PREFIX + GLOBAL_KEY;
+    String tempCategories = REBUILD_PREFIX + CATEGORIES_KEY;
+    // Dọn dữ liệu tạm của lần dựng bị gián đoạn trước đó
+    deleteTemp(tempGlobal, tempCategories);
+
+    Set<Long> categories = new HashSet<>();
+    int total = 0;
+    long afterId = 0;
+    while (true) {
+      List<PostFeedEntry> batch = postRepository.findFeedEntries(
+          PostStatus.APPROVED, afterId, PageRequest.of(0, properties.getRebuildBatchSize()));
+      if (batch.isEmpty()) {
+        break;
+      }
+      stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        for (PostFeedEntry entry : batch) {
+          byte[] member = bytes(member(entry.getId()));
+          double score = score(entry.getCreatedAt());
+          connection.zSetCommands().zAdd(bytes(tempGlobal), score, member);
+          if (entry.getCategoryId() != null) {
+            connection.zSetCommands().zAdd(bytes(REBUILD_PREFIX + key(entry.getCategoryId())), score, member);
+            connection.setCommands().sAdd(bytes(tempCategories), bytes(entry.getCategoryId().toString()));
+          }
+        }
+        return null;
+      });
+      batch.stream().map(PostFeedEntry::getCategoryId).filter(Objects::nonNull).forEach(categories::add);
+      total += batch.size();
+      afterId = batch.get(batch.size() - 1).getId();
+    }
+
+    // Đổi sang dữ liệu mới bằng RENAME (nguyên tử theo từng key), xóa feed của category không còn bài
+    Set<String> previous = stringRedisTemplate.opsForSet().members(CATEGORIES_KEY);
+    swap(tempGlobal, GLOBAL_KEY);
+    for (Long categoryId : categories) {
+      swap(REBUILD_PREFIX + key(categoryId), key(categoryId));
+    }
+    if (previous != null) {
+      for (String categoryId : previous) {
+        if (!categories.contains(Long.valueOf(categoryId))) {
+          stringRedisTemplate.delete(key(Long.valueOf(categoryId)));
+        }
+      }
+    }
+    swap(tempCategories, CATEGORIES_KEY);
+
+    // Bài được duyệt / gỡ trong lúc dựng có thể đã ghi vào key cũ vừa bị thay: áp lại từ MySQL
+    List<PostFeedEntry> changed = postRepository.findFeedEntriesUpdatedSince(startedAt.minusSeconds(1));
+    if (!changed.isEmpty()) {
+      stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        for (PostFeedEntry entry : changed) {
+          if (entry.getStatus() == PostStatus.APPROVED && entry.getCreatedAt() != null) {
+            add(connection, entry.getId(), entry.getCategoryId(), entry.getCreatedAt());
+          } else {
+            remove(connection, entry.getId(), entry.getCategoryId());
+          }
+        }
+        return null;
+      });
+    }
+    stringRedisTemplate.opsForValue().set(READY_KEY, startedAt.toString());
+    return total;
+  }
+
+  private void deleteTemp(String tempGlobal, String tempCategories) {
+    Set<String> staleCategories = stringRedisTemplate.opsForSet().members(tempCategories);
+    List<String> keys = new ArrayList<>();
+    keys.add(tempGlobal);
+    keys.add(tempCategories);
+    if (staleCategories != null) {
+      staleCategories.forEach(categoryId -> keys.add(REBUILD_PREFIX + key(Long.valueOf(categoryId))));
+    }
+    stringRedisTemplate.delete(keys);
+  }
+
+  /*- RENAME temp -> key, temp không tồn tại (không có bài) thì xóa key -*/
+  private void swap(String temp, String key) {
+    if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(temp))) {
+      stringRedisTemplate.rename(temp, key);
+    } else {
+      stringRedisTemplate.delete(key);
+    }
+  }
+
+  /*- Khóa dựng feed dùng chung giữa các node, tự hết hạn sau rebuild-lock-ttl -*/
+  private boolean tryLock(String lockToken) {
+    return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+        .setIfAbsent(LOCK_KEY, lockToken, properties.getRebuildLockTtl()));
+  }
+
+  private void releaseLock(String lockToken) {
+    try {
+      if (lockToken.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+        stringRedisTemplate.delete(LOCK_KEY);
+      }
+    } catch (Exception e) {
+      log.warn("Không trả được khóa dựng feed (tự hết hạn): {}", e.getMessage());
+    }
+  }
+
+  private static void add(RedisConnection connection, Long postId, Long categoryId, LocalDateTime createdAt) {
+    byte[] member = bytes(member(postId));
+    double score = score(createdAt);
+    connection.zSetCommands().zAdd(bytes(GLOBAL_KEY), score, member);
+    if (categoryId != null) {
+      connection.zSetCommands().zAdd(bytes(key(categoryId)), score, member);
+      connection.setCommands().sAdd(bytes(CATEGORIES_KEY), bytes(categoryId.toString()));
+    }
+  }
+
+  private static void remove(RedisConnection connection, Long postId, Long categoryId) {
+    byte[] member = bytes(member(postId));
+    connection.zSetCommands().zRem(bytes(GLOBAL_KEY), member);
+    if (categoryId != null) {
+      connection.zSetCommands().zRem(bytes(key(categoryId)), member);
+    }
+  }
+
+  private void write(RedisWrite write) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      markDirty();
+      return;
+    }
+    try {
+      stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        write.apply(connection);
+        return null;
+      });
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không cập nhật được feed: {}", e.getMessage());
+      markDirty();
+    }
+  }
+
+  /*- Feed có thể lệch với MySQL: node này đọc MySQL cho tới khi dựng lại xong -*/
+  private void markDirty() {
+    writeFailures.increment();
+    ready = false;
+    dirty = true;
+  }
+
+  private boolean readable() {
+    return properties.isEnabled() && ready && redisCircuitBreaker.tryAcquirePermission();
+  }
+
+  /*- Trang rỗng có thể do Redis mất dữ liệu (restart không persist): kiểm tra lại marker -*/
+  private List<Long> verified(List<Long> ids) {
+    if (ids.isEmpty() && !Boolean.TRUE.equals(stringRedisTemplate.hasKey(READY_KEY))) {
+      redisCircuitBreaker.onSuccess();
+      ready = false;
+      return null;
+    }
+    redisCircuitBreaker.onSuccess();
+    return ids;
+  }
+
+  private void readFailed(Exception e) {
+    redisCircuitBreaker.onError();
+    log.warn("Không đọc được feed từ Redis: {}", e.getMessage());
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private static void collect(Set<String> members, List<Long> ids) {
+    if (members != null) {
+      members.forEach(member -> ids.add(Long.valueOf(member)));
+    }
+  }
+
+  private static String key(Long categoryId) {
+    return categoryId == null ? GLOBAL_KEY : CATEGORY_KEY_PREFIX + categoryId;
+  }
+
+  // Đệm 0 tới 19 chữ số: thứ tự chuỗi của member trùng thứ tự số của id
+  private static String member(Long postId) {
+    return String.format("%019d", postId);
+  }
+
+  /*- Micro giây: khớp độ chính xác createdAt trong cursor, vẫn biểu diễn chính xác bằng double -*/
+  private static double score(LocalDateTime createdAt) {
+    return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + createdAt.getNano() / 1_000;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @FunctionalInterface
+  private interface RedisWrite {
+    void apply(RedisConnection connection);
+  }
+}
@@ -0,0 +1,289 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.quocchung.dangbai.duandangbai.utils.post.PostViewProperties;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đếm lượt xem bài viết theo kiểu write-behind:
+ * - Mỗi lượt xem chỉ cộng vào LongAdder của post (không I/O, không lock chung)
+ * - Định kỳ gom delta của mọi post thành một batch "UPDATE posts SET view_count = view_count + ?":
+ *   post nóng 10k view/s vẫn chỉ tạo một UPDATE mỗi chu kỳ
+ * - Người xem khác nhau được ước lượng bằng HyperLogLog trên Redis; viewer được gom và PFADD
+ *   theo pipeline lúc flush, Redis lỗi thì bỏ qua (chỉ mất độ chính xác của ước lượng)
+ * - Số người xem trả về cho trang chi tiết lấy từ cache cục bộ, PFCOUNT chạy ở nền theo chu kỳ refresh
+ * Delta chưa flush sẽ mất nếu process chết đột ngột (tối đa một chu kỳ), tắt bình thường thì flush nốt.
+ */
+@Component
+@Slf4j
+public class PostViewTracker {
+
+  private static final String UNIQUE_VIEWERS_PREFIX = "post_uv:";
+  private static final String FLUSH_SQL = "UPDATE posts SET view_count = view_count + ? WHERE id = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final CircuitBreaker redisCircuitBreaker;
+  private final PostViewProperties properties;
+
+  private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, Set<String>> pendingViewers = new ConcurrentHashMap<>();
+  private final AtomicInteger pendingViewerCount = new AtomicInteger();
+  private final Counter droppedViewers;
+  private final Counter flushedRows;
+  private final ExecutorService uniqueViewersRefresher;
+  private final LoadingCache<Long, Long> uniqueViewerCounts;
+  private ScheduledExecutorService flusher;
+
+  public PostViewTracker(JdbcTemplate jdbcTemplate,
+      StringRedisTemplate stringRedisTemplate,
+      CircuitBreaker redisCircuitBreaker,
+      PostViewProperties properties,
+      MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.redisCircuitBreaker = redisCircuitBreaker;
+    this.properties = properties;
+    this.droppedViewers = Counter.builder("post_views.viewers_dropped")
+        .description("Viewer không được đưa vào HyperLogLog do hàng đợi đầy")
+        .register(meterRegistry);
+    this.flushedRows = Counter.builder("post_views.flushed_rows")
+        .description("Số dòng posts được cập nhật view_count")
+        .register(meterRegistry);
+    meterRegistry.gauge("post_views.pending_posts", pendingViews, Map::size);
+
+    PostViewProperties.UniqueViewers uniqueViewers = properties.getUniqueViewers();
+    this.uniqueViewersRefresher = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "post-uv-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.uniqueViewerCounts = Caffeine.newBuilder()
+        .maximumSize(uniqueViewers.getCacheMaxSize())
+        .refreshAfterWrite(uniqueViewers.getRefreshInterval())
+        .expireAfterAccess(uniqueViewers.getCacheTtl())
+        .executor(uniqueViewersRefresher)
+        .build(new CacheLoader<Long, Long>() {
+          @Override
+          public Long load(Long postId) {
+            return countUniqueViewers(postId);
+          }
+
+          // Redis lỗi thì giữ giá trị cũ thay vì bỏ entry
+          @Override
+          public Long reload(Long postId, Long oldValue) {
+            Long size = countUniqueViewers(postId);
+            return size != null ? size : oldValue;
+          }
+        });
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    long intervalMillis = properties.getFlushInterval().toMillis();
+    flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "post-view-flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    uniqueViewersRefresher.shutdownNow();
+    if (flusher != null) {
+      flusher.shutdown();
+      try {
+        flusher.awaitTermination(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flush();
+    }
+  }
+
+  /**
+   * Ghi nhận một lượt xem, chỉ thao tác trong bộ nhớ
+   * @param viewerKey định danh người xem (user id hoặc IP), null thì không tính vào unique viewers
+   */
+  public void recordView(Long postId, String viewerKey) {
+    if (!properties.isEnabled() || postId == null) {
+      return;
+    }
+    addPending(postId, 1);
+
+    if (viewerKey != null && properties.getUniqueViewers().isEnabled()) {
+      if (pendingViewerCount.get() >= properties.getUniqueViewers().getMaxPending()) {
+        droppedViewers.increment();
+        return;
+      }
+      if (pendingViewers.computeIfAbsent(postId, id -> ConcurrentHashMap.newKeySet()).add(viewerKey)) {
+        pendingViewerCount.incrementAndGet();
+      }
+    }
+  }
+
+  /*- Không khóa: post nóng chỉ get + add trên LongAdder, computeIfAbsent chỉ khi post chưa có trong map -*/
+  private void addPending(Long postId, long delta) {
+    LongAdder adder = pendingViews.get(postId);
+    if (adder == null) {
+      adder = pendingViews.computeIfAbsent(postId, id -> new LongAdder());
+    }
+    adder.add(delta);
+  }
+
+  /*- Lượt xem đã ghi nhận trên node này nhưng chưa flush xuống DB -*/
+  public long pendingViews(Long postId) {
+    LongAdder adder = pendingViews.get(postId);
+    return adder != null ? adder.sum() : 0L;
+  }
+
+  /**
+   * Ước lượng số người xem khác nhau, không gọi Redis trên luồng request:
+   * trả giá trị đã biết gần nhất (quá refresh-interval thì PFCOUNT lại ở nền),
+   * null khi tắt hoặc post chưa có giá trị (lần đọc đầu, nạp ở nền cho lần sau)
+   */
+  public Long uniqueViewers(Long postId) {
+    if (!properties.getUniqueViewers().isEnabled() || postId == null) {
+      return null;
+    }
+    Long cached = uniqueViewerCounts.getIfPresent(postId);
+    if (cached == null) {
+      uniqueViewerCounts.refresh(postId);
+    }
+    return cached;
+  }
+
+  /*- PFCOUNT qua circuit breaker, null khi Redis không truy cập được -*/
+  private Long countUniqueViewers(Long postId) {
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      return null;
+    }
+    try {
+      Long size = stringRedisTemplate.opsForHyperLogLog().size(UNIQUE_VIEWERS_PREFIX + postId);
+      redisCircuitBreaker.onSuccess();
+      return size;
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không đọc được unique viewers của post {}: {}", postId, e.getMessage());
+      return null;
+    }
+  }
+
+  /*- Ghi delta xuống DB và viewer lên Redis; được gọi bởi thread flush -*/
+  void flush() {
+    try {
+      flushViews();
+    } catch (RuntimeException e) {
+      log.error("Flush lượt xem thất bại", e);
+    }
+    try {
+      flushViewers();
+    } catch (RuntimeException e) {
+      log.error("Flush unique viewers thất bại", e);
+    }
+  }
+
+  private void flushViews() {
+    // TreeMap: cập nhật theo thứ tự id để các node không khóa dòng chéo nhau
+    Map<Long, Long> deltas = new TreeMap<>();
+    for (Map.Entry<Long, LongAdder> entry : pendingViews.entrySet()) {
+      LongAdder adder = entry.getValue();
+      long delta = adder.sumThenReset();
+      if (delta == 0) {
+        // Post không có lượt xem mới trong chu kỳ: bỏ khỏi map để map không phình theo số post.
+        // Lượt xem cộng vào adder ngay trước khi bị bỏ khỏi map được cộng lại vào adder mới
+        if (pendingViews.remove(entry.getKey(), adder)) {
+          long residual = adder.sumThenReset();
+          if (residual != 0) {
+            addPending(entry.getKey(), residual);
+          }
+        }
+      } else {
+        deltas.put(entry.getKey(), delta);
+      }
+    }
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    List<Object[]> batch = new ArrayList<>(deltas.size());
+    deltas.forEach((postId, delta) -> batch.add(new Object[]{delta, postId}));
+    try {
+      jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+      flushedRows.increment(batch.size());
+    } catch (RuntimeException e) {
+      // Trả delta về bộ đếm để thử lại ở chu kỳ sau
+      deltas.forEach(this::addPending);
+      throw e;
+    }
+  }
+
+  private void flushViewers() {
+    if (pendingViewers.isEmpty()) {
+      return;
+    }
+    Map<Long, Set<String>> drained = new TreeMap<>();
+    for (Long postId : pendingViewers.keySet()) {
+      Set<String> viewers = pendingViewers.remove(postId);
+      if (viewers != null) {
+        drained.put(postId, viewers);
+      }
+    }
+    // Viewer thêm vào set vừa bị lấy ra sẽ bị bỏ qua; đếm lại từ map để số đếm không trôi dần
+    pendingViewerCount.set(pendingViewers.values().stream().mapToInt(Set::size).sum());
+    if (drained.isEmpty() || !redisCircuitBreaker.tryAcquirePermission()) {
+      return;
+    }
+
+    long ttlSeconds = properties.getUniqueViewers().getTtl().toSeconds();
+    try {
+      stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        drained.forEach((postId, viewers) -> pfAdd(connection, postId, viewers, ttlSeconds));
+        return null;
+      });
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.warn("Không ghi được unique viewers lên Redis: {}", e.getMessage());
+    }
+  }
+
+  private static void pfAdd(RedisConnection connection, Long postId, Set<String> viewers, long ttlSeconds) {
+    byte[] key = (UNIQUE_VIEWERS_PREFIX + postId).getBytes(StandardCharsets.UTF_8);
+    byte[][] values = viewers.stream()
+        .map(viewer -> viewer.getBytes(StandardCharsets.UTF_8))
+        .toArray(byte[][]::new);
+    connection.hyperLogLogCommands().pfAdd(key, values);
+    connection.keyCommands().expire(key, ttlSeconds);
+  }
+}
@@ -0,0 +1,50 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import java.util.Date;
+
+/**
+ * Nơi lưu trữ access/refresh token đã phát hành (whitelist).
+ * Chọn implementation qua token-store.type:
+ * - redis (mặc định): RedisTokenStore, dùng chung cho nhiều node
+ * - memory: InMemoryTokenStore, chỉ trong JVM, cho 1 node / môi trường test không có Redis
+ */
+public interface TokenStore {
+
+  void saveAccessToken(String token, Long userId, long expirationInSeconds);
+
+  void saveRefreshToken(String token, Long userId, long expirationInSeconds);
+
+  /*- Lưu cả access token, refresh token và mapping user -> tokens -*/
+  void saveUserTokens(Long userId, String accessToken, String refreshToken,
+      long accessTokenTTL, long refreshTokenTTL);
+
+  boolean isAccessTokenValid(String token);
+
+  /**
+   * Kiểm tra access token khi đã biết thông tin trong token (cho phép implementation cache kết quả)
+   * @param userId User ID trong token
+   * @param expiration Thời điểm hết hạn của token
+   * @throws com.quocchung.dangbai.duandangbai.exception.ExternalServiceException
+   *         TOKEN_STORE_UNAVAILABLE khi không xác định được (store lỗi / đang bị ngắt)
+   */
+  boolean isAccessTokenValid(String token, Long userId, Date expiration);
+
+  boolean isRefreshTokenValid(String token);
+
+  Long getUserIdFromAccessToken(String token);
+
+  Long getUserIdFromRefreshToken(String token);
+
+  void deleteAccessToken(String token);
+
+  void deleteRefreshToken(String token);
+
+  /*- Xóa tất cả tokens của user (Logout all devices) -*/
+  void deleteAllUserTokens(Long userId);
+
+  /**
+   * Thời gian còn lại của access token
+   * @return số giây còn lại, -2 nếu không tồn tại
+   */
+  Long getTokenTTL(String token);
+}
@@ -4,21 +4,28 @@ import com.quocchung.dangbai.duandangbai.dtos.request.LoginRequest;
 import com.quocchung.dangbai.duandangbai.dtos.request.RegisterRequest;
 import com.quocchung.dangbai.duandangbai.dtos.response.AuthResponse;
 import com.quocchung.dangbai.duandangbai.exception.AuthenticationException;
+import com.quocchung.dangbai.duandangbai.exception.ConflictException;
 import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
 import com.quocchung.dangbai.duandangbai.model.Role;
 import com.quocchung.dangbai.duandangbai.model.User;
-import com.quocchung.dangbai.duandangbai.repository.RoleRepository;
 import com.quocchung.dangbai.duandangbai.repository.UserRepository;
 import com.quocchung.dangbai.duandangbai.security.CustomUserDetails;
+import com.quocchung.dangbai.duandangbai.security.CustomUserDetailsService;
+import com.quocchung.dangbai.duandangbai.security.DefaultRoleCache;
+import com.quocchung.dangbai.duandangbai.security.RevocationList;
 import com.quocchung.dangbai.duandangbai.service.AuthService;
 import com.quocchung.dangbai.duandangbai.service.JwtService;
-import com.quocchung.dangbai.duandangbai.service.TokenStorageService;
+import com.quocchung.dangbai.duandangbai.service.TokenStore;
 import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
 import com.quocchung.dangbai.duandangbai.utils.token.JwtProperties;
+import io.jsonwebtoken.JwtException;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -34,25 +41,23 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthServiceImpl implements AuthService {
 
   private final UserRepository userRepository;
-  private final RoleRepository roleRepository;
+  private final DefaultRoleCache defaultRoleCache;
   private final PasswordEncoder passwordEncoder;
-  private final TokenStorageService tokenStorageService;
+  private final TokenStore tokenStore;
   private final AuthenticationManager authenticationManager;
   private final JwtService jwtService;
   private final JwtProperties jwtProperties;
+  private final CustomUserDetailsService userDetailsService;
+  private final RevocationList revocationList;
 
+  /**
+   * Đăng ký: không kiểm tra trước username/email, để unique constraint của DB quyết định
+   * (1 lệnh INSERT users + 1 lệnh INSERT user_roles, role mặc định lấy từ cache)
+   */
   @Override
   @Transactional
   public AuthResponse register(RegisterRequest request) {
-    if(userRepository.existsByUsername(request.getUsername())){
-      throw new AuthenticationException(ErrorCode.USER_ALREADY_EXISTS, "Username "+ request.getUsername() + " đã tồn tại");
-    }
-    if(userRepository.existsByEmail(request.getEmail())){
-      throw new AuthenticationException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email "+ request.getEmail() + " đã tồn tại");
-    }
-
-    Role userRole = roleRepository.findByName("ROLE_USER")
-        .orElseThrow(() -> new RuntimeException("Role USER not found"));
+    Role userRole = defaultRoleCache.get();
     Set<Role> roles = new HashSet<>();
     roles.add(userRole);
 
@@ -66,13 +71,17 @@ public class AuthServiceImpl implements AuthService {
         .roles(roles)
         .build();
 
-    user = userRepository.save(user);
+    try {
+      user = userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException e) {
+      throw translateDuplicate(e, request);
+    }
     CustomUserDetails userDetails = CustomUserDetails.build(user);
 
     String accessToken = jwtService.generateToken(userDetails);
     String refreshToken = jwtService.generateRefreshToken(userDetails);
 
-    tokenStorageService.saveUserTokens(
+    tokenStore.saveUserTokens(
         user.getId(),
         accessToken,
         refreshToken,
@@ -80,20 +89,14 @@ public class AuthServiceImpl implements AuthService {
         jwtProperties.getRefreshToken().getExpiration() /1000
     );
 
-    return AuthResponse.builder()
-        .accessToken(accessToken)
-        .refreshToken(refreshToken)
-        .tokenType("Bearer")
-        .userId(user.getId())
-        .username(user.getUsername())
-        .email(user.getEmail())
-        .displayName(user.getDisplayName())
-        .roles(user.getRoles().stream().map(Role::getName).toList())
-        .build();
+    return buildAuthResponse(userDetails, accessToken, refreshToken);
   }
 
+  /**
+   * Đăng nhập: principal do AuthenticationManager load (cache / 1 query fetch join) đã có đủ role,
+   * response dựng trực tiếp từ principal, không query lại user và không cần transaction
+   */
   @Override
-  @Transactional(readOnly = true)
   public AuthResponse login(LoginRequest request) {
     try {
       Authentication authentication = authenticationManager.authenticate(
@@ -112,7 +115,7 @@ public class AuthServiceImpl implements AuthService {
       String accessToken = jwtService.generateToken(userDetails);
       String refreshToken = jwtService.generateRefreshToken(userDetails);
 
-      tokenStorageService.saveUserTokens(
+      tokenStore.saveUserTokens(
           userDetails.getId(),
           accessToken,
           refreshToken,
@@ -120,19 +123,7 @@ public class AuthServiceImpl implements AuthService {
           jwtProperties.getRefreshToken().getExpiration() /1000
       );
 
-      User user = userRepository.findByUsername(userDetails.getUsername())
-          .orElseThrow(() -> new AuthenticationException(ErrorCode.USER_NOT_FOUND));
-
-      return AuthResponse.builder()
-          .accessToken(accessToken)
-          .refreshToken(refreshToken)
-          .tokenType("Bearer")
-          .userId(userDetails.getId())
-          .username(userDetails.getUsername())
-          .email(userDetails.getEmail())
-          .displayName(userDetails.getDisplayName())
-          .roles(user.getRoles().stream().map(Role::getName).toList())
-          .build();
+      return buildAuthResponse(userDetails, accessToken, refreshToken);
     } catch (BadCredentialsException e) {
       throw new AuthenticationException(ErrorCode.INVALID_CREDENTIALS, "Username hoặc password không chính xác");
     } catch (DisabledException e) {
@@ -141,13 +132,10 @@ public class AuthServiceImpl implements AuthService {
   }
 
   @Override
-  @Transactional(readOnly = true)
   public AuthResponse refreshToken(String refreshToken) {
     String username = jwtService.extractUsername(refreshToken);
-    User user = userRepository.findByUsername(username)
-        .orElseThrow(() -> new AuthenticationException(ErrorCode.USER_NOT_FOUND));
-
-    CustomUserDetails userDetails = CustomUserDetails.build(user);
+    // Đọc qua UserDetailsCache, chỉ query DB khi cache miss
+    CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserByUsername(username);
 
     if(!jwtService.isTokenValid(refreshToken, userDetails)){
       throw new AuthenticationException(ErrorCode.TOKEN_INVALID, "Refresh token không hợp lệ");
@@ -156,29 +144,65 @@ public class AuthServiceImpl implements AuthService {
     String newAccessToken = jwtService.generateToken(userDetails);
     String newRefreshToken = jwtService.generateRefreshToken(userDetails);
 
-    tokenStorageService.saveUserTokens(
-        user.getId(),
+    tokenStore.saveUserTokens(
+        userDetails.getId(),
         newAccessToken,
         newRefreshToken,
         jwtProperties.getExpiration()/1000,
         jwtProperties.getRefreshToken().getExpiration() /1000
     );
 
-    return AuthResponse.builder()
-        .accessToken(newAccessToken)
-        .refreshToken(newRefreshToken)
-        .tokenType("Bearer")
-        .userId(user.getId())
-        .username(user.getUsername())
-        .email(user.getEmail())
-        .displayName(user.getDisplayName())
-        .roles(user.getRoles().stream().map(Role::getName).toList())
-        .build();
+    return buildAuthResponse(userDetails, newAccessToken, newRefreshToken);
   }
 
   @Override
   public void logout(String token){
-    tokenStorageService.deleteAccessToken(token);
+    tokenStore.deleteAccessToken(token);
+    if (revocationList.isEnabled()) {
+      try {
+        revocationList.revoke(jwtService.verify(token));
+      } catch (JwtException e) {
+        // Token hết hạn / không hợp lệ thì không cần thu hồi
+        log.debug("Skip revocation of invalid token: {}", e.getMessage());
+      }
+    }
     log.info("User logged out, token removed");
   }
+
+  @Override
+  public void logoutAll(Long userId) {
+    tokenStore.deleteAllUserTokens(userId);
+    revocationList.revokeUser(userId);
+    log.info("User {} logged out from all devices", userId);
+  }
+
+  private AuthResponse buildAuthResponse(CustomUserDetails userDetails, String accessToken, String refreshToken) {
+    return AuthResponse.builder()
+        .accessToken(accessToken)
+        .refreshToken(refreshToken)
+        .tokenType("Bearer")
+        .userId(userDetails.getId())
+        .username(userDetails.getUsername())
+        .email(userDetails.getEmail())
+        .displayName(userDetails.getDisplayName())
+        .roles(userDetails.getRoleNames())
+        .build();
+  }
+
+  /*- Dịch lỗi unique constraint của bảng users sang lỗi nghiệp vụ theo tên constraint -*/
+  private RuntimeException translateDuplicate(DataIntegrityViolationException e, RegisterRequest request) {
+    String constraint = e.getCause() instanceof ConstraintViolationException violation
+        && violation.getConstraintName() != null
+        ? violation.getConstraintName()
+        : String.valueOf(e.getMostSpecificCause().getMessage());
+    constraint = constraint.toLowerCase(Locale.ROOT);
+    if (constraint.contains(User.UK_USERNAME)) {
+      return new AuthenticationException(ErrorCode.USER_ALREADY_EXISTS, "Username "+ request.getUsername() + " đã tồn tại");
+    }
+    if (constraint.contains(User.UK_EMAIL)) {
+      return new AuthenticationException(ErrorCode.EMAIL_ALREADY_EXISTS, "Email "+ request.getEmail() + " đã tồn tại");
+    }
+    log.warn("Unexpected constraint violation on register: {}", constraint);
+    return new ConflictException(ErrorCode.DUPLICATE_KEY_ERROR);
+  }
 }
@@ -7,6 +7,7 @@ import com.quocchung.dangbai.duandangbai.service.CategoryService;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -15,6 +16,7 @@ public class CategoryServiceImpl implements CategoryService {
   private final CategoryRepository categoryRepository;
 
   @Override
+  @Transactional(readOnly = true)
   public List<CategoryResponse> getAll() {
     return toCategoryResponse(categoryRepository.findAll());
   }
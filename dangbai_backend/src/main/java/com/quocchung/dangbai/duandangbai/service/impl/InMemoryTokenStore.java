@@ -0,0 +1,181 @@
+package com.quocchung.dangbai.duandangbai.service.impl;
+
+import com.quocchung.dangbai.duandangbai.service.TokenStore;
+import com.quocchung.dangbai.duandangbai.utils.cache.TimingWheel;
+import com.quocchung.dangbai.duandangbai.utils.token.TokenFingerprint;
+import jakarta.annotation.PreDestroy;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lưu trữ token trong JVM, dùng khi chạy 1 node hoặc test không có Redis (token-store.type=memory).
+ * - Token lưu trong ConcurrentHashMap theo fingerprint, kiểm tra hợp lệ = 1 lần get + so sánh deadline
+ * - Hết hạn do TimingWheel xử lý (tick mỗi giây), không phải quét toàn bộ map
+ * - Index user -> fingerprints để logout all devices
+ * Dữ liệu mất khi restart, không chia sẻ giữa các node.
+ */
+@Service
+@ConditionalOnProperty(name = "token-store.type", havingValue = "memory")
+@Slf4j
+public class InMemoryTokenStore implements TokenStore {
+
+  private static final long TICK_MILLIS = 1_000;
+  // 64^4 tick ~ 194 ngày, đủ cho refresh token
+  private static final int WHEEL_SIZE = 64;
+  private static final int WHEEL_LEVELS = 4;
+
+  private final Map<String, TokenEntry> accessTokens = new ConcurrentHashMap<>();
+  private final Map<String, TokenEntry> refreshTokens = new ConcurrentHashMap<>();
+  private final Map<Long, Set<String>> userTokens = new ConcurrentHashMap<>();
+  private final TimingWheel<Expiration> timingWheel =
+      new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "token-store-expiry");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public InMemoryTokenStore() {
+    ticker.scheduleAtFixedRate(this::expire, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    ticker.shutdownNow();
+  }
+
+  @Override
+  public void saveAccessToken(String token, Long userId, long expirationInSeconds) {
+    put(accessTokens, TokenFingerprint.of(token), userId, expirationInSeconds);
+  }
+
+  @Override
+  public void saveRefreshToken(String token, Long userId, long expirationInSeconds) {
+    put(refreshTokens, TokenFingerprint.of(token), userId, expirationInSeconds);
+  }
+
+  @Override
+  public void saveUserTokens(Long userId, String accessToken, String refreshToken,
+      long accessTokenTTL, long refreshTokenTTL) {
+    saveAccessToken(accessToken, userId, accessTokenTTL);
+    saveRefreshToken(refreshToken, userId, refreshTokenTTL);
+  }
+
+  @Override
+  public boolean isAccessTokenValid(String token) {
+    return find(accessTokens, token) != null;
+  }
+
+  @Override
+  public boolean isAccessTokenValid(String token, Long userId, Date expiration) {
+    return isAccessTokenValid(token);
+  }
+
+  @Override
+  public boolean isRefreshTokenValid(String token) {
+    return find(refreshTokens, token) != null;
+  }
+
+  @Override
+  public Long getUserIdFromAccessToken(String token) {
+    TokenEntry entry = find(accessTokens, token);
+    return entry != null ? entry.userId() : null;
+  }
+
+  @Override
+  public Long getUserIdFromRefreshToken(String token) {
+    TokenEntry entry = find(refreshTokens, token);
+    return entry != null ? entry.userId() : null;
+  }
+
+  @Override
+  public void deleteAccessToken(String token) {
+    remove(accessTokens, TokenFingerprint.of(token));
+  }
+
+  @Override
+  public void deleteRefreshToken(String token) {
+    remove(refreshTokens, TokenFingerprint.of(token));
+  }
+
+  @Override
+  public void deleteAllUserTokens(Long userId) {
+    // Cùng khóa theo user với put: token đang lưu dở không lọt qua logout all
+    userTokens.computeIfPresent(userId, (id, fingerprints) -> {
+      for (String fingerprint : fingerprints) {
+        accessTokens.remove(fingerprint);
+        refreshTokens.remove(fingerprint);
+      }
+      return null;
+    });
+    log.info("Deleted all tokens for user {}", userId);
+  }
+
+  @Override
+  public Long getTokenTTL(String token) {
+    TokenEntry entry = find(accessTokens, token);
+    if (entry == null) {
+      return -2L;
+    }
+    return TimeUnit.MILLISECONDS.toSeconds(entry.expiresAtMillis() - System.currentTimeMillis());
+  }
+
+  private void put(Map<String, TokenEntry> tokens, String fingerprint, Long userId, long ttlSeconds) {
+    TokenEntry entry = new TokenEntry(userId, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+    // Lưu và đánh index trong compute của user: không xen vào giữa unindex bỏ set rỗng hay deleteAllUserTokens
+    userTokens.compute(userId, (id, fingerprints) -> {
+      Set<String> target = fingerprints != null ? fingerprints : ConcurrentHashMap.newKeySet();
+      target.add(fingerprint);
+      tokens.put(fingerprint, entry);
+      return target;
+    });
+    timingWheel.schedule(new Expiration(tokens, fingerprint, entry), entry.expiresAtMillis());
+  }
+
+  /*- Token đã quá deadline nhưng wheel chưa tick tới vẫn bị coi là không tồn tại -*/
+  private TokenEntry find(Map<String, TokenEntry> tokens, String token) {
+    TokenEntry entry = tokens.get(TokenFingerprint.of(token));
+    return entry != null && entry.expiresAtMillis() > System.currentTimeMillis() ? entry : null;
+  }
+
+  private void remove(Map<String, TokenEntry> tokens, String fingerprint) {
+    TokenEntry entry = tokens.remove(fingerprint);
+    if (entry != null) {
+      unindex(entry.userId(), fingerprint);
+    }
+  }
+
+  private void unindex(Long userId, String fingerprint) {
+    userTokens.computeIfPresent(userId, (id, fingerprints) -> {
+      fingerprints.remove(fingerprint);
+      return fingerprints.isEmpty() ? null : fingerprints;
+    });
+  }
+
+  private void expire() {
+    try {
+      timingWheel.advanceTo(System.currentTimeMillis(), expiration -> {
+        // Chỉ xóa đúng entry đã lên lịch, token được lưu lại sau đó giữ nguyên
+        if (expiration.tokens().remove(expiration.fingerprint(), expiration.entry())) {
+          unindex(expiration.entry().userId(), expiration.fingerprint());
+        }
+      });
+    } catch (Exception e) {
+      log.error("Error expiring tokens: {}", e.getMessage());
+    }
+  }
+
+  private record TokenEntry(Long userId, long expiresAtMillis) {
+  }
+
+  private record Expiration(Map<String, TokenEntry> tokens, String fingerprint, TokenEntry entry) {
+  }
+}
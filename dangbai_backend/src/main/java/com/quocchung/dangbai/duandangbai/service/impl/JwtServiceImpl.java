@@ -1,9 +1,11 @@
 package com.quocchung.dangbai.duandangbai.service.impl;
 import com.quocchung.dangbai.duandangbai.security.CustomUserDetails;
+import com.quocchung.dangbai.duandangbai.security.VerifiedToken;
 import com.quocchung.dangbai.duandangbai.service.JwtService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -15,6 +17,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +33,18 @@ public class JwtServiceImpl implements JwtService {
   @Value("${jwt.refresh-token.expiration}")
   private long refreshExpiration;
 
+  /*- Key HMAC và parser được tạo một lần, dùng lại cho mọi request (thread-safe) -*/
+  private SecretKey signInKey;
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  void init() {
+    this.signInKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+    this.jwtParser = Jwts.parser()
+        .verifyWith(signInKey)
+        .build();
+  }
+
   /**
    * Tạo ra token từ thông tin người dùng không cs extract claims
    * extract claims: subject- username hoặc định đanh chính của user
@@ -49,6 +64,7 @@ public class JwtServiceImpl implements JwtService {
   public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
     if (userDetails instanceof CustomUserDetails customUser) {
       extraClaims.put("userId", customUser.getId());   // Thêm userId
+      extraClaims.put("authVersion", customUser.getAuthVersion() != null ? customUser.getAuthVersion() : 0L);
     }
     extraClaims.put("authorities", userDetails.getAuthorities().stream()
         .map(GrantedAuthority::getAuthority)
@@ -72,6 +88,8 @@ public class JwtServiceImpl implements JwtService {
     return Jwts.builder()
         .setClaims(extraClaims)
         .setSubject(userDetails.getUsername())
+        // jti: định danh riêng của từng token, dùng để thu hồi token trong chế độ stateless
+        .id(UUID.randomUUID().toString())
 
         .setIssuedAt(new Date(System.currentTimeMillis()))
         .setExpiration(new Date(System.currentTimeMillis() + expiration))
@@ -93,6 +111,29 @@ public class JwtServiceImpl implements JwtService {
     return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
   }
 
+  /**
+   * Kiểm tra token đã parse sẵn, không decode lại JWT
+   * @param verifiedToken
+   * @param userDetails
+   * @return
+   */
+  @Override
+  public boolean isTokenValid(VerifiedToken verifiedToken, UserDetails userDetails) {
+    return verifiedToken.getUsername() != null
+           && verifiedToken.getUsername().equals(userDetails.getUsername())
+           && !verifiedToken.isExpired();
+  }
+
+  /**
+   * Parse và verify chữ ký token đúng một lần
+   * @param token
+   * @return claims đã được verify
+   */
+  @Override
+  public VerifiedToken verify(String token) {
+    return new VerifiedToken(token, extractAllClaims(token));
+  }
+
   @Override
   public String extractUsername(String token) {
 
@@ -124,9 +165,7 @@ public class JwtServiceImpl implements JwtService {
    */
   private Claims extractAllClaims(String token) {
     try {
-      return Jwts.parser()
-          .verifyWith(getSignInKey())
-          .build()
+      return jwtParser
           .parseSignedClaims(token)
           .getPayload();
     } catch (ExpiredJwtException e) {
@@ -152,8 +191,7 @@ public class JwtServiceImpl implements JwtService {
   }
 
   private SecretKey getSignInKey() {
-    byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-    return Keys.hmacShaKeyFor(keyBytes);
+    return signInKey;
   }
 
   /**
@@ -1,28 +1,45 @@
 package com.quocchung.dangbai.duandangbai.service.impl;
 
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
 import com.quocchung.dangbai.duandangbai.model.Comment;
-import com.quocchung.dangbai.duandangbai.model.Notification;
 import com.quocchung.dangbai.duandangbai.model.Post;
 import com.quocchung.dangbai.duandangbai.model.Reaction;
 import com.quocchung.dangbai.duandangbai.model.User;
 import com.quocchung.dangbai.duandangbai.repository.NotificationRepository;
+import com.quocchung.dangbai.duandangbai.service.NotificationInboxCache;
+import com.quocchung.dangbai.duandangbai.service.NotificationOutboxRelay;
 import com.quocchung.dangbai.duandangbai.service.NotificationService;
 import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
-import java.time.LocalDateTime;
+import com.quocchung.dangbai.duandangbai.utils.pagination.NotificationCursor;
 import java.util.List;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationServiceImpl  implements NotificationService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final NotificationRepository notificationRepository;
+  private final NotificationOutboxRelay notificationOutboxRelay;
+  // Không có Redis (test JPA) thì badge / hộp thư đọc thẳng MySQL
+  private final ObjectProvider<NotificationInboxCache> notificationInboxCache;
 
   /**
-   * Tạo một thông báo mới
+   * Tạo một thông báo mới: chỉ ghi outbox trong transaction hiện tại,
+   * NotificationOutboxRelay chuyển sang bảng notifications ở nền
    * @param user
    * @param type
    * @param message
@@ -30,16 +47,8 @@ public class NotificationServiceImpl  implements NotificationService {
    */
   @Override
   public void createNotification(User user, NotificationType type, String message, Post post) {
-    Notification notification = Notification.builder()
-        .user(user)
-        .type(type)
-        .message(message)
-        .post(post)
-        .isRead(false)
-        .createdAt(LocalDateTime.now())
-        .build();
-    notificationRepository.save(notification);
-    log.info("Created notification for user {} - {}", user.getId(), type);
+    notificationOutboxRelay.publish(user.getId(), type, message, post != null ? post.getId() : null, null, null);
+    log.info("Queued notification for user {} - {}", user.getId(), type);
   }
 
   /**
@@ -115,17 +124,8 @@ public class NotificationServiceImpl  implements NotificationService {
     String msg = comment.getUser().getUsername()
                  + " đã bình luận vào bài đăng của bạn: \"" + post.getTitle() + "\"";
 
-    Notification notification = Notification.builder()
-        .user(author)
-        .type(NotificationType.NEW_COMMENT)
-        .message(msg)
-        .post(post)
-        .comment(comment)
-        .isRead(false)
-        .createdAt(LocalDateTime.now())
-        .build();
-
-    notificationRepository.save(notification);
+    notificationOutboxRelay.publish(author.getId(), NotificationType.NEW_COMMENT, msg,
+        post.getId(), comment.getId(), null);
   }
 
   /**
@@ -143,26 +143,117 @@ public class NotificationServiceImpl  implements NotificationService {
     String msg = reaction.getUser().getUsername()
                  + " đã bày tỏ cảm xúc về bài đăng của bạn.";
 
-    Notification notification = Notification.builder()
-        .user(author)
-        .type(NotificationType.POST_REACTION)
-        .message(msg)
-        .post(post)
-        .reaction(reaction)
-        .isRead(false)
-        .createdAt(LocalDateTime.now())
+    notificationOutboxRelay.publish(author.getId(), NotificationType.POST_REACTION, msg,
+        post.getId(), null, reaction.getId());
+  }
+
+  /**
+   * Hộp thư thông báo, mới nhất trước, phân trang theo cursor (createdAt, id):
+   * trang đầu đọc từ Redis (NotificationInboxCache), các trang sau / Redis lỗi thì một câu query theo index,
+   * không COUNT, chi phí như nhau với người có ít hay nhiều thông báo.
+   * Không mở transaction: trang đầu từ Redis không chiếm connection DB
+   * @param cursor nextCursor của trang trước, null / rỗng để lấy trang đầu
+   */
+  @Override
+  public PageResponse<NotificationResponse> getUserNotifications(Long userId, String cursor, int size) {
+    if (size <= 0) {
+      throw new AppException(ErrorCode.INVALID_FORMAT);
+    }
+    size = Math.min(size, MAX_PAGE_SIZE);
+    NotificationCursor after = cursor != null && !cursor.isBlank() ? NotificationCursor.decode(cursor) : null;
+
+    // Lấy dư 1 dòng để biết còn trang sau
+    List<NotificationResponse> items = after == null
+        ? firstPage(userId, size + 1)
+        : notificationRepository.findInboxAfter(userId, after.getCreatedAt(), after.getId(),
+            PageRequest.of(0, size + 1));
+    boolean hasNext = items.size() > size;
+    if (hasNext) {
+      items = items.subList(0, size);
+    }
+
+    String nextCursor = null;
+    if (hasNext) {
+      NotificationResponse last = items.get(items.size() - 1);
+      nextCursor = new NotificationCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+    return PageResponse.<NotificationResponse>builder()
+        .items(items)
+        .size(size)
+        .hasNext(hasNext)
+        .hasPrevious(after != null)
+        .nextCursor(nextCursor)
         .build();
+  }
 
-    notificationRepository.save(notification);
+  /*- Số thông báo chưa đọc cho badge: Redis, chỉ COUNT trên MySQL khi chưa có / Redis lỗi -*/
+  @Override
+  public long getUnreadCount(Long userId) {
+    NotificationInboxCache inboxCache = notificationInboxCache.getIfAvailable();
+    Long cached = inboxCache != null ? inboxCache.unreadCount(userId) : null;
+    if (cached != null) {
+      return cached;
+    }
+    long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+    if (inboxCache != null) {
+      inboxCache.storeUnreadCount(userId, count);
+    }
+    return count;
   }
 
   /**
-   * Lấy tất cả thông báo của một người dùng
-   * @param userId
-   * @return
+   * Đánh dấu một thông báo đã đọc; gọi lại với thông báo đã đọc thì không làm gì
+   * @throws AppException NOTIFICATION_NOT_FOUND khi không có hoặc không phải thông báo của user
    */
   @Override
-  public List<Notification> getUserNotifications(Long userId) {
-     return notificationRepository.findAllByUserIdOrderByCreatedAtDesc(userId);
+  @Transactional
+  public void markAsRead(Long userId, Long notificationId) {
+    int updated = notificationRepository.markAsRead(notificationId, userId);
+    NotificationResponse notification = notificationRepository.findResponseByIdAndUserId(notificationId, userId)
+        .orElseThrow(() -> new AppException(ErrorCode.NOTIFICATION_NOT_FOUND));
+    if (updated == 0) {
+      return;
+    }
+    afterCommit(inboxCache -> inboxCache.markedRead(userId, notification));
+  }
+
+  @Override
+  @Transactional
+  public int markAllAsRead(Long userId) {
+    int updated = notificationRepository.markAllAsRead(userId);
+    if (updated > 0) {
+      afterCommit(inboxCache -> inboxCache.markedAllRead(userId));
+    }
+    return updated;
+  }
+
+  private List<NotificationResponse> firstPage(Long userId, int limit) {
+    NotificationInboxCache inboxCache = notificationInboxCache.getIfAvailable();
+    if (inboxCache == null || limit > inboxCache.recentSize()) {
+      return notificationRepository.findInbox(userId, PageRequest.of(0, limit));
+    }
+    List<NotificationResponse> cached = inboxCache.recent(userId, limit);
+    if (cached != null) {
+      return cached;
+    }
+    // Nạp cả recentSize thông báo để các lần sau với size khác vẫn đọc từ Redis
+    List<NotificationResponse> recent = notificationRepository.findInbox(userId,
+        PageRequest.of(0, inboxCache.recentSize()));
+    inboxCache.storeRecent(userId, recent);
+    return recent.subList(0, Math.min(limit, recent.size()));
+  }
+
+  /*- Cập nhật Redis sau commit: rollback thì cache không đổi -*/
+  private void afterCommit(Consumer<NotificationInboxCache> action) {
+    NotificationInboxCache inboxCache = notificationInboxCache.getIfAvailable();
+    if (inboxCache == null) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.accept(inboxCache);
+      }
+    });
   }
 }
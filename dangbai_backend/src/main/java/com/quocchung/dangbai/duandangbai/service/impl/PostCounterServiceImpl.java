@@ -0,0 +1,149 @@
+package com.quocchung.dangbai.duandangbai.service.impl;
+
+import com.quocchung.dangbai.duandangbai.repository.PostRepository;
+import com.quocchung.dangbai.duandangbai.service.PostCounterService;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostCounterType;
+import com.quocchung.dangbai.duandangbai.utils.post.PostCounterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Slf4j
+public class PostCounterServiceImpl implements PostCounterService {
+
+  private final PostRepository postRepository;
+  private final PostCounterProperties properties;
+  private final TransactionTemplate requiresNew;
+  private final Counter repairedCounter;
+  private ScheduledExecutorService reconciler;
+
+  public PostCounterServiceImpl(PostRepository postRepository,
+      PostCounterProperties properties,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.postRepository = postRepository;
+    this.properties = properties;
+    // Sau commit transaction gốc đã kết thúc: UPDATE bộ đếm phải chạy trong transaction riêng
+    this.requiresNew = new TransactionTemplate(transactionManager);
+    this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.repairedCounter = Counter.builder("post_counters.reconciled")
+        .description("Số post có comment_count / reaction_count bị lệch đã được sửa")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.isReconcileEnabled()) {
+      return;
+    }
+    long intervalMillis = properties.getReconcileInterval().toMillis();
+    reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "post-counter-reconcile");
+      thread.setDaemon(true);
+      return thread;
+    });
+    reconciler.scheduleWithFixedDelay(this::reconcileSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    if (reconciler != null) {
+      reconciler.shutdownNow();
+    }
+  }
+
+  @Override
+  public void increment(PostCounterType type, Long postId, long delta) {
+    if (postId == null || delta == 0) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      requiresNew.executeWithoutResult(status -> apply(type, postId, delta));
+      return;
+    }
+    PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new PendingDeltas();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    pending.add(type, postId, delta);
+  }
+
+  @Override
+  public int reconcile() {
+    long maxId = postRepository.findMaxId();
+    int batchSize = properties.getReconcileBatchSize();
+    int repaired = 0;
+    for (long fromId = 0; fromId < maxId; fromId += batchSize) {
+      long from = fromId;
+      Integer updated = requiresNew.execute(status -> postRepository.reconcileCounters(from, from + batchSize));
+      repaired += updated != null ? updated : 0;
+    }
+    repairedCounter.increment(repaired);
+    if (repaired > 0) {
+      log.warn("Đối soát bộ đếm: đã sửa {} post bị lệch", repaired);
+    }
+    return repaired;
+  }
+
+  private void reconcileSafely() {
+    try {
+      reconcile();
+    } catch (RuntimeException e) {
+      log.error("Đối soát bộ đếm post thất bại", e);
+    }
+  }
+
+  private void apply(PostCounterType type, Long postId, long delta) {
+    switch (type) {
+      case COMMENTS -> postRepository.addCommentCount(postId, delta);
+      case REACTIONS -> postRepository.addReactionCount(postId, delta);
+      case VIEWS -> postRepository.addViewCount(postId, delta);
+    }
+  }
+
+  /*- Delta gom trong một transaction: nhiều comment cho cùng post chỉ tạo một UPDATE -*/
+  private class PendingDeltas implements TransactionSynchronization {
+
+    private final Map<PostCounterType, Map<Long, Long>> deltas = new EnumMap<>(PostCounterType.class);
+
+    void add(PostCounterType type, Long postId, long delta) {
+      deltas.computeIfAbsent(type, t -> new HashMap<>()).merge(postId, delta, Long::sum);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(PostCounterServiceImpl.this);
+      if (status != STATUS_COMMITTED) {
+        return;
+      }
+      try {
+        requiresNew.executeWithoutResult(tx -> deltas.forEach((type, byPost) ->
+            byPost.forEach((postId, delta) -> {
+              if (delta != 0) {
+                apply(type, postId, delta);
+              }
+            })));
+      } catch (RuntimeException e) {
+        // Dữ liệu chính đã commit, bộ đếm lệch sẽ được job đối soát sửa
+        log.error("Không cập nhật được bộ đếm post {}", deltas, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.quocchung.dangbai.duandangbai.service.impl;
+
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PostResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.service.PostDetailCache;
+import com.quocchung.dangbai.duandangbai.service.PostFeedStore;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostCursor;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostSortField;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Đọc feed bài đã duyệt (createdAt DESC) từ sorted set trên Redis, ghép nội dung từ PostDetailCache
+ * bằng một lần getAll: trạng thái ổn định không chạm DB.
+ * Trả null khi feed Redis không dùng được, caller đọc MySQL qua PostListReader (cursor tương thích).
+ */
+@Component
+@RequiredArgsConstructor
+public class PostFeedReader {
+
+  private final PostFeedStore postFeedStore;
+  private final PostDetailCache postDetailCache;
+  private final PostListReader postListReader;
+
+  /**
+   * @param categoryId null = feed toàn cục
+   * @param cursor nextCursor của trang trước (feed Redis hoặc MySQL), null / rỗng để lấy trang đầu
+   */
+  public PageResponse<PostResponse> readAfter(Long categoryId, String cursor, int size, boolean withTotal) {
+    if (size <= 0) {
+      throw new AppException(ErrorCode.INVALID_FORMAT);
+    }
+    size = Math.min(size, PostListReader.MAX_PAGE_SIZE);
+    PostCursor after = cursor != null && !cursor.isBlank()
+        ? PostCursor.decode(cursor, PostSortField.CREATED_AT, Sort.Direction.DESC)
+        : null;
+    if (after != null && after.getValue() == null) {
+      // Bài đã duyệt luôn có createdAt, cursor kiểu này chỉ MySQL hiểu
+      return null;
+    }
+
+    List<Long> ids = postFeedStore.readAfter(categoryId,
+        after != null ? (LocalDateTime) after.getValue() : null,
+        after != null ? after.getId() : null,
+        size + 1);
+    if (ids == null) {
+      return null;
+    }
+    boolean hasNext = ids.size() > size;
+    if (hasNext) {
+      ids = ids.subList(0, size);
+    }
+    List<PostResponse> items = hydrate(ids);
+
+    String nextCursor = null;
+    if (hasNext && !items.isEmpty()) {
+      PostResponse last = items.get(items.size() - 1);
+      nextCursor = new PostCursor(PostSortField.CREATED_AT.getKey(), Sort.Direction.DESC,
+          last.getCreatedAt(), last.getId()).encode();
+    }
+
+    PageResponse.PageResponseBuilder<PostResponse> page = PageResponse.<PostResponse>builder()
+        .items(items)
+        .size(size)
+        .hasNext(nextCursor != null)
+        .hasPrevious(after != null)
+        .nextCursor(nextCursor);
+    if (withTotal) {
+      long total = total(categoryId);
+      page.totalItems(total).totalPages((int) ((total + size - 1) / size));
+    }
+    return page.build();
+  }
+
+  /*- Phân trang theo số trang: ZREVRANGE + ZCARD -*/
+  public PageResponse<PostResponse> read(Long categoryId, int page, int size) {
+    if (page < 0 || size <= 0) {
+      throw new AppException(ErrorCode.INVALID_FORMAT);
+    }
+    size = Math.min(size, PostListReader.MAX_PAGE_SIZE);
+    List<Long> ids = postFeedStore.readRange(categoryId, (long) page * size, size);
+    Long total = ids != null ? postFeedStore.size(categoryId) : null;
+    if (total == null) {
+      return null;
+    }
+    return PageResponse.<PostResponse>builder()
+        .items(hydrate(ids))
+        .page(page)
+        .size(size)
+        .totalItems(total)
+        .totalPages((int) ((total + size - 1) / size))
+        .hasNext((long) (page + 1) * size < total)
+        .hasPrevious(page > 0)
+        .build();
+  }
+
+  /*- Giữ thứ tự của feed; bỏ bài không còn tồn tại / không còn APPROVED (feed chưa kịp cập nhật) -*/
+  private List<PostResponse> hydrate(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, PostResponse> posts = postDetailCache.getAll(ids, postListReader::readByIds);
+    return ids.stream()
+        .map(posts::get)
+        .filter(Objects::nonNull)
+        .filter(post -> post.getStatus() == PostStatus.APPROVED)
+        .toList();
+  }
+
+  private long total(Long categoryId) {
+    Long size = postFeedStore.size(categoryId);
+    return size != null ? size : postListReader.count(null, categoryId, PostStatus.APPROVED);
+  }
+}
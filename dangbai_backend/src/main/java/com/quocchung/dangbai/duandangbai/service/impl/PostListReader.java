@@ -0,0 +1,207 @@
+package com.quocchung.dangbai.duandangbai.service.impl;
+
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PostResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.model.PostMedia;
+import com.quocchung.dangbai.duandangbai.repository.PostMediaRepository;
+import com.quocchung.dangbai.duandangbai.repository.PostRepository;
+import com.quocchung.dangbai.duandangbai.repository.projection.PostListRow;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostCursor;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostSortField;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Đọc danh sách bài viết với số câu SQL cố định, không phụ thuộc kích thước trang:
+ * 1 câu lấy các dòng (projection), tối đa 1 câu COUNT, 1 câu IN lấy media của cả trang.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostListReader {
+
+  // Giới hạn số bài mỗi trang cho mọi danh sách / feed, size lớn hơn được hạ xuống (như hộp thư thông báo)
+  static final int MAX_PAGE_SIZE = 100;
+
+  private final PostRepository postRepository;
+  private final PostMediaRepository postMediaRepository;
+
+  @Transactional(readOnly = true)
+  public PageResponse<PostResponse> read(Long authorId, PostStatus status, Pageable pageable) {
+    return read(authorId, null, status, pageable);
+  }
+
+  @Transactional(readOnly = true)
+  public PageResponse<PostResponse> read(Long authorId, Long categoryId, PostStatus status, Pageable pageable) {
+    for (Sort.Order order : pageable.getSort()) {
+      sortField(order);
+    }
+    if (pageable.isPaged() && pageable.getPageSize() > MAX_PAGE_SIZE) {
+      pageable = PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+    }
+
+    Page<PostListRow> rows = postRepository.findListRows(authorId, categoryId, status, pageable);
+    Map<Long, List<PostResponse.MediaResponse>> mediaByPost = loadMedia(rows.getContent());
+
+    List<PostResponse> items = rows.getContent().stream()
+        .map(row -> toResponse(row, mediaByPost.getOrDefault(row.getId(), Collections.emptyList())))
+        .toList();
+
+    return PageResponse.<PostResponse>builder()
+        .items(items)
+        .page(rows.getNumber())
+        .size(rows.getSize())
+        .totalItems(rows.getTotalElements())
+        .totalPages(rows.getTotalPages())
+        .hasNext(rows.hasNext())
+        .hasPrevious(rows.hasPrevious())
+        .build();
+  }
+
+  /**
+   * Keyset pagination theo (order.property, id): 1 câu lấy size + 1 dòng (dòng thừa chỉ để biết còn trang sau),
+   * 1 câu IN lấy media, COUNT chỉ khi withTotal
+   * @param cursor nextCursor của trang trước, null / rỗng để lấy trang đầu
+   */
+  @Transactional(readOnly = true)
+  public PageResponse<PostResponse> readAfter(Long authorId, PostStatus status, Sort.Order order,
+      String cursor, int size, boolean withTotal) {
+    return readAfter(authorId, null, status, order, cursor, size, withTotal);
+  }
+
+  @Transactional(readOnly = true)
+  public PageResponse<PostResponse> readAfter(Long authorId, Long categoryId, PostStatus status, Sort.Order order,
+      String cursor, int size, boolean withTotal) {
+    PostSortField field = sortField(order);
+    if (size <= 0) {
+      throw new AppException(ErrorCode.INVALID_FORMAT);
+    }
+    size = Math.min(size, MAX_PAGE_SIZE);
+    PostCursor after = cursor != null && !cursor.isBlank()
+        ? PostCursor.decode(cursor, field, order.getDirection())
+        : null;
+
+    List<PostListRow> rows = postRepository.findListRowsAfter(authorId, categoryId, status, order, after, size + 1);
+    boolean hasNext = rows.size() > size;
+    if (hasNext) {
+      rows = rows.subList(0, size);
+    }
+    Map<Long, List<PostResponse.MediaResponse>> mediaByPost = loadMedia(rows);
+
+    List<PostResponse> items = rows.stream()
+        .map(row -> toResponse(row, mediaByPost.getOrDefault(row.getId(), Collections.emptyList())))
+        .toList();
+
+    String nextCursor = null;
+    if (hasNext) {
+      PostListRow last = rows.get(rows.size() - 1);
+      nextCursor = new PostCursor(field.getKey(), order.getDirection(), field.valueOf(last), last.getId()).encode();
+    }
+
+    PageResponse.PageResponseBuilder<PostResponse> page = PageResponse.<PostResponse>builder()
+        .items(items)
+        .size(size)
+        .hasNext(hasNext)
+        .hasPrevious(after != null)
+        .nextCursor(nextCursor);
+    if (withTotal) {
+      long total = postRepository.countListRows(authorId, categoryId, status);
+      page.totalItems(total).totalPages((int) ((total + size - 1) / size));
+    }
+    return page.build();
+  }
+
+  @Transactional(readOnly = true)
+  public long count(Long authorId, Long categoryId, PostStatus status) {
+    return postRepository.countListRows(authorId, categoryId, status);
+  }
+
+  /**
+   * Nạp theo danh sách id: 1 câu lấy các dòng + 1 câu IN lấy media
+   * @return map id -> bài viết, id không tồn tại thì không có trong map
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, PostResponse> readByIds(Collection<Long> ids) {
+    List<PostListRow> rows = postRepository.findListRowsByIds(ids);
+    Map<Long, List<PostResponse.MediaResponse>> mediaByPost = loadMedia(rows);
+
+    Map<Long, PostResponse> result = new HashMap<>();
+    for (PostListRow row : rows) {
+      result.put(row.getId(), toResponse(row, mediaByPost.getOrDefault(row.getId(), Collections.emptyList())));
+    }
+    return result;
+  }
+
+  private static PostSortField sortField(Sort.Order order) {
+    return PostSortField.fromKey(order.getProperty())
+        .orElseThrow(() -> new AppException(ErrorCode.INVALID_SORT_FIELD));
+  }
+
+  /*- Gom media theo postId bằng một câu IN (bỏ qua khi trang rỗng) -*/
+  private Map<Long, List<PostResponse.MediaResponse>> loadMedia(List<PostListRow> rows) {
+    if (rows.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<Long> postIds = rows.stream().map(PostListRow::getId).toList();
+
+    Map<Long, List<PostResponse.MediaResponse>> result = new LinkedHashMap<>();
+    for (PostMedia media : postMediaRepository.findByPostIdIn(postIds)) {
+      // getPost() là proxy LAZY, getId() không kích hoạt query
+      result.computeIfAbsent(media.getPost().getId(), id -> new ArrayList<>())
+          .add(PostResponse.MediaResponse.builder()
+              .id(media.getId())
+              .type(media.getType() != null ? media.getType().name() : null)
+              .url(media.getUrl())
+              .thumbnailUrl(media.getThumbnailUrl())
+              .width(media.getWidth())
+              .height(media.getHeight())
+              .position(media.getPosition())
+              .build());
+    }
+    return result;
+  }
+
+  private static PostResponse toResponse(PostListRow row, List<PostResponse.MediaResponse> media) {
+    return PostResponse.builder()
+        .id(row.getId())
+        .title(row.getTitle())
+        .description(row.getDescription())
+        .price(row.getPrice())
+        .location(row.getLocation())
+        .status(row.getStatus())
+        .rejectedReason(row.getRejectedReason())
+        .createdAt(row.getCreatedAt())
+        .updatedAt(row.getUpdatedAt())
+        .approvedAt(row.getApprovedAt())
+        .author(PostResponse.AuthorResponse.builder()
+            .id(row.getAuthorId())
+            .username(row.getAuthorUsername())
+            .email(row.getAuthorEmail())
+            .build())
+        .category(row.getCategoryId() != null
+            ? PostResponse.CategoryResponse.builder()
+                .id(row.getCategoryId())
+                .name(row.getCategoryName())
+                .build()
+            : null)
+        .media(media)
+        .totalViews(row.getTotalViews())
+        .totalComments(row.getTotalComments())
+        .totalReactions(row.getTotalReactions())
+        .build();
+  }
+}
@@ -19,9 +19,13 @@ import com.quocchung.dangbai.duandangbai.repository.PostRepository;
 import com.quocchung.dangbai.duandangbai.repository.UserRepository;
 import com.quocchung.dangbai.duandangbai.service.IPostService;
 import com.quocchung.dangbai.duandangbai.service.NotificationService;
+import com.quocchung.dangbai.duandangbai.service.PostDetailCache;
+import com.quocchung.dangbai.duandangbai.service.PostFeedStore;
+import com.quocchung.dangbai.duandangbai.service.PostViewTracker;
 import com.quocchung.dangbai.duandangbai.service.UploadFileService;
 import com.quocchung.dangbai.duandangbai.utils.enums.MediaType;
 import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostSortCatalog;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,12 +33,13 @@ import java.util.List;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
@@ -42,15 +47,26 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class PostServiceImpl implements IPostService {
 
+  private static final Sort.Order NEWEST_FIRST = Sort.Order.desc("createdAt");
+
   private final UserRepository userRepository;
   private final CategoryRepository categoryRepository;
   private final PostRepository postRepository;
   private final PostMediaRepository postMediaRepository;
   private final NotificationService notificationService;
   private final UploadFileService uploadFileService;
+  private final PostListReader postListReader;
+  private final PostViewTracker postViewTracker;
+  private final PostSortCatalog postSortCatalog;
+  private final PostDetailCache postDetailCache;
+  private final PostFeedStore postFeedStore;
+  private final PostFeedReader postFeedReader;
+  private final PlatformTransactionManager transactionManager;
 
 
+  /*- Một transaction: post, media và outbox thông báo cùng commit hoặc cùng rollback -*/
   @Override
+  @Transactional
   public PostResponse createPost(CreatePostRequest request, List<MultipartFile> images,
       Long userId) {
 
@@ -126,9 +142,10 @@ public class PostServiceImpl implements IPostService {
    * @return
    */
   @Override
+  @Transactional
   public PostResponse approvePost(ApprovePostRequest request,Long approveId) {
 
-    Post post = postRepository.findById(request.getPostId())
+    Post post = postRepository.findDetailById(request.getPostId())
         .orElseThrow(() -> new AppException(ErrorCode.POST_NOT_FOUND));
 
     // 3. Cập nhật trạng thái
@@ -145,8 +162,19 @@ public class PostServiceImpl implements IPostService {
           approveId, post.getId(), request.getRejectedReason());
     }
     post = postRepository.save(post);
-    // TODO: Gửi thông báo cho tác giả
-    notificationService.notifyPostApproved(post);
+    postDetailCache.evict(post.getId());
+    // getId() trên proxy category không kích hoạt query
+    Long categoryId = post.getCategory() != null ? post.getCategory().getId() : null;
+    if (post.getStatus() == PostStatus.APPROVED) {
+      postFeedStore.postApproved(post.getId(), categoryId, post.getCreatedAt());
+    } else {
+      postFeedStore.postRemoved(post.getId(), categoryId);
+    }
+    if (post.getStatus() == PostStatus.APPROVED) {
+      notificationService.notifyPostApproved(post);
+    } else {
+      notificationService.notifyPostRejected(post, post.getRejectedReason());
+    }
     return mapToPostResponse(post);
   }
 
@@ -167,34 +195,23 @@ public class PostServiceImpl implements IPostService {
       }
     }
 
-    Sort sort = "ASC".equalsIgnoreCase(request.getSortDirection())
-        ? Sort.by(request.getSortBy()).ascending()
-        : Sort.by(request.getSortBy()).descending();
-
-    Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), sort);
+    // Chỉ nhận kiểu sắp xếp có index hỗ trợ, không ghép thẳng sortBy của client vào ORDER BY
+    Sort.Order order = postSortCatalog.resolve(request.getSortBy(), request.getSortDirection());
 
-    Page<Post> postPage = status != null
-        ? postRepository.findByStatus(status, pageable)
-        : postRepository.findAll(pageable);
+    if (request.getCursor() != null) {
+      return postListReader.readAfter(null, status, order,
+          request.getCursor(), request.getSize(), request.isWithTotal());
+    }
 
-    List<PostResponse> content = postPage.getContent().stream()
-        .map(this::mapToPostResponse)
-        .collect(Collectors.toList());
+    Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), Sort.by(order));
 
-    return PageResponse.<PostResponse>builder()
-        .items(content)
-        .page(postPage.getNumber())
-        .size(postPage.getSize())
-        .totalItems(postPage.getTotalElements())
-        .totalPages(postPage.getTotalPages())
-        .hasNext(postPage.hasNext())
-        .hasPrevious(postPage.hasPrevious())
-        .build();
+    return postListReader.read(null, status, pageable);
   }
 
+  /*- Không mở transaction ở đây: đọc từ feed Redis không cần connection DB, PostListReader tự mở khi cần -*/
   @Override
-  @Transactional(readOnly = true)
-  public PageResponse<PostResponse> getApprovedPosts(Long userId, String statusStr, Integer page, Integer size) {
+  public PageResponse<PostResponse> getApprovedPosts(Long userId, Long categoryId, String statusStr, Integer page,
+      Integer size, String cursor, boolean withTotal) {
     PostStatus status = null;
     if (statusStr != null && !statusStr.isEmpty()) {
       try {
@@ -204,45 +221,53 @@ public class PostServiceImpl implements IPostService {
       }
     }
 
-    Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-
-    Page<Post> postPage;
+    if (status == PostStatus.APPROVED && userId == null) {
+      PageResponse<PostResponse> feed = cursor != null
+          ? postFeedReader.readAfter(categoryId, cursor, size, withTotal)
+          : postFeedReader.read(categoryId, page, size);
+      if (feed != null) {
+        return feed;
+      }
+    }
 
-    if (userId != null && status != null) {
-      postPage = postRepository.findByAuthorIdAndStatus(userId, status, pageable);
-    } else if (userId != null) {
-      postPage = postRepository.findByAuthorId(userId, pageable);
-    } else if (status != null) {
-      postPage = postRepository.findByStatus(status, pageable);
-    } else {
-      postPage = postRepository.findAll(pageable);
+    if (cursor != null) {
+      return postListReader.readAfter(userId, categoryId, status, NEWEST_FIRST, cursor, size, withTotal);
     }
-    List<PostResponse> content = postPage.getContent().stream()
-        .map(this::mapToPostResponse)
-        .collect(Collectors.toList());
-
-    return PageResponse.<PostResponse>builder()
-        .items(content)
-        .page(postPage.getNumber())
-        .size(postPage.getSize())
-        .totalItems(postPage.getTotalElements())
-        .totalPages(postPage.getTotalPages())
-        .hasNext(postPage.hasNext())
-        .hasPrevious(postPage.hasPrevious())
-        .build();
+
+    Pageable pageable = PageRequest.of(page, size, Sort.by(NEWEST_FIRST));
+
+    return postListReader.read(userId, categoryId, status, pageable);
+  }
+
+  @Override
+  public boolean rebuildFeed() {
+    return postFeedStore.requestRebuild();
   }
 
   @Override
-  @Transactional(readOnly = true)
   public PostResponse getPostById(Long postId) {
-    Post post = postRepository.findById(postId)
-        .orElseThrow(() -> new AppException(ErrorCode.NOT_FOUND));
+    // Bản trong cache dùng chung giữa các request nên copy trước khi cộng phần số liệu động
+    PostResponse cached = postDetailCache.get(postId, this::loadPostDetail);
+    long totalViews = cached.getTotalViews() != null ? cached.getTotalViews() : 0L;
+
+    // Cộng lượt xem còn nằm trong bộ nhớ node này để người xem thấy số mới nhất
+    return cached.toBuilder()
+        .totalViews(totalViews + postViewTracker.pendingViews(postId))
+        .uniqueViewers(postViewTracker.uniqueViewers(postId))
+        .build();
+  }
 
-    return mapToPostResponse(post);
+  /*- Đọc chi tiết từ DB khi cache miss; transaction chỉ mở ở đây để cache hit không chiếm connection -*/
+  private PostResponse loadPostDetail(Long postId) {
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    return readOnly.execute(status -> mapToPostResponse(postRepository.findDetailById(postId)
+        .orElseThrow(() -> new AppException(ErrorCode.NOT_FOUND))));
   }
 
     @Override
-    public PageResponse<PostResponse> getPostsByStatus(Long userId, String statusStr, Integer page, Integer size) {
+    public PageResponse<PostResponse> getPostsByStatus(Long userId, String statusStr, Integer page, Integer size,
+        String cursor, boolean withTotal) {
         PostStatus status = null;
         if (statusStr != null && !statusStr.isEmpty()) {
             try {
@@ -251,24 +276,12 @@ public class PostServiceImpl implements IPostService {
                 throw new AppException(ErrorCode.INVALID_FORMAT);
             }
         }
+        if (cursor != null) {
+            return postListReader.readAfter(userId, status, NEWEST_FIRST, cursor, size, withTotal);
+        }
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Post> postPage = null;
-        if (userId != null && status != null) {
-            postPage = postRepository.findByUserAndStatus(userId, status, pageable);
-        }
-        List<PostResponse> content = postPage.getContent().stream()
-                .map(this::mapToPostResponse)
-                .collect(Collectors.toList());
-        return PageResponse.<PostResponse>builder()
-                .items(content)
-                .page(postPage.getNumber())
-                .size(postPage.getSize())
-                .totalItems(postPage.getTotalElements())
-                .totalPages(postPage.getTotalPages())
-                .hasNext(postPage.hasNext())
-                .hasPrevious(postPage.hasPrevious())
-                .build();
+        return postListReader.read(userId, status, pageable);
     }
 
 
@@ -320,8 +333,9 @@ public class PostServiceImpl implements IPostService {
                 .collect(Collectors.toList())
                 : Collections.emptyList()
         )
-        .totalViews(post.getNotifications() != null ? (long) post.getNotifications().size() : 0L)
-        .totalComments(post.getComments() != null ? (long) post.getComments().size() : 0L)
+        .totalViews(post.getViewCount())
+        .totalComments(post.getCommentCount())
+        .totalReactions(post.getReactionCount())
         .build();
   }
 }
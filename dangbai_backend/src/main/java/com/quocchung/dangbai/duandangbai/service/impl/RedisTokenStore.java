@@ -0,0 +1,340 @@
+package com.quocchung.dangbai.duandangbai.service.impl;
+
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.exception.ExternalServiceException;
+import com.quocchung.dangbai.duandangbai.service.AccessTokenNearCache;
+import com.quocchung.dangbai.duandangbai.service.TokenStore;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import com.quocchung.dangbai.duandangbai.utils.token.TokenFingerprint;
+import com.quocchung.dangbai.duandangbai.utils.token.TokenStorageProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lưu trữ token trong Redis.
+ * Định dạng hiện tại: key = prefix ngắn + fingerprint 22 ký tự của token, value = userId dạng số thập phân
+ * (Redis lưu nội bộ dưới dạng integer), set user -> fingerprint.
+ * Định dạng cũ (prefix dài + JWT đầy đủ, value JSON) vẫn được đọc/xóa cho tới khi hết hạn
+ * nếu bật token-storage.legacy-read-enabled.
+ */
+@Service
+@ConditionalOnProperty(name = "token-store.type", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class RedisTokenStore implements TokenStore {
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final AccessTokenNearCache accessTokenNearCache;
+  private final TokenStorageProperties tokenStorageProperties;
+  private final CircuitBreaker redisCircuitBreaker;
+
+  // Prefix cho các keys trong Redis
+  private static final String ACCESS_TOKEN_PREFIX = "at:";
+  private static final String REFRESH_TOKEN_PREFIX = "rt:";
+  private static final String USER_TOKENS_PREFIX = "ut:";
+
+  // Prefix định dạng cũ, chỉ dùng để đọc/xóa trong thời gian chuyển đổi
+  private static final String LEGACY_ACCESS_TOKEN_PREFIX = "access_token:";
+  private static final String LEGACY_REFRESH_TOKEN_PREFIX = "refresh_token:";
+  private static final String LEGACY_USER_TOKENS_PREFIX = "user_tokens:";
+
+  /**
+   * Ghi access token, refresh token và mapping user -> tokens trong 1 round trip, atomic phía Redis.
+   * KEYS: access key, refresh key, user tokens key
+   * ARGV: userId, access TTL, refresh TTL, access fingerprint, refresh fingerprint
+   */
+  private static final RedisScript<Long> SAVE_USER_TOKENS_SCRIPT = RedisScript.of(
+      "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) "
+      + "redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[3]) "
+      + "redis.call('SADD', KEYS[3], ARGV[4], ARGV[5]) "
+      + "redis.call('EXPIRE', KEYS[3], ARGV[3]) "
+      + "return 1",
+      Long.class);
+
+  /**
+   * Lưu Access Token vào Redis với TTL tự động
+   * @param token Access token
+   * @param userId User ID
+   * @param expirationInSeconds Thời gian hết hạn (giây)
+   */
+  @Override
+  public void saveAccessToken(String token, Long userId, long expirationInSeconds) {
+    String key = ACCESS_TOKEN_PREFIX + TokenFingerprint.of(token);
+
+    try {
+      stringRedisTemplate.opsForValue().set(key, userId.toString(), expirationInSeconds, TimeUnit.SECONDS);
+      log.debug("Saved access token for user {} with TTL {} seconds", userId, expirationInSeconds);
+    } catch (Exception e) {
+      log.error("Error saving access token to Redis: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Lưu Refresh Token vào Redis với TTL tự động
+   * @param token Refresh token
+   * @param userId User ID
+   * @param expirationInSeconds Thời gian hết hạn (giây)
+   */
+  @Override
+  public void saveRefreshToken(String token, Long userId, long expirationInSeconds) {
+    String key = REFRESH_TOKEN_PREFIX + TokenFingerprint.of(token);
+
+    try {
+      stringRedisTemplate.opsForValue().set(key, userId.toString(), expirationInSeconds, TimeUnit.SECONDS);
+      log.debug("Saved refresh token for user {} with TTL {} seconds", userId, expirationInSeconds);
+    } catch (Exception e) {
+      log.error("Error saving refresh token to Redis: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Lưu cả Access Token và Refresh Token cho user
+   * Redis sẽ tự động xóa khi hết hạn (TTL)
+   * Toàn bộ SET/SADD/EXPIRE chạy trong một Lua script: 1 round trip thay vì 5
+   */
+  @Override
+  public void saveUserTokens(Long userId, String accessToken, String refreshToken,
+      long accessTokenTTL, long refreshTokenTTL) {
+    String accessFingerprint = TokenFingerprint.of(accessToken);
+    String refreshFingerprint = TokenFingerprint.of(refreshToken);
+    List<String> keys = List.of(
+        ACCESS_TOKEN_PREFIX + accessFingerprint,
+        REFRESH_TOKEN_PREFIX + refreshFingerprint,
+        USER_TOKENS_PREFIX + userId
+    );
+    try {
+      stringRedisTemplate.execute(SAVE_USER_TOKENS_SCRIPT, keys,
+          userId.toString(), String.valueOf(accessTokenTTL), String.valueOf(refreshTokenTTL),
+          accessFingerprint, refreshFingerprint);
+      log.info("Saved tokens for user {}", userId);
+    } catch (Exception e) {
+      log.error("Error saving user tokens: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Kiểm tra Access Token có tồn tại trong Redis không
+   * @param token Access token
+   * @return true nếu token hợp lệ (tồn tại trong Redis)
+   */
+  @Override
+  public boolean isAccessTokenValid(String token) {
+    try {
+      return isAccessTokenValid(token, null, null);
+    } catch (ExternalServiceException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Kiểm tra Access Token, ưu tiên near-cache trên node, chỉ gọi Redis khi near-cache miss
+   * Lời gọi Redis đi qua circuit breaker: khi Redis lỗi / quá timeout / breaker đang mở thì ném
+   * ExternalServiceException(TOKEN_STORE_UNAVAILABLE) để filter áp dụng chế độ degrade, thay vì trả false
+   * @param token Access token
+   * @param userId User ID trong token (để xóa theo user khi logout all)
+   * @param expiration Thời điểm hết hạn của token (giới hạn thời gian sống trong near-cache)
+   * @return true nếu token hợp lệ
+   */
+  @Override
+  public boolean isAccessTokenValid(String token, Long userId, Date expiration) {
+    String fingerprint = TokenFingerprint.of(token);
+    if (accessTokenNearCache.isKnownValid(fingerprint)) {
+      return true;
+    }
+    if (!redisCircuitBreaker.tryAcquirePermission()) {
+      throw new ExternalServiceException(ErrorCode.TOKEN_STORE_UNAVAILABLE, "Redis");
+    }
+    boolean valid;
+    try {
+      valid = Boolean.TRUE.equals(stringRedisTemplate.hasKey(ACCESS_TOKEN_PREFIX + fingerprint))
+              || (tokenStorageProperties.isLegacyReadEnabled()
+                  && Boolean.TRUE.equals(redisTemplate.hasKey(LEGACY_ACCESS_TOKEN_PREFIX + token)));
+      redisCircuitBreaker.onSuccess();
+    } catch (Exception e) {
+      redisCircuitBreaker.onError();
+      log.error("Error checking access token: {}", e.getMessage());
+      throw new ExternalServiceException(ErrorCode.TOKEN_STORE_UNAVAILABLE, "Error checking access token", e);
+    }
+    if (valid) {
+      accessTokenNearCache.markValid(fingerprint, userId, expiration);
+    }
+    return valid;
+  }
+
+  /**
+   * Kiểm tra Refresh Token có tồn tại trong Redis không
+   * @param token Refresh token
+   * @return true nếu token hợp lệ
+   */
+  @Override
+  public boolean isRefreshTokenValid(String token) {
+    try {
+      return Boolean.TRUE.equals(stringRedisTemplate.hasKey(REFRESH_TOKEN_PREFIX + TokenFingerprint.of(token)))
+             || (tokenStorageProperties.isLegacyReadEnabled()
+                 && Boolean.TRUE.equals(redisTemplate.hasKey(LEGACY_REFRESH_TOKEN_PREFIX + token)));
+    } catch (Exception e) {
+      log.error("Error checking refresh token: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Lấy User ID từ Access Token
+   * @param token Access token
+   * @return User ID hoặc null nếu không tìm thấy
+   */
+  @Override
+  public Long getUserIdFromAccessToken(String token) {
+    try {
+      return readUserId(ACCESS_TOKEN_PREFIX, LEGACY_ACCESS_TOKEN_PREFIX, token);
+    } catch (Exception e) {
+      log.error("Error getting user ID from access token: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Lấy User ID từ Refresh Token
+   */
+  @Override
+  public Long getUserIdFromRefreshToken(String token) {
+    try {
+      return readUserId(REFRESH_TOKEN_PREFIX, LEGACY_REFRESH_TOKEN_PREFIX, token);
+    } catch (Exception e) {
+      log.error("Error getting user ID from refresh token: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Xóa Access Token khỏi Redis (Logout)
+   * @param token Access token
+   */
+  @Override
+  public void deleteAccessToken(String token) {
+    String fingerprint = TokenFingerprint.of(token);
+    try {
+      stringRedisTemplate.unlink(List.of(ACCESS_TOKEN_PREFIX + fingerprint, LEGACY_ACCESS_TOKEN_PREFIX + token));
+      log.debug("Deleted access token from Redis");
+      // Xóa khỏi near-cache của mọi node
+      accessTokenNearCache.revokeToken(fingerprint);
+    } catch (Exception e) {
+      log.error("Error deleting access token: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Xóa Refresh Token khỏi Redis
+   * @param token Refresh token
+   */
+  @Override
+  public void deleteRefreshToken(String token) {
+    try {
+      stringRedisTemplate.unlink(List.of(
+          REFRESH_TOKEN_PREFIX + TokenFingerprint.of(token), LEGACY_REFRESH_TOKEN_PREFIX + token));
+      log.debug("Deleted refresh token from Redis");
+    } catch (Exception e) {
+      log.error("Error deleting refresh token: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Xóa tất cả tokens của user (Logout all devices)
+   * Đọc danh sách token (SMEMBERS) rồi UNLINK toàn bộ key trong một lệnh multi-key
+   * @param userId User ID
+   */
+  @Override
+  public void deleteAllUserTokens(Long userId) {
+    String userKey = USER_TOKENS_PREFIX + userId;
+    String legacyUserKey = LEGACY_USER_TOKENS_PREFIX + userId;
+    try {
+      List<String> keys = new ArrayList<>();
+
+      // Lấy tất cả fingerprint của user
+      var fingerprints = stringRedisTemplate.opsForSet().members(userKey);
+      if (fingerprints != null) {
+        for (String fingerprint : fingerprints) {
+          keys.add(ACCESS_TOKEN_PREFIX + fingerprint);
+          keys.add(REFRESH_TOKEN_PREFIX + fingerprint);
+        }
+      }
+
+      // Token định dạng cũ (JWT đầy đủ) nếu vẫn còn
+      if (tokenStorageProperties.isLegacyReadEnabled()) {
+        var legacyTokens = redisTemplate.opsForSet().members(legacyUserKey);
+        if (legacyTokens != null) {
+          for (Object token : legacyTokens) {
+            String tokenStr = token.toString();
+            keys.add(LEGACY_ACCESS_TOKEN_PREFIX + tokenStr);
+            keys.add(LEGACY_REFRESH_TOKEN_PREFIX + tokenStr);
+          }
+        }
+      }
+
+      // Xóa luôn user tokens mapping trong cùng lệnh
+      keys.add(userKey);
+      keys.add(legacyUserKey);
+
+      stringRedisTemplate.unlink(keys);
+      accessTokenNearCache.revokeUser(userId);
+      log.info("Deleted all tokens for user {} ({} keys)", userId, keys.size());
+    } catch (Exception e) {
+      log.error("Error deleting all user tokens: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Lấy thời gian còn lại của token (TTL)
+   * @param token Access token
+   * @return Thời gian còn lại (giây), -2 nếu không tồn tại, -1 nếu không có TTL
+   */
+  @Override
+  public Long getTokenTTL(String token) {
+    try {
+      Long ttl = stringRedisTemplate.getExpire(ACCESS_TOKEN_PREFIX + TokenFingerprint.of(token), TimeUnit.SECONDS);
+      if ((ttl == null || ttl < 0) && tokenStorageProperties.isLegacyReadEnabled()) {
+        Long legacyTtl = redisTemplate.getExpire(LEGACY_ACCESS_TOKEN_PREFIX + token, TimeUnit.SECONDS);
+        if (legacyTtl != null && legacyTtl >= 0) {
+          return legacyTtl;
+        }
+      }
+      return ttl;
+    } catch (Exception e) {
+      log.error("Error getting token TTL: {}", e.getMessage());
+      return -1L;
+    }
+  }
+
+  /**
+   * Kiểm tra và log thông tin token
+   */
+  public void logTokenInfo(String token) {
+    Long ttl = getTokenTTL(token);
+    Long userId = getUserIdFromAccessToken(token);
+    log.info("Token info - User: {}, TTL: {} seconds", userId, ttl);
+  }
+
+  /*- Đọc userId theo định dạng mới, fallback sang định dạng cũ -*/
+  private Long readUserId(String prefix, String legacyPrefix, String token) {
+    String userId = stringRedisTemplate.opsForValue().get(prefix + TokenFingerprint.of(token));
+    if (userId != null) {
+      return Long.valueOf(userId);
+    }
+    if (tokenStorageProperties.isLegacyReadEnabled()) {
+      Object legacyUserId = redisTemplate.opsForValue().get(legacyPrefix + token);
+      return legacyUserId != null ? Long.valueOf(legacyUserId.toString()) : null;
+    }
+    return null;
+  }
+}
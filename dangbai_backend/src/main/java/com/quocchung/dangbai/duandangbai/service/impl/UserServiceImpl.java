@@ -1,11 +1,14 @@
 package com.quocchung.dangbai.duandangbai.service.impl;
 
 import com.quocchung.dangbai.duandangbai.dtos.response.UserResponse;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import com.quocchung.dangbai.duandangbai.exception.UserException;
 import com.quocchung.dangbai.duandangbai.model.User;
 import com.quocchung.dangbai.duandangbai.repository.UserRepository;
 import com.quocchung.dangbai.duandangbai.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -13,9 +16,12 @@ public class UserServiceImpl implements UserService {
 
   private final UserRepository userRepository;
 
+  /*- findById thay cho getById: getById trả proxy lazy, map ngoài transaction sẽ lỗi khi tắt open-in-view -*/
   @Override
+  @Transactional(readOnly = true)
   public UserResponse getUserById(Long userId) {
-    return  mapToResponse(userRepository.getById(userId));
+    return mapToResponse(userRepository.findById(userId)
+        .orElseThrow(() -> new UserException(ErrorCode.USER_NOT_FOUND)));
   }
 
   public UserResponse mapToResponse(User user) {
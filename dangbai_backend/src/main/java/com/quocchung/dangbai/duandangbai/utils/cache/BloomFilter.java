@@ -0,0 +1,80 @@
+package com.quocchung.dangbai.duandangbai.utils.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter cho chuỗi, an toàn khi đọc/ghi đồng thời (bit set qua CAS).
+ * mightContain = false thì chắc chắn chưa put; true thì cần kiểm tra lại ở tập chính xác.
+ * Không hỗ trợ xóa: khi cần bỏ phần tử thì tạo filter mới từ tập chính xác.
+ */
+public final class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+
+  private BloomFilter(long bitCount, int hashCount) {
+    this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+    this.bitCount = words.length() * 64L;
+    this.hashCount = hashCount;
+  }
+
+  /**
+   * @param expectedInsertions số phần tử dự kiến
+   * @param falsePositiveRate tỉ lệ dương tính giả mong muốn (0, 1)
+   */
+  public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(1, expectedInsertions);
+    double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+    long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    return new BloomFilter(Math.max(64, bits), hashes);
+  }
+
+  public void put(String value) {
+    long hash1 = hash(value);
+    long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+    for (int i = 0; i < hashCount; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long word;
+      do {
+        word = words.get(index);
+        if ((word & mask) != 0) {
+          break;
+        }
+      } while (!words.compareAndSet(index, word, word | mask));
+    }
+  }
+
+  public boolean mightContain(String value) {
+    long hash1 = hash(value);
+    long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+    for (int i = 0; i < hashCount; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*- FNV-1a 64 bit rồi trộn lại để phân bố đều -*/
+  private static long hash(String value) {
+    long hash = 0xCBF29CE484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001B3L;
+    }
+    return mix(hash);
+  }
+
+  /*- Bước finalizer của SplitMix64 -*/
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,30 @@
+package com.quocchung.dangbai.duandangbai.utils.cache;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cấu hình các cache in-process (kích thước tối đa + thời gian sống)
+ */
+@Component
+@ConfigurationProperties(prefix = "local-cache")
+@Data
+public class LocalCacheProperties {
+
+  private Spec userDetails = new Spec(10_000, Duration.ofMinutes(10));
+
+  // ttl = độ trễ tối đa để logout trên node khác có hiệu lực
+  private Spec accessToken = new Spec(100_000, Duration.ofSeconds(30));
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Spec {
+    private long maxSize;
+    private Duration ttl;
+  }
+}
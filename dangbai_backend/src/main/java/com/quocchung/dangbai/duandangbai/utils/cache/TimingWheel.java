@@ -0,0 +1,120 @@
+package com.quocchung.dangbai.duandangbai.utils.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: lên lịch hết hạn O(1), không phải quét toàn bộ phần tử.
+ * - Level 0 có wheelSize slot, mỗi slot = 1 tick; level l mỗi slot = wheelSize^l tick
+ * - Khi kim level l qua một slot, các phần tử trong slot đó được hạ xuống level thấp hơn (cascade)
+ * - Phần tử ở slot hiện tại của level 0 là phần tử đã đến hạn
+ * Dùng một lock chung: chỉ thread ghi (schedule) và thread tick truy cập, thread đọc không đụng tới wheel.
+ */
+public final class TimingWheel<T> {
+
+  private final long tickMillis;
+  private final int bits;
+  private final int mask;
+  private final List<List<List<Timeout<T>>>> levels = new ArrayList<>();
+  private long currentTick;
+  private int size;
+
+  /**
+   * @param tickMillis độ phân giải thời gian
+   * @param wheelSize số slot mỗi level (làm tròn lên lũy thừa của 2)
+   * @param levelCount số level, phạm vi lên lịch = tickMillis * wheelSize^levelCount
+   * @param startMillis thời điểm bắt đầu (thường là System.currentTimeMillis())
+   */
+  public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+    if (tickMillis <= 0 || wheelSize < 2 || levelCount < 1) {
+      throw new IllegalArgumentException("Invalid timing wheel configuration");
+    }
+    this.tickMillis = tickMillis;
+    this.bits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+    this.mask = (1 << bits) - 1;
+    for (int level = 0; level < levelCount; level++) {
+      List<List<Timeout<T>>> slots = new ArrayList<>(1 << bits);
+      for (int i = 0; i < 1 << bits; i++) {
+        slots.add(new ArrayList<>());
+      }
+      levels.add(slots);
+    }
+    this.currentTick = startMillis / tickMillis;
+  }
+
+  /*- Lên lịch item hết hạn tại deadlineMillis -*/
+  public synchronized void schedule(T item, long deadlineMillis) {
+    // Làm tròn lên: item không bao giờ bị coi là hết hạn sớm hơn deadline
+    long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+    place(new Timeout<>(item, Math.max(deadlineTick, currentTick + 1)));
+    size++;
+  }
+
+  /**
+   * Đẩy kim tới thời điểm nowMillis, gọi onExpire cho mọi item đã đến hạn
+   * @return số item hết hạn
+   */
+  public int advanceTo(long nowMillis, Consumer<T> onExpire) {
+    List<T> expired = new ArrayList<>();
+    synchronized (this) {
+      long targetTick = nowMillis / tickMillis;
+      while (currentTick < targetTick) {
+        currentTick++;
+        cascade();
+        List<Timeout<T>> slot = levels.get(0).get((int) (currentTick & mask));
+        for (Timeout<T> timeout : slot) {
+          expired.add(timeout.item);
+        }
+        size -= slot.size();
+        slot.clear();
+      }
+    }
+    // Callback chạy ngoài lock để không chặn schedule()
+    expired.forEach(onExpire);
+    return expired.size();
+  }
+
+  /*- Số item đang chờ trong wheel -*/
+  public synchronized int size() {
+    return size;
+  }
+
+  /*- Hạ các slot level cao vừa đến lượt xuống level thấp hơn, từ trên xuống -*/
+  private void cascade() {
+    for (int level = levels.size() - 1; level > 0; level--) {
+      int shift = bits * level;
+      if ((currentTick & ((1L << shift) - 1)) != 0) {
+        continue;
+      }
+      List<Timeout<T>> slot = levels.get(level).get((int) ((currentTick >>> shift) & mask));
+      if (slot.isEmpty()) {
+        continue;
+      }
+      List<Timeout<T>> pending = new ArrayList<>(slot);
+      slot.clear();
+      pending.forEach(this::place);
+    }
+  }
+
+  private void place(Timeout<T> timeout) {
+    long delta = timeout.deadlineTick - currentTick;
+    int top = levels.size() - 1;
+    for (int level = 0; level <= top; level++) {
+      int shift = bits * (level + 1);
+      if (delta < (1L << shift) || level == top) {
+        if (level == top && delta >= (1L << shift)) {
+          // Vượt phạm vi: đặt ở slot xa nhất của level cao nhất, sẽ được đặt lại khi cascade
+          long farthest = (currentTick >>> (bits * level)) - 1;
+          levels.get(level).get((int) (farthest & mask)).add(timeout);
+        } else {
+          levels.get(level).get((int) ((timeout.deadlineTick >>> (bits * level)) & mask)).add(timeout);
+        }
+        return;
+      }
+    }
+  }
+
+  private record Timeout<T>(T item, long deadlineTick) {
+  }
+}
@@ -0,0 +1,8 @@
+package com.quocchung.dangbai.duandangbai.utils.enums;
+
+/*- Các bộ đếm phi chuẩn hóa trên bảng posts -*/
+public enum PostCounterType {
+  COMMENTS,
+  REACTIONS,
+  VIEWS
+}
@@ -0,0 +1,20 @@
+package com.quocchung.dangbai.duandangbai.utils.notification;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "notification-inbox")
+@Data
+public class NotificationInboxProperties {
+
+  private boolean enabled = true;
+
+  // Số thông báo mới nhất giữ trên Redis mỗi user (trang đầu hộp thư không quá số này)
+  private int recentSize = 50;
+
+  // Hết TTL thì nạp lại từ MySQL: giới hạn thời gian lệch nếu ghi Redis lỗi / chạy song song với nạp lại
+  private Duration ttl = Duration.ofHours(1);
+}
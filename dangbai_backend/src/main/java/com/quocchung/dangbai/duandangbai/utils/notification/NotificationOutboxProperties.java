@@ -0,0 +1,27 @@
+package com.quocchung.dangbai.duandangbai.utils.notification;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "notification-outbox")
+@Data
+public class NotificationOutboxProperties {
+
+  // Số thông báo tối đa mỗi batch INSERT vào notifications
+  private int batchSize = 500;
+
+  // Chờ tối đa bao lâu để gom batch sau khi có thông báo đầu tiên
+  private Duration maxDelay = Duration.ofMillis(200);
+
+  // Hàng đợi trong bộ nhớ (chỉ chứa id outbox), đầy thì để job quét outbox xử lý
+  private int queueCapacity = 10_000;
+
+  // Job quét outbox: chuyển các dòng bị bỏ sót (process chết, hàng đợi đầy, ghi lỗi)
+  private Duration sweepInterval = Duration.ofSeconds(30);
+
+  // Chỉ quét dòng cũ hơn khoảng này để không giành việc với consumer đang chạy
+  private Duration sweepAfter = Duration.ofSeconds(30);
+}
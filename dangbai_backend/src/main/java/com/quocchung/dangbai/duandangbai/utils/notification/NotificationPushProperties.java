@@ -0,0 +1,18 @@
+package com.quocchung.dangbai.duandangbai.utils.notification;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "notification-push")
+@Data
+public class NotificationPushProperties {
+
+  // Đẩy thông báo mới qua WebSocket (STOMP) tới các phiên đang mở của người nhận
+  private boolean enabled = true;
+
+  // Heartbeat STOMP hai chiều: phát hiện kết nối chết để SimpUserRegistry không giữ phiên ma
+  private Duration heartbeat = Duration.ofSeconds(10);
+}
@@ -0,0 +1,45 @@
+package com.quocchung.dangbai.duandangbai.utils.pagination;
+
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Vị trí của thông báo cuối trang trước trong hộp thư: (createdAt, id), luôn sắp xếp mới nhất trước.
+ * Khớp với index idx_notifications_user_created (user_id, created_at, id).
+ */
+@Getter
+@AllArgsConstructor
+public class NotificationCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDateTime createdAt;
+  private final Long id;
+
+  public String encode() {
+    String raw = createdAt + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws AppException INVALID_FORMAT khi cursor hỏng
+   */
+  public static NotificationCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\" + SEPARATOR, -1);
+      if (parts.length != 2) {
+        throw new AppException(ErrorCode.INVALID_FORMAT);
+      }
+      return new NotificationCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new AppException(ErrorCode.INVALID_FORMAT);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.quocchung.dangbai.duandangbai.utils.pagination;
+
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Vị trí của dòng cuối trang trước trong keyset pagination: (giá trị cột sắp xếp, id).
+ * Client nhận chuỗi base64url đóng gói, không cần (và không nên) hiểu nội dung.
+ * Cursor mang theo cột + chiều sắp xếp để không dùng nhầm cho một kiểu sắp xếp khác.
+ */
+@Getter
+@AllArgsConstructor
+public class PostCursor {
+
+  private static final String SEPARATOR = "|";
+  private static final String NULL_VALUE = "~";
+
+  private final String property;
+  private final Sort.Direction direction;
+  // Kiểu theo PostSortField (LocalDateTime, Double...), null khi dòng cuối có giá trị null
+  private final Object value;
+  private final Long id;
+
+  public String encode() {
+    String raw = property + SEPARATOR + direction.name() + SEPARATOR
+                 + (value != null ? value.toString() : NULL_VALUE) + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Giải mã cursor và kiểm tra khớp với kiểu sắp xếp của request
+   * @throws AppException INVALID_FORMAT khi cursor hỏng hoặc thuộc kiểu sắp xếp khác
+   */
+  public static PostCursor decode(String cursor, PostSortField field, Sort.Direction direction) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\" + SEPARATOR, -1);
+      if (parts.length != 4 || !parts[0].equals(field.getKey()) || !parts[1].equals(direction.name())) {
+        throw new AppException(ErrorCode.INVALID_FORMAT);
+      }
+      Object value = NULL_VALUE.equals(parts[2]) ? null : field.decode(parts[2]);
+      return new PostCursor(field.getKey(), direction, value, Long.valueOf(parts[3]));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new AppException(ErrorCode.INVALID_FORMAT);
+    }
+  }
+}
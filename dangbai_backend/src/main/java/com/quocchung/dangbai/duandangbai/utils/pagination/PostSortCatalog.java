@@ -0,0 +1,60 @@
+package com.quocchung.dangbai.duandangbai.utils.pagination;
+
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chuyển sortBy / sortDirection của request thành Sort.Order thuộc danh mục PostSortField.
+ * Đếm số lần dùng từng kiểu sắp xếp (metric posts.sort.requests) để biết index nào thực sự cần,
+ * sortBy ngoài danh mục bị từ chối và đếm chung dưới tag sort=unsupported (không gắn giá trị client gửi lên).
+ */
+@Component
+@Slf4j
+public class PostSortCatalog {
+
+  private static final String METRIC = "posts.sort.requests";
+
+  private final Map<PostSortField, Map<Sort.Direction, Counter>> usage = new EnumMap<>(PostSortField.class);
+  private final Counter rejected;
+
+  public PostSortCatalog(MeterRegistry meterRegistry) {
+    for (PostSortField field : PostSortField.values()) {
+      Map<Sort.Direction, Counter> byDirection = new EnumMap<>(Sort.Direction.class);
+      for (Sort.Direction direction : Sort.Direction.values()) {
+        byDirection.put(direction, Counter.builder(METRIC)
+            .description("Số request danh sách bài viết theo kiểu sắp xếp")
+            .tag("sort", field.getKey())
+            .tag("direction", direction.name().toLowerCase())
+            .register(meterRegistry));
+      }
+      usage.put(field, byDirection);
+    }
+    this.rejected = Counter.builder(METRIC)
+        .description("Số request danh sách bài viết theo kiểu sắp xếp")
+        .tag("sort", "unsupported")
+        .tag("direction", "none")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @throws AppException INVALID_SORT_FIELD khi sortBy không có trong danh mục
+   */
+  public Sort.Order resolve(String sortBy, String sortDirection) {
+    PostSortField field = PostSortField.fromKey(sortBy).orElse(null);
+    if (field == null) {
+      rejected.increment();
+      log.debug("Từ chối sortBy không hỗ trợ: {}", sortBy);
+      throw new AppException(ErrorCode.INVALID_SORT_FIELD);
+    }
+    Sort.Direction direction = "ASC".equalsIgnoreCase(sortDirection) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    usage.get(field).get(direction).increment();
+    return new Sort.Order(direction, field.getKey());
+  }
+}
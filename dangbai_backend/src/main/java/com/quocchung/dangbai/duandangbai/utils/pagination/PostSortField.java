@@ -0,0 +1,57 @@
+package com.quocchung.dangbai.duandangbai.utils.pagination;
+
+import com.quocchung.dangbai.duandangbai.repository.projection.PostListRow;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * Danh mục các kiểu sắp xếp được phép cho danh sách bài viết.
+ * Mỗi key phải có index (cột, id) tương ứng trên bảng posts (khai báo ở Post @Table + migration)
+ * để ORDER BY đi theo index thay vì filesort, và biết cách mã hóa giá trị vào cursor keyset.
+ * Thêm kiểu sắp xếp mới = thêm index trước, rồi mới thêm vào đây.
+ */
+@Getter
+public enum PostSortField {
+
+  CREATED_AT("createdAt",
+      List.of("idx_posts_created", "idx_posts_status_created",
+          "idx_posts_author_created", "idx_posts_author_status_created"),
+      LocalDateTime::parse, PostListRow::getCreatedAt),
+
+  PRICE("price",
+      List.of("idx_posts_price", "idx_posts_status_price"),
+      Double::valueOf, PostListRow::getPrice);
+
+  // Giá trị sortBy client gửi lên, đồng thời là tên thuộc tính của Post trong JPQL
+  private final String key;
+  // Index phục vụ kiểu sắp xếp này (không lọc / lọc theo status / theo tác giả)
+  private final List<String> indexes;
+  private final Function<String, Object> cursorDecoder;
+  private final Function<PostListRow, Object> cursorValue;
+
+  PostSortField(String key, List<String> indexes, Function<String, Object> cursorDecoder,
+      Function<PostListRow, Object> cursorValue) {
+    this.key = key;
+    this.indexes = indexes;
+    this.cursorDecoder = cursorDecoder;
+    this.cursorValue = cursorValue;
+  }
+
+  public static Optional<PostSortField> fromKey(String key) {
+    return Arrays.stream(values()).filter(field -> field.key.equals(key)).findFirst();
+  }
+
+  /*- Giá trị của dòng dùng làm mốc trong cursor -*/
+  public Object valueOf(PostListRow row) {
+    return cursorValue.apply(row);
+  }
+
+  /*- Giá trị mốc đọc lại từ cursor (chuỗi do toString() của giá trị sinh ra) -*/
+  public Object decode(String value) {
+    return cursorDecoder.apply(value);
+  }
+}
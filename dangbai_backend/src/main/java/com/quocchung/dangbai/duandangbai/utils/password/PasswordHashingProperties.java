@@ -0,0 +1,30 @@
+package com.quocchung.dangbai.duandangbai.utils.password;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "password-hashing")
+@Data
+public class PasswordHashingProperties {
+
+  // Số thread hash BCrypt, mặc định nửa số core để phần còn lại phục vụ request đọc
+  private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  // Số yêu cầu hash được xếp hàng, vượt quá thì trả 429 ngay
+  private int queueCapacity = 64;
+  // Thời gian chờ tối đa (xếp hàng + hash) trước khi trả 429
+  private Duration maxWait = Duration.ofSeconds(2);
+  private int strength = 10;
+  private Adaptive adaptive = new Adaptive();
+
+  /*- Tự chọn strength sao cho 1 lần hash gần targetLatency (đo lúc khởi động) -*/
+  @Data
+  public static class Adaptive {
+    private boolean enabled = false;
+    private Duration targetLatency = Duration.ofMillis(250);
+    private int minStrength = 10;
+    private int maxStrength = 14;
+  }
+}
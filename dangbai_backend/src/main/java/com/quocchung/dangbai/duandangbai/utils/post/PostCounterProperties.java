@@ -0,0 +1,19 @@
+package com.quocchung.dangbai.duandangbai.utils.post;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "post-counters")
+@Data
+public class PostCounterProperties {
+
+  // Job đối soát comment_count / reaction_count với bảng con
+  private boolean reconcileEnabled = true;
+  private Duration reconcileInterval = Duration.ofHours(1);
+
+  // Số id post mỗi câu UPDATE đối soát (mỗi batch một transaction ngắn)
+  private int reconcileBatchSize = 1_000;
+}
@@ -0,0 +1,40 @@
+package com.quocchung.dangbai.duandangbai.utils.post;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "post-detail-cache")
+@Data
+public class PostDetailCacheProperties {
+
+  private boolean enabled = true;
+
+  private Local local = new Local();
+
+  private Remote remote = new Remote();
+
+  @Data
+  public static class Local {
+    // Số bài viết tối đa giữ trong bộ nhớ mỗi node
+    private long maxSize = 10_000;
+
+    // Quá thời gian này entry vẫn được trả về nhưng sẽ nạp lại ở nền (stale-while-revalidate)
+    private Duration freshFor = Duration.ofSeconds(30);
+
+    // Giới hạn cứng, cũng là độ trễ tối đa nếu mất message invalidation
+    private Duration ttl = Duration.ofMinutes(5);
+  }
+
+  @Data
+  public static class Remote {
+    private boolean enabled = true;
+
+    // Entry Redis cũ hơn thời gian này vẫn dùng được nhưng node đọc được sẽ nạp lại từ DB ở nền
+    private Duration freshFor = Duration.ofMinutes(2);
+
+    private Duration ttl = Duration.ofMinutes(30);
+  }
+}
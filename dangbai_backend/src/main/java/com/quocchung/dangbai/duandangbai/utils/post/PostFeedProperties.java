@@ -0,0 +1,24 @@
+package com.quocchung.dangbai.duandangbai.utils.post;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "post-feed")
+@Data
+public class PostFeedProperties {
+
+  // Tắt thì feed luôn đọc từ MySQL như trước
+  private boolean enabled = true;
+
+  // Số post đọc từ MySQL mỗi lô khi dựng lại feed
+  private int rebuildBatchSize = 1_000;
+
+  // Chu kỳ kiểm tra feed đã được dựng chưa (Redis mất dữ liệu / ghi lỗi), thiếu thì dựng lại
+  private Duration checkInterval = Duration.ofMinutes(1);
+
+  // Khóa để chỉ một node dựng lại tại một thời điểm; tự hết hạn nếu node đó chết giữa chừng
+  private Duration rebuildLockTtl = Duration.ofMinutes(10);
+}
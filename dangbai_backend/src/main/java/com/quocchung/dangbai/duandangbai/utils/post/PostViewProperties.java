@@ -0,0 +1,39 @@
+package com.quocchung.dangbai.duandangbai.utils.post;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "post-views")
+@Data
+public class PostViewProperties {
+
+  private boolean enabled = true;
+
+  // Chu kỳ ghi lượt xem dồn trong bộ nhớ xuống posts.view_count (một batch UPDATE mỗi chu kỳ)
+  private Duration flushInterval = Duration.ofSeconds(5);
+
+  private UniqueViewers uniqueViewers = new UniqueViewers();
+
+  @Data
+  public static class UniqueViewers {
+    // Ước lượng số người xem khác nhau bằng HyperLogLog trên Redis (PFADD / PFCOUNT)
+    private boolean enabled = true;
+
+    // Tổng số viewer chờ PFADD giữa hai lần flush, vượt thì bỏ qua (chỉ ảnh hưởng ước lượng)
+    private int maxPending = 100_000;
+
+    // Sketch không có lượt xem mới trong khoảng này thì Redis tự xóa
+    private Duration ttl = Duration.ofDays(30);
+
+    // Số người xem trên trang chi tiết lấy từ cache cục bộ, PFCOUNT lại ở nền sau mỗi khoảng này
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    // Post không được đọc trong khoảng này thì bỏ khỏi cache
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+    private long cacheMaxSize = 10_000;
+  }
+}
@@ -0,0 +1,55 @@
+package com.quocchung.dangbai.duandangbai.utils.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket cục bộ, không lock, dạng GCRA: mỗi key chỉ giữ một AtomicLong
+ * "theoretical arrival time" (TAT), cập nhật bằng CAS.
+ * Bucket nằm trong Caffeine (map phân đoạn, có giới hạn kích thước), key không dùng tới sẽ tự hết hạn.
+ */
+public final class LocalRateLimiter {
+
+  private final Cache<String, AtomicLong> buckets;
+
+  public LocalRateLimiter(long maxKeys, Duration idleExpiry) {
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .expireAfterAccess(idleExpiry)
+        .build();
+  }
+
+  /**
+   * Lấy 1 token của bucket
+   * @param capacity số request liên tiếp tối đa
+   * @param period thời gian hồi đầy bucket
+   * @return 0 nếu được phép, ngược lại số nano giây phải chờ
+   */
+  public long tryAcquire(String key, long capacity, Duration period) {
+    long periodNanos = period.toNanos();
+    long intervalNanos = Math.max(1, periodNanos / Math.max(1, capacity));
+    // Cho phép burst capacity request: TAT được vượt trước now tối đa (capacity - 1) * interval
+    long toleranceNanos = periodNanos - intervalNanos;
+    AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+    while (true) {
+      long now = System.nanoTime();
+      long current = tat.get();
+      long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+      long next = base + intervalNanos;
+      long waitNanos = next - now - intervalNanos - toleranceNanos;
+      if (waitNanos > 0) {
+        return waitNanos;
+      }
+      if (tat.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  public static long toRetryAfterSeconds(long waitNanos) {
+    return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+  }
+}
@@ -0,0 +1,45 @@
+package com.quocchung.dangbai.duandangbai.utils.ratelimit;
+
+import com.quocchung.dangbai.duandangbai.contants.ApiConstant;
+import com.quocchung.dangbai.duandangbai.exception.ErrorCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Các endpoint bị giới hạn tần suất, khai báo theo ApiConstant.
+ * Giới hạn cụ thể (capacity / period) cấu hình trong rate-limit.limits.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RateLimitPolicy {
+
+  // BCrypt ~100ms CPU mỗi lần: chặn burst trước khi chiếm thread Tomcat
+  LOGIN("POST", ApiConstant.AUTH + ApiConstant.LOGIN, KeyType.IP, ErrorCode.TOO_MANY_LOGIN_ATTEMPTS),
+  REGISTER("POST", ApiConstant.AUTH + ApiConstant.REGISTER, KeyType.IP, ErrorCode.TOO_MANY_REQUESTS),
+  REFRESH_TOKEN("POST", ApiConstant.AUTH + ApiConstant.REFRESH_TOKEN, KeyType.IP, ErrorCode.TOO_MANY_REQUESTS),
+  // Upload multipart: theo user đã đăng nhập, chưa đăng nhập thì theo IP
+  CREATE_POST("POST", ApiConstant.POST + ApiConstant.CREATE_POST, KeyType.USER, ErrorCode.TOO_MANY_REQUESTS);
+
+  private final String method;
+  private final String path;
+  private final KeyType keyType;
+  private final ErrorCode errorCode;
+
+  public enum KeyType {
+    IP, USER
+  }
+
+  public boolean matches(String requestMethod, String requestPath) {
+    return method.equalsIgnoreCase(requestMethod) && path.equals(requestPath);
+  }
+
+  /*- Tìm policy cho request, null nếu endpoint không bị giới hạn -*/
+  public static RateLimitPolicy resolve(String requestMethod, String requestPath) {
+    for (RateLimitPolicy policy : values()) {
+      if (policy.matches(requestMethod, requestPath)) {
+        return policy;
+      }
+    }
+    return null;
+  }
+}
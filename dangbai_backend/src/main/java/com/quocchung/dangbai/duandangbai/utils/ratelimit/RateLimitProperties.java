@@ -0,0 +1,46 @@
+package com.quocchung.dangbai.duandangbai.utils.ratelimit;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+  // Thêm giới hạn chung cho cả cluster qua Redis (ngoài giới hạn cục bộ trên mỗi node)
+  private boolean cluster = false;
+  // Lấy IP client từ X-Forwarded-For (chỉ bật khi đứng sau reverse proxy tin cậy)
+  private boolean trustForwardedFor = false;
+  private long maxTrackedKeys = 100_000;
+  private Map<RateLimitPolicy, Limit> limits = defaultLimits();
+
+  /*- Cho phép tối đa capacity request liên tiếp, hồi lại capacity lượt sau mỗi period -*/
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Limit {
+    private long capacity;
+    private Duration period;
+  }
+
+  public Limit getLimit(RateLimitPolicy policy) {
+    return limits.get(policy);
+  }
+
+  private static Map<RateLimitPolicy, Limit> defaultLimits() {
+    Map<RateLimitPolicy, Limit> limits = new EnumMap<>(RateLimitPolicy.class);
+    limits.put(RateLimitPolicy.LOGIN, new Limit(10, Duration.ofMinutes(1)));
+    limits.put(RateLimitPolicy.REGISTER, new Limit(5, Duration.ofMinutes(10)));
+    limits.put(RateLimitPolicy.REFRESH_TOKEN, new Limit(30, Duration.ofMinutes(1)));
+    limits.put(RateLimitPolicy.CREATE_POST, new Limit(10, Duration.ofMinutes(1)));
+    return limits;
+  }
+}
@@ -0,0 +1,95 @@
+package com.quocchung.dangbai.duandangbai.utils.ratelimit;
+
+import com.quocchung.dangbai.duandangbai.exception.RateLimitException;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kiểm tra giới hạn tần suất cho một policy + key (userId hoặc IP):
+ * 1. Bucket cục bộ trên node (luôn chạy, không cần mạng)
+ * 2. Nếu rate-limit.cluster=true: bucket chung trong Redis, cập nhật atomic bằng Lua script
+ * Redis lỗi thì chỉ còn giới hạn cục bộ (không chặn request vì Redis).
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+  private static final String KEY_PREFIX = "rl:";
+
+  /**
+   * GCRA trong Redis, thời gian lấy từ TIME của Redis để mọi node dùng chung một đồng hồ.
+   * KEYS: key bucket
+   * ARGV: interval (ms), tolerance (ms)
+   * Trả về 0 nếu được phép, ngược lại số ms phải chờ
+   */
+  private static final RedisScript<Long> GCRA_SCRIPT = RedisScript.of(
+      "local interval = tonumber(ARGV[1]) "
+      + "local tolerance = tonumber(ARGV[2]) "
+      + "local time = redis.call('TIME') "
+      + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+      + "local tat = tonumber(redis.call('GET', KEYS[1])) "
+      + "if tat == nil or tat < now then tat = now end "
+      + "local wait = tat - now - tolerance "
+      + "if wait > 0 then return wait end "
+      + "local nextTat = tat + interval "
+      + "redis.call('SET', KEYS[1], nextTat, 'PX', nextTat - now) "
+      + "return 0",
+      Long.class);
+
+  private final RateLimitProperties properties;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final MeterRegistry meterRegistry;
+  private final LocalRateLimiter localRateLimiter;
+
+  public RateLimiter(RateLimitProperties properties, StringRedisTemplate stringRedisTemplate,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.meterRegistry = meterRegistry;
+    Duration longestPeriod = properties.getLimits().values().stream()
+        .map(RateLimitProperties.Limit::getPeriod)
+        .max(Duration::compareTo)
+        .orElse(Duration.ofMinutes(10));
+    this.localRateLimiter = new LocalRateLimiter(properties.getMaxTrackedKeys(), longestPeriod);
+  }
+
+  /**
+   * Lấy 1 lượt cho key
+   * @throws RateLimitException khi vượt giới hạn, kèm số giây cần chờ
+   */
+  public void acquire(RateLimitPolicy policy, String key) {
+    RateLimitProperties.Limit limit = properties.getLimit(policy);
+    if (!properties.isEnabled() || limit == null) {
+      return;
+    }
+    String bucketKey = policy.name() + ":" + key;
+
+    long waitNanos = localRateLimiter.tryAcquire(bucketKey, limit.getCapacity(), limit.getPeriod());
+    if (waitNanos == 0 && properties.isCluster()) {
+      waitNanos = acquireCluster(bucketKey, limit);
+    }
+    if (waitNanos > 0) {
+      meterRegistry.counter("rate_limit.rejected", "policy", policy.name()).increment();
+      throw new RateLimitException(policy.getErrorCode(), LocalRateLimiter.toRetryAfterSeconds(waitNanos));
+    }
+  }
+
+  private long acquireCluster(String bucketKey, RateLimitProperties.Limit limit) {
+    long periodMillis = limit.getPeriod().toMillis();
+    long intervalMillis = Math.max(1, periodMillis / Math.max(1, limit.getCapacity()));
+    try {
+      Long waitMillis = stringRedisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + bucketKey),
+          String.valueOf(intervalMillis), String.valueOf(periodMillis - intervalMillis));
+      return waitMillis != null ? TimeUnit.MILLISECONDS.toNanos(waitMillis) : 0;
+    } catch (Exception e) {
+      log.warn("Cluster rate limit unavailable, using local limit only: {}", e.getMessage());
+      return 0;
+    }
+  }
+}
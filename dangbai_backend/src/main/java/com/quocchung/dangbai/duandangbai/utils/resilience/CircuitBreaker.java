@@ -0,0 +1,95 @@
+package com.quocchung.dangbai.duandangbai.utils.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import lombok.Getter;
+
+/**
+ * Circuit breaker tối giản theo số lỗi liên tiếp:
+ * - CLOSED: cho mọi lời gọi đi qua, đủ failureThreshold lỗi liên tiếp thì chuyển OPEN
+ * - OPEN: từ chối ngay (caller dùng fallback), hết openDuration thì chuyển HALF_OPEN
+ * - HALF_OPEN: chỉ cho 1 lời gọi thử; thành công -> CLOSED, lỗi -> OPEN
+ * Caller phải gọi onSuccess()/onError() sau mỗi lời gọi đã được tryAcquirePermission() cho phép.
+ */
+public final class CircuitBreaker {
+
+  public enum State {
+    CLOSED, HALF_OPEN, OPEN
+  }
+
+  @Getter
+  private final String name;
+  private final int failureThreshold;
+  private final long openDurationNanos;
+  private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final AtomicBoolean trialInFlight = new AtomicBoolean();
+  private volatile long openedAtNanos;
+  private volatile BiConsumer<State, State> transitionListener = (from, to) -> {
+  };
+
+  public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+    this.name = name;
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openDurationNanos = openDuration.toNanos();
+  }
+
+  /*- Listener được gọi mỗi khi đổi trạng thái (log, metrics) -*/
+  public void onTransition(BiConsumer<State, State> listener) {
+    this.transitionListener = listener;
+  }
+
+  public State getState() {
+    return state.get();
+  }
+
+  /*- Lời gọi có được phép đi tới hệ thống phía sau không -*/
+  public boolean tryAcquirePermission() {
+    State current = state.get();
+    if (current == State.CLOSED) {
+      return true;
+    }
+    if (current == State.OPEN) {
+      if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+        return false;
+      }
+      transition(State.OPEN, State.HALF_OPEN);
+    }
+    return trialInFlight.compareAndSet(false, true);
+  }
+
+  public void onSuccess() {
+    consecutiveFailures.set(0);
+    if (state.get() == State.HALF_OPEN) {
+      trialInFlight.set(false);
+      transition(State.HALF_OPEN, State.CLOSED);
+    }
+  }
+
+  public void onError() {
+    if (state.get() == State.HALF_OPEN) {
+      openedAtNanos = System.nanoTime();
+      trialInFlight.set(false);
+      transition(State.HALF_OPEN, State.OPEN);
+      return;
+    }
+    if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+      // Ghi thời điểm trước khi đổi trạng thái để thread khác không thấy OPEN với mốc cũ
+      openedAtNanos = System.nanoTime();
+      if (transition(State.CLOSED, State.OPEN)) {
+        consecutiveFailures.set(0);
+      }
+    }
+  }
+
+  private boolean transition(State from, State to) {
+    if (state.compareAndSet(from, to)) {
+      transitionListener.accept(from, to);
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,88 @@
+package com.quocchung.dangbai.duandangbai.utils.resilience;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * RedisMessageListenerContainer không làm hỏng quá trình khởi động khi Redis chưa truy cập được:
+ * - Lần subscribe đầu lỗi thì chỉ log, ứng dụng vẫn start (pub/sub chỉ để đồng bộ cache / thông báo giữa các node)
+ *   và thử subscribe lại ở nền theo backoff cho tới khi Redis lên
+ * - Mất kết nối sau khi đã subscribe: container tự subscribe lại theo cùng backoff (recovery backoff)
+ * Listener cần dựng lại trạng thái sau khi subscribe lại thì implement SubscriptionListener.
+ */
+@Slf4j
+public class RecoveringRedisMessageListenerContainer extends RedisMessageListenerContainer {
+
+  private final BackOff backOff;
+  private final Object lifecycleLock = new Object();
+  private ScheduledExecutorService retrier;
+  private boolean shutdown;
+
+  public RecoveringRedisMessageListenerContainer(BackOff backOff) {
+    this.backOff = backOff;
+    setRecoveryBackoff(backOff);
+  }
+
+  @Override
+  public void start() {
+    synchronized (lifecycleLock) {
+      shutdown = false;
+      try {
+        super.start();
+      } catch (RuntimeException e) {
+        log.warn("Redis pub/sub subscription failed on startup, retrying in background: {}", e.getMessage());
+        scheduleRetry(backOff.start());
+      }
+    }
+  }
+
+  @Override
+  public void stop(Runnable callback) {
+    synchronized (lifecycleLock) {
+      shutdown = true;
+      if (retrier != null) {
+        retrier.shutdownNow();
+        retrier = null;
+      }
+    }
+    super.stop(callback);
+  }
+
+  private void scheduleRetry(BackOffExecution execution) {
+    long interval = execution.nextBackOff();
+    if (interval == BackOffExecution.STOP) {
+      log.error("Redis pub/sub subscription attempts exceeded, giving up");
+      return;
+    }
+    if (retrier == null) {
+      retrier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-subscription-retry");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    retrier.schedule(() -> retry(execution), interval, TimeUnit.MILLISECONDS);
+  }
+
+  private void retry(BackOffExecution execution) {
+    synchronized (lifecycleLock) {
+      if (shutdown || isListening()) {
+        return;
+      }
+      // Lần start lỗi vẫn để container ở trạng thái running: stop rồi start lại để subscribe từ đầu
+      super.stop(() -> { });
+      try {
+        super.start();
+        log.info("Redis pub/sub subscription established");
+      } catch (RuntimeException e) {
+        log.debug("Redis pub/sub subscription retry failed: {}", e.getMessage());
+        scheduleRetry(execution);
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.quocchung.dangbai.duandangbai.utils.resilience;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "redis-resilience")
+@Data
+public class RedisResilienceProperties {
+
+  // Redis lỗi / chậm: vẫn chấp nhận access token đã verify chữ ký + exp nếu không có trong revocation list
+  private boolean failOpen = true;
+  private CircuitBreakerSpec circuitBreaker = new CircuitBreakerSpec();
+  private SubscriptionSpec subscription = new SubscriptionSpec();
+
+  @Data
+  public static class CircuitBreakerSpec {
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(10);
+  }
+
+  /*- Subscribe lại kênh pub/sub khi Redis chưa lên lúc khởi động hoặc mất kết nối: giãn dần, không giới hạn số lần -*/
+  @Data
+  public static class SubscriptionSpec {
+    private Duration initialInterval = Duration.ofSeconds(1);
+    private Duration maxInterval = Duration.ofSeconds(30);
+    private double multiplier = 2.0;
+  }
+}
@@ -1,5 +1,6 @@
 package com.quocchung.dangbai.duandangbai.utils.token;
 
+import java.time.Duration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -12,9 +13,37 @@ public class JwtProperties {
   private String secret;
   private long expiration;
   private RefreshToken refreshToken;
+  private Principal principal = new Principal();
+  // STORE: kiểm tra access token trong TokenStore mỗi request, STATELESS: chỉ chữ ký + exp + revocation list
+  private AccessTokenMode accessTokenMode = AccessTokenMode.STORE;
+  private Revocation revocation = new Revocation();
 
   @Data
   public static class RefreshToken {
     private long expiration;
   }
+
+  /*- Cách dựng principal cho request đã xác thực -*/
+  @Data
+  public static class Principal {
+    // CLAIMS: dựng từ claims trong token, DATABASE: load user từ DB mỗi request
+    private PrincipalMode mode = PrincipalMode.CLAIMS;
+    private Duration stateCacheTtl = Duration.ofSeconds(30);
+    private long stateCacheMaxSize = 10_000;
+  }
+
+  public enum PrincipalMode {
+    CLAIMS, DATABASE
+  }
+
+  /*- Kích thước bloom filter của revocation list (chế độ STATELESS) -*/
+  @Data
+  public static class Revocation {
+    private long expectedInsertions = 100_000;
+    private double falsePositiveRate = 0.01;
+  }
+
+  public enum AccessTokenMode {
+    STORE, STATELESS
+  }
 }
@@ -0,0 +1,31 @@
+package com.quocchung.dangbai.duandangbai.utils.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Fingerprint cố định 22 ký tự của một JWT: 128 bit đầu của SHA-256, mã hóa base64url.
+ * Dùng làm key/member trong Redis thay cho chuỗi JWT đầy đủ (vài trăm byte).
+ */
+public final class TokenFingerprint {
+
+  private static final int FINGERPRINT_BYTES = 16;
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private TokenFingerprint() {
+  }
+
+  public static String of(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+      return ENCODER.encodeToString(Arrays.copyOf(hash, FINGERPRINT_BYTES));
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256 luôn có trong mọi JVM
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
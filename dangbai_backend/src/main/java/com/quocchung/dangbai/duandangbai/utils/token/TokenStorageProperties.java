@@ -0,0 +1,14 @@
+package com.quocchung.dangbai.duandangbai.utils.token;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "token-storage")
+@Data
+public class TokenStorageProperties {
+
+  // Vẫn đọc key định dạng cũ (access_token:<jwt>) cho tới khi chúng hết hạn
+  private boolean legacyReadEnabled = true;
+}
@@ -0,0 +1,20 @@
+package com.quocchung.dangbai.duandangbai.utils.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/*- Địa chỉ IP của client, chỉ tin X-Forwarded-For khi app chạy sau reverse proxy tin cậy -*/
+public final class ClientIp {
+
+  private ClientIp() {
+  }
+
+  public static String resolve(HttpServletRequest request, boolean trustForwardedFor) {
+    if (trustForwardedFor) {
+      String forwardedFor = request.getHeader("X-Forwarded-For");
+      if (forwardedFor != null && !forwardedFor.isBlank()) {
+        return forwardedFor.split(",")[0].trim();
+      }
+    }
+    return request.getRemoteAddr();
+  }
+}
@@ -0,0 +1,149 @@
+-- Lược đồ ban đầu, đúng như Hibernate (ddl-auto: update) đã tạo từ các entity trước khi dùng Flyway:
+-- cùng kiểu cột (enum MySQL, float(53), bit) và tên ràng buộc Hibernate sinh ra.
+-- Database đã có sẵn bảng sẽ được Flyway baseline ở version 1 (spring.flyway.baseline-on-migrate),
+-- file này chỉ chạy trên database trống; mọi thay đổi lược đồ sau đó nằm ở V2 trở đi để DB cũ
+-- và DB mới đi cùng một đường nâng cấp.
+
+CREATE TABLE users (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    email          VARCHAR(255),
+    password_hash  VARCHAR(255),
+    username       VARCHAR(255),
+    display_name   VARCHAR(255),
+    phone          VARCHAR(255),
+    avatar_url     VARCHAR(255),
+    bio            VARCHAR(255),
+    account_status ENUM ('ACTIVE', 'SUSPENDED', 'BANNED', 'DELETED'),
+    created_at     DATETIME(6),
+    updated_at     DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE roles (
+    id          BIGINT NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE permissions (
+    id          BIGINT NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT FKhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKh8ciramu9cc9q3qcqiv4ue8a6 FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE role_permissions (
+    role_id       BIGINT NOT NULL,
+    permission_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, permission_id),
+    CONSTRAINT FKn5fotdgk8d1xvo8nav9uv3muc FOREIGN KEY (role_id) REFERENCES roles (id),
+    CONSTRAINT FKegdk29eiy7mdtefy5c7eirr6e FOREIGN KEY (permission_id) REFERENCES permissions (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE categories (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE posts (
+    id              BIGINT NOT NULL AUTO_INCREMENT,
+    author_id       BIGINT NOT NULL,
+    category_id     BIGINT,
+    title           VARCHAR(255),
+    description     VARCHAR(255),
+    price           FLOAT(53),
+    location        VARCHAR(255),
+    status          ENUM ('PENDING', 'APPROVED', 'REJECTED'),
+    rejected_reason VARCHAR(255),
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    approved_at     DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK6xvn0811tkyo3nfjk2xvqx6ns FOREIGN KEY (author_id) REFERENCES users (id),
+    CONSTRAINT FKijnwr3brs8vaosl80jg9rp7uc FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE post_media (
+    id            BIGINT NOT NULL AUTO_INCREMENT,
+    post_id       BIGINT NOT NULL,
+    type          ENUM ('IMAGE', 'VIDEO', 'FILE'),
+    url           VARCHAR(255),
+    thumbnail_url VARCHAR(255),
+    width         INT,
+    height        INT,
+    position      INT,
+    created_at    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK1urcum9dtf0vgul7k405f4r2d FOREIGN KEY (post_id) REFERENCES posts (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE comments (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    post_id    BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    parent_id  BIGINT,
+    content    VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FKh4c7lvsc298whoyd4w9ta25cr FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT FK8omq0tc18jd43bu5tjh6jvraq FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKlri30okf66phtcgbe5pok7cc0 FOREIGN KEY (parent_id) REFERENCES comments (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE reactions (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT NOT NULL,
+    post_id    BIGINT,
+    comment_id BIGINT,
+    type       ENUM ('LIKE', 'LOVE', 'HAHA', 'WOW', 'SAD', 'ANGRY'),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT UKaeq6cssia730m2nihyav05ui1 UNIQUE (user_id, post_id),
+    CONSTRAINT UKqosob8hv8ipngatdxg9i3gcrq UNIQUE (user_id, comment_id),
+    CONSTRAINT FKqmewaibcp5bxtlqxc2cawhuln FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKh8b4h9wybhu8tc5w11e8t3krc FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT FK49rifnmyo1sd243acaysemlbw FOREIGN KEY (comment_id) REFERENCES comments (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE notifications (
+    id          BIGINT NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT NOT NULL,
+    comment_id  BIGINT,
+    reaction_id BIGINT,
+    type        ENUM ('POST_CREATE', 'POST_APPROVED', 'POST_REJECTED', 'NEW_COMMENT', 'COMMENT_REACTION',
+                      'POST_REACTION', 'CONTACT'),
+    post_id     BIGINT,
+    message     VARCHAR(255),
+    is_read     BIT,
+    created_at  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FK9y21adhxn0ayjhfocscqox7bh FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FKl7p8sj183bxuwg2sq2ltx3cpv FOREIGN KEY (comment_id) REFERENCES comments (id),
+    CONSTRAINT FKk71cmsbjn3uxhni225xhoxn23 FOREIGN KEY (reaction_id) REFERENCES reactions (id),
+    CONSTRAINT FK599539lym3mnkbqks0u806eac FOREIGN KEY (post_id) REFERENCES posts (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE contacts (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    post_id    BIGINT NOT NULL,
+    buyer_id   BIGINT NOT NULL,
+    seller_id  BIGINT NOT NULL,
+    message    VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT FKcsjqkpdaawh4s1wa5thkm7rbt FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT FKthop3b2iyasch42a8jch7gd6c FOREIGN KEY (buyer_id) REFERENCES users (id),
+    CONSTRAINT FK1uws62oy3owtm91qrg7wys32c FOREIGN KEY (seller_id) REFERENCES users (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
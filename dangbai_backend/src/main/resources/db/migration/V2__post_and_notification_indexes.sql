@@ -0,0 +1,28 @@
+-- Index ghép theo đúng hình dạng các câu query nóng (điều kiện lọc trước, cột sắp xếp sau, id cuối
+-- để keyset pagination (cột, id) đi trên một index, không filesort).
+-- Tên index phải khớp @Table(indexes) trên entity: SchemaIndexVerifier kiểm tra lúc khởi động.
+
+-- PostRepository.findByStatus / feed: WHERE status = ? ORDER BY created_at, id
+CREATE INDEX idx_posts_status_created ON posts (status, created_at, id);
+
+-- findByAuthorIdAndStatus / findByUserAndStatus / /lstpost: WHERE author_id = ? AND status = ? ORDER BY created_at, id
+CREATE INDEX idx_posts_author_status_created ON posts (author_id, status, created_at, id);
+
+-- findByAuthorId: WHERE author_id = ? ORDER BY created_at, id
+CREATE INDEX idx_posts_author_created ON posts (author_id, created_at, id);
+
+-- findAll (admin, không lọc trạng thái): ORDER BY created_at, id
+CREATE INDEX idx_posts_created ON posts (created_at, id);
+
+-- Sắp xếp theo giá: WHERE status = ? ORDER BY price, id và không lọc trạng thái
+CREATE INDEX idx_posts_status_price ON posts (status, price, id);
+CREATE INDEX idx_posts_price ON posts (price, id);
+
+-- PostMediaRepository.findByPostIdIn: WHERE post_id IN (...) ORDER BY post_id, position
+CREATE INDEX idx_post_media_post_position ON post_media (post_id, position);
+
+-- NotificationRepository.findAllByUserIdOrderByCreatedAtDesc: WHERE user_id = ? ORDER BY created_at
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at, id);
+
+-- NotificationRepository.countByUserIdAndIsReadFalse: index phủ hoàn toàn câu COUNT
+CREATE INDEX idx_notifications_user_read ON notifications (user_id, is_read);
@@ -0,0 +1,6 @@
+-- Feed theo danh mục khi Redis chưa sẵn sàng / lỗi, và lúc dựng lại feed:
+-- WHERE category_id = ? AND status = ? ORDER BY created_at, id
+CREATE INDEX idx_posts_category_status_created ON posts (category_id, status, created_at, id);
+
+-- Bắt kịp các bài đổi trạng thái trong lúc dựng lại feed: WHERE updated_at >= ?
+CREATE INDEX idx_posts_updated ON posts (updated_at);
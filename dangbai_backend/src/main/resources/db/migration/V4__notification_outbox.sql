@@ -0,0 +1,14 @@
+-- Transactional outbox cho thông báo: ghi cùng transaction với nghiệp vụ (tạo / duyệt bài),
+-- consumer nền gom nhiều dòng thành một batch INSERT vào notifications rồi xóa khỏi outbox.
+-- Không có khóa ngoại: outbox chỉ là hàng đợi, FK được kiểm tra khi chuyển sang notifications.
+CREATE TABLE notification_outbox (
+    id          BIGINT NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT NOT NULL,
+    type        VARCHAR(500),
+    message     VARCHAR(255),
+    post_id     BIGINT,
+    comment_id  BIGINT,
+    reaction_id BIGINT,
+    created_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
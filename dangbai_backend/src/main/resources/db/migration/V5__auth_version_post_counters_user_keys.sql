@@ -0,0 +1,40 @@
+-- Đưa lược đồ baseline (V1, cũng là DB cũ do Hibernate tạo) lên đúng những gì code đang dùng.
+-- Chạy trên cả DB mới lẫn DB được baseline, nên không giả định gì ngoài V1..V4.
+
+-- Phiên bản quyền của user: tăng khi đổi role / trạng thái, token mang version cũ bị từ chối
+ALTER TABLE users ADD COLUMN auth_version BIGINT NOT NULL DEFAULT 0;
+
+-- Bộ đếm phi chuẩn hóa trên posts (comment / reaction / view)
+ALTER TABLE posts
+    ADD COLUMN comment_count  BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN reaction_count BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN view_count     BIGINT NOT NULL DEFAULT 0;
+
+-- Nạp giá trị ban đầu giống job đối soát (PostRepository.reconcileCounters); lượt xem chưa từng được lưu nên bắt đầu từ 0
+UPDATE posts p SET
+    comment_count  = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id),
+    reaction_count = (SELECT COUNT(*) FROM reactions r WHERE r.post_id = p.id);
+
+-- Đăng ký dựa vào unique key thay vì query kiểm tra trước (User.UK_USERNAME / User.UK_EMAIL).
+-- Nếu DB đang có username trùng thì câu này lỗi và migration dừng: cần xử lý các tài khoản trùng trước.
+ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username);
+
+-- Unique key của email do Hibernate đặt tên (UK6dotkott2kjsp8vw4d0m25fb7, bản cũ có dấu '_' sau UK):
+-- tìm theo cột rồi đổi tên để AuthServiceImpl nhận ra lỗi trùng email
+SET @email_key = (SELECT index_name FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'users' AND column_name = 'email'
+                    AND non_unique = 0 AND seq_in_index = 1 AND index_name <> 'uk_users_email'
+                  LIMIT 1);
+SET @rename_email_key = IF(@email_key IS NULL,
+                           'ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email)',
+                           CONCAT('ALTER TABLE users RENAME INDEX `', @email_key, '` TO uk_users_email'));
+PREPARE rename_email_key FROM @rename_email_key;
+EXECUTE rename_email_key;
+DEALLOCATE PREPARE rename_email_key;
+
+-- Enum lưu dạng VARCHAR để thêm giá trị mới không cần ALTER TABLE
+ALTER TABLE users MODIFY COLUMN account_status VARCHAR(32);
+ALTER TABLE posts MODIFY COLUMN status VARCHAR(32);
+ALTER TABLE post_media MODIFY COLUMN type VARCHAR(32);
+ALTER TABLE reactions MODIFY COLUMN type VARCHAR(32);
+ALTER TABLE notifications MODIFY COLUMN type VARCHAR(500);
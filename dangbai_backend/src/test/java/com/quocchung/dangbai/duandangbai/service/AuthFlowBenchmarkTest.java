@@ -0,0 +1,168 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quocchung.dangbai.duandangbai.dtos.request.LoginRequest;
+import com.quocchung.dangbai.duandangbai.dtos.request.RegisterRequest;
+import com.quocchung.dangbai.duandangbai.model.Role;
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.repository.RoleRepository;
+import com.quocchung.dangbai.duandangbai.repository.UserRepository;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * So sánh số câu SQL và độ trễ của luồng login / register cũ (dựng lại bằng các lời gọi repository như trước)
+ * với luồng hiện tại của AuthService.
+ * Chạy: mvn test -Dbenchmarks=true -Dtest=AuthFlowBenchmarkTest
+ * Không cần Redis: token store trong bộ nhớ, Redis trỏ tới cổng không có gì lắng nghe
+ * (ứng dụng vẫn khởi động, pub/sub subscribe lại ở nền) để không ghi vào Redis thật trên máy chạy benchmark.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:auth_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.data.redis.host=127.0.0.1",
+    "spring.data.redis.port=1",
+    "spring.data.redis.connect-timeout=100ms",
+    "token-store.type=memory",
+    "redis-resilience.fail-open=false",
+    "rate-limit.enabled=false",
+    "password-hashing.strength=4"
+})
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@Slf4j
+class AuthFlowBenchmarkTest {
+
+  private static final int WARMUP = 20;
+  private static final int ITERATIONS = 200;
+  private static final String PASSWORD = "Password@123";
+
+  @Autowired
+  private AuthService authService;
+  @Autowired
+  private AuthenticationManager authenticationManager;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    if (roleRepository.findByName("ROLE_USER").isEmpty()) {
+      roleRepository.save(Role.builder().name("ROLE_USER").description("User")
+          .users(new ArrayList<>()).permissions(new HashSet<>()).build());
+    }
+  }
+
+  @Test
+  void register() {
+    Result legacy = measure("register (legacy)", i -> legacyRegister(request("legacy_reg_" + i)));
+    Result current = measure("register (current)", i -> authService.register(request("current_reg_" + i)));
+
+    assertThat(current.statementsPerOp()).isLessThan(legacy.statementsPerOp());
+  }
+
+  @Test
+  void login() {
+    authService.register(request("bench_login"));
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("bench_login");
+    loginRequest.setPassword(PASSWORD);
+
+    Result legacy = measure("login (legacy)", i -> legacyLogin(loginRequest));
+    Result current = measure("login (current)", i -> authService.login(loginRequest));
+
+    assertThat(current.statementsPerOp()).isLessThan(legacy.statementsPerOp());
+  }
+
+  /*- Luồng đăng ký trước khi tối ưu: 3 câu kiểm tra / đọc role rồi mới insert -*/
+  private void legacyRegister(RegisterRequest request) {
+    transactionTemplate.executeWithoutResult(status -> {
+      if (userRepository.existsByUsername(request.getUsername())
+          || userRepository.existsByEmail(request.getEmail())) {
+        throw new IllegalStateException("duplicate");
+      }
+      Role role = roleRepository.findByName("ROLE_USER").orElseThrow();
+      Set<Role> roles = new HashSet<>();
+      roles.add(role);
+      userRepository.save(User.builder()
+          .username(request.getUsername())
+          .email(request.getEmail())
+          .passwordHash(passwordEncoder.encode(request.getPassword()))
+          .displayName(request.getDisplayName())
+          .accountStatus(AccountStatus.ACTIVE)
+          .roles(roles)
+          .build());
+    });
+  }
+
+  /*- Luồng đăng nhập trước khi tối ưu: authenticate rồi query lại user để lấy role -*/
+  private void legacyLogin(LoginRequest request) {
+    transactionTemplate.executeWithoutResult(status -> {
+      authenticationManager.authenticate(
+          new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+      userRepository.findByUsername(request.getUsername()).orElseThrow()
+          .getRoles().forEach(Role::getName);
+    });
+  }
+
+  private Result measure(String name, IntConsumer operation) {
+    for (int i = 0; i < WARMUP; i++) {
+      operation.accept(-1 - i);
+    }
+    statistics.clear();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      operation.accept(i);
+    }
+    long elapsed = System.nanoTime() - start;
+    Result result = new Result(
+        (double) statistics.getPrepareStatementCount() / ITERATIONS,
+        elapsed / 1_000.0 / ITERATIONS);
+    log.info(String.format("%-20s %6.2f statements/op %10.1f us/op", name, result.statementsPerOp(), result.microsPerOp()));
+    return result;
+  }
+
+  private static RegisterRequest request(String username) {
+    RegisterRequest request = new RegisterRequest();
+    request.setUsername(username.replace("-", "m"));
+    request.setEmail(username.replace("-", "m") + "@example.com");
+    request.setPassword(PASSWORD);
+    request.setDisplayName(username);
+    return request;
+  }
+
+  private record Result(double statementsPerOp, double microsPerOp) {
+  }
+}
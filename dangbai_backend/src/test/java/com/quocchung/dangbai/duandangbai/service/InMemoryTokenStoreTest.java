@@ -0,0 +1,16 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.service.impl.InMemoryTokenStore;
+
+class InMemoryTokenStoreTest extends TokenStoreContractTest {
+
+  @Override
+  protected TokenStore createTokenStore() {
+    return new InMemoryTokenStore();
+  }
+
+  @Override
+  protected void destroyTokenStore(TokenStore tokenStore) {
+    ((InMemoryTokenStore) tokenStore).shutdown();
+  }
+}
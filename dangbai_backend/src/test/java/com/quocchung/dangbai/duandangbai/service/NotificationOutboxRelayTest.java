@@ -0,0 +1,145 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
+import com.quocchung.dangbai.duandangbai.utils.notification.NotificationOutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Outbox thông báo: chỉ transaction đã commit mới sinh thông báo, consumer nền chuyển theo batch,
+ * job quét chuyển nốt các dòng bị bỏ sót và không bị một dòng lỗi chặn lại.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "notification-outbox.max-delay=20ms",
+    "notification-outbox.sweep-after=0s"
+})
+@Import({NotificationOutboxRelay.class, NotificationOutboxProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxRelayTest {
+
+  private static final long TIMEOUT_MILLIS = 5_000;
+
+  @Autowired
+  private NotificationOutboxRelay relay;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private EntityManager entityManager;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private Long userId;
+
+  @BeforeEach
+  void setUp() {
+    userId = transactionTemplate.execute(status -> {
+      User user = User.builder()
+          .username("author")
+          .email("author@example.com")
+          .passwordHash("hash")
+          .accountStatus(AccountStatus.ACTIVE)
+          .roles(new HashSet<>())
+          .build();
+      entityManager.persist(user);
+      return user.getId();
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM notification_outbox");
+    jdbcTemplate.update("DELETE FROM notifications");
+    jdbcTemplate.update("DELETE FROM users");
+  }
+
+  @Test
+  void committedNotificationsAreMovedInBackground() {
+    transactionTemplate.executeWithoutResult(status -> {
+      for (int i = 0; i < 3; i++) {
+        relay.publish(userId, NotificationType.POST_CREATE, "message " + i, null, null, null);
+      }
+      // Chưa commit: consumer chưa nhận id nào
+      assertThat(notifications()).isZero();
+    });
+
+    assertThat(eventually(() -> notifications() == 3 && outbox() == 0)).isTrue();
+  }
+
+  @Test
+  void rolledBackNotificationsAreNeverDelivered() {
+    transactionTemplate.executeWithoutResult(status -> {
+      relay.publish(userId, NotificationType.POST_APPROVED, "rolled back", null, null, null);
+      status.setRollbackOnly();
+    });
+    relay.sweep();
+
+    assertThat(outbox()).isZero();
+    assertThat(notifications()).isZero();
+  }
+
+  @Test
+  void sweepMovesLeftoverRowsAndSkipsBrokenOnes() {
+    // Dòng ghi trước khi process chết: có trong outbox nhưng không có trong hàng đợi
+    insertOutboxRow(userId, "left behind");
+    // user không tồn tại: INSERT notifications vi phạm khóa ngoại
+    insertOutboxRow(userId + 1_000, "broken");
+    insertOutboxRow(userId, "left behind too");
+
+    relay.sweep();
+
+    assertThat(jdbcTemplate.queryForList("SELECT message FROM notifications", String.class))
+        .containsExactlyInAnyOrder("left behind", "left behind too");
+    assertThat(jdbcTemplate.queryForList("SELECT message FROM notification_outbox", String.class))
+        .containsExactly("broken");
+  }
+
+  private void insertOutboxRow(Long userId, String message) {
+    jdbcTemplate.update("INSERT INTO notification_outbox (user_id, type, message, created_at) VALUES (?, ?, ?, ?)",
+        userId, NotificationType.POST_CREATE.name(), message, Timestamp.valueOf(LocalDateTime.now().minusMinutes(5)));
+  }
+
+  private long notifications() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Long.class);
+  }
+
+  private long outbox() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox", Long.class);
+  }
+
+  private static boolean eventually(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      if (condition.getAsBoolean()) {
+        return true;
+      }
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return condition.getAsBoolean();
+  }
+}
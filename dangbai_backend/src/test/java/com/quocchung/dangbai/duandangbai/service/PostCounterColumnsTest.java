@@ -0,0 +1,63 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quocchung.dangbai.duandangbai.model.Post;
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.repository.PostRepository;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import jakarta.persistence.EntityManager;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+/**
+ * Bộ đếm trên posts chỉ được đổi bằng UPDATE nguyên tử: save(post) sau khi đã load không được
+ * ghi đè các lượt cộng dồn xảy ra trong lúc đó.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class PostCounterColumnsTest {
+
+  @Autowired
+  private PostRepository postRepository;
+  @Autowired
+  private EntityManager entityManager;
+
+  @Test
+  void savingLoadedPostKeepsConcurrentCounterIncrements() {
+    User author = User.builder()
+        .username("author")
+        .email("author@example.com")
+        .passwordHash("hash")
+        .accountStatus(AccountStatus.ACTIVE)
+        .roles(new HashSet<>())
+        .build();
+    entityManager.persist(author);
+    Post created = Post.builder().author(author).title("Post").status(PostStatus.PENDING).build();
+    entityManager.persist(created);
+    entityManager.flush();
+    entityManager.clear();
+
+    // Bài được load (như approvePost), bộ đếm tăng ở DB trước khi save
+    Post post = postRepository.findById(created.getId()).orElseThrow();
+    postRepository.addViewCount(post.getId(), 5);
+    postRepository.addCommentCount(post.getId(), 2);
+    postRepository.addReactionCount(post.getId(), 1);
+    post.setStatus(PostStatus.APPROVED);
+    postRepository.save(post);
+    entityManager.flush();
+    entityManager.clear();
+
+    Post reloaded = postRepository.findById(created.getId()).orElseThrow();
+    assertThat(reloaded.getStatus()).isEqualTo(PostStatus.APPROVED);
+    assertThat(reloaded.getViewCount()).isEqualTo(5L);
+    assertThat(reloaded.getCommentCount()).isEqualTo(2L);
+    assertThat(reloaded.getReactionCount()).isEqualTo(1L);
+  }
+}
@@ -0,0 +1,254 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PostResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.model.Category;
+import com.quocchung.dangbai.duandangbai.model.Post;
+import com.quocchung.dangbai.duandangbai.model.PostMedia;
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.service.impl.PostListReader;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import com.quocchung.dangbai.duandangbai.utils.enums.MediaType;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.pagination.PostSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Chống hồi quy N+1: số câu SQL khi đọc một trang bài viết phải cố định,
+ * không tăng theo số dòng của trang.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(PostListReader.class)
+class PostListReaderTest {
+
+  private static final int POSTS = 30;
+  private static final int MEDIA_PER_POST = 2;
+  private static final int COMMENTS_PER_POST = 3;
+
+  /*- Câu lấy dòng + câu COUNT + câu IN lấy media -*/
+  private static final long MAX_STATEMENTS_PER_PAGE = 3;
+
+  @Autowired
+  private PostListReader postListReader;
+  @Autowired
+  private EntityManager entityManager;
+
+  private Statistics statistics;
+  private User author;
+  private Category category;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+    author = User.builder()
+        .username("author")
+        .email("author@example.com")
+        .passwordHash("hash")
+        .accountStatus(AccountStatus.ACTIVE)
+        .roles(new HashSet<>())
+        .build();
+    entityManager.persist(author);
+
+    category = Category.builder().name("Laptop").build();
+    entityManager.persist(category);
+
+    for (int i = 0; i < POSTS; i++) {
+      Post post = Post.builder()
+          .author(author)
+          .category(i % 2 == 0 ? category : null)
+          .title("Post " + i)
+          .status(i % 3 == 0 ? PostStatus.PENDING : PostStatus.APPROVED)
+          .price(i % 4 == 0 ? null : (double) (i % 5) * 1_000)
+          .commentCount((long) COMMENTS_PER_POST)
+          .viewCount((long) i * 10)
+          .build();
+      entityManager.persist(post);
+
+      for (int m = 0; m < MEDIA_PER_POST; m++) {
+        entityManager.persist(PostMedia.builder()
+            .post(post).type(MediaType.IMAGE).url("/img/" + i + "_" + m).position(m).build());
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void statementCountDoesNotGrowWithPageSize() {
+    long small = statementsFor(PageRequest.of(0, 5, Sort.by("createdAt").descending()));
+    long large = statementsFor(PageRequest.of(0, 25, Sort.by("createdAt").descending()));
+
+    assertThat(small).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    assertThat(large).isEqualTo(small);
+  }
+
+  @Test
+  void filtersByAuthorAndStatusWithinBudget() {
+    statistics.clear();
+    PageResponse<PostResponse> page = postListReader.read(
+        author.getId(), PostStatus.APPROVED, PageRequest.of(0, 50, Sort.by("createdAt").ascending()));
+
+    // Trang chưa đầy nên không cần COUNT
+    assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    assertThat(page.getItems()).hasSize(20).allSatisfy(post ->
+        assertThat(post.getStatus()).isEqualTo(PostStatus.APPROVED));
+    assertThat(page.getTotalItems()).isEqualTo(20L);
+  }
+
+  @Test
+  void categoryFeedFallbackFiltersByCategory() {
+    PageResponse<PostResponse> page = postListReader.readAfter(
+        null, category.getId(), PostStatus.APPROVED, Sort.Order.desc("createdAt"), "", 50, true);
+
+    // i chẵn và không chia hết cho 3
+    assertThat(page.getItems()).hasSize(10).allSatisfy(post -> {
+      assertThat(post.getStatus()).isEqualTo(PostStatus.APPROVED);
+      assertThat(post.getCategory().getId()).isEqualTo(category.getId());
+    });
+    assertThat(page.getTotalItems()).isEqualTo(10L);
+  }
+
+  @Test
+  void oversizedPagesAreClampedToMaxPageSize() {
+    PageResponse<PostResponse> offsetPage = postListReader.read(
+        null, null, PageRequest.of(0, 10_000, Sort.by("createdAt").descending()));
+    PageResponse<PostResponse> cursorPage = postListReader.readAfter(
+        null, null, Sort.Order.desc("createdAt"), "", 10_000, false);
+
+    assertThat(offsetPage.getSize()).isEqualTo(100);
+    assertThat(cursorPage.getSize()).isEqualTo(100);
+    assertThat(cursorPage.getItems()).hasSize(POSTS);
+  }
+
+  @Test
+  void readByIdsLoadsMissingPostsInTwoStatements() {
+    List<Long> ids = postListReader.read(null, null, PageRequest.of(0, 12, Sort.by("createdAt").ascending()))
+        .getItems().stream().map(PostResponse::getId).toList();
+
+    statistics.clear();
+    var posts = postListReader.readByIds(ids);
+
+    // Câu lấy dòng + câu IN lấy media
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    assertThat(posts).hasSize(12).containsOnlyKeys(ids);
+    assertThat(posts.values()).allSatisfy(post -> assertThat(post.getMedia()).hasSize(MEDIA_PER_POST));
+  }
+
+  @Test
+  void rowsCarryAuthorCategoryMediaAndCounts() {
+    PageResponse<PostResponse> page = postListReader.read(
+        null, null, PageRequest.of(0, 10, Sort.by("createdAt").ascending()));
+
+    assertThat(page.getTotalItems()).isEqualTo((long) POSTS);
+    PostResponse first = page.getItems().get(0);
+    assertThat(first.getAuthor().getUsername()).isEqualTo("author");
+    assertThat(first.getCategory().getName()).isEqualTo("Laptop");
+    assertThat(page.getItems().get(1).getCategory()).isNull();
+    assertThat(first.getMedia()).extracting(PostResponse.MediaResponse::getPosition)
+        .containsExactly(0, 1);
+    assertThat(first.getTotalComments()).isEqualTo((long) COMMENTS_PER_POST);
+    assertThat(first.getTotalReactions()).isZero();
+    assertThat(page.getItems().get(3).getTotalViews()).isEqualTo(30L);
+  }
+
+  @Test
+  void cursorWalksEveryRowOnceAtConstantCost() {
+    for (Sort.Order order : List.of(Sort.Order.desc("createdAt"), Sort.Order.asc("createdAt"),
+        Sort.Order.asc("price"), Sort.Order.desc("price"))) {
+      Set<Long> seen = new HashSet<>();
+      String cursor = "";
+      int pages = 0;
+      do {
+        entityManager.clear();
+        statistics.clear();
+        PageResponse<PostResponse> page = postListReader.readAfter(null, null, order, cursor, 7, false);
+
+        // Trang nào cũng chỉ 1 câu lấy dòng + 1 câu media, không OFFSET / COUNT
+        assertThat(statistics.getPrepareStatementCount()).as(order + " page " + pages).isLessThanOrEqualTo(2);
+        assertThat(page.getTotalItems()).isNull();
+        page.getItems().forEach(post -> assertThat(seen.add(post.getId())).as("duplicate " + post.getId()).isTrue());
+        cursor = page.getNextCursor();
+        pages++;
+      } while (cursor != null);
+
+      assertThat(seen).as(order.toString()).hasSize(POSTS);
+      assertThat(pages).isEqualTo((POSTS + 6) / 7);
+    }
+  }
+
+  @Test
+  void cursorCountsOnlyWhenAskedAndRejectsForeignCursor() {
+    PageResponse<PostResponse> first = postListReader.readAfter(
+        null, PostStatus.APPROVED, Sort.Order.desc("createdAt"), null, 5, true);
+    assertThat(first.getTotalItems()).isEqualTo(20L);
+    assertThat(first.getNextCursor()).isNotNull();
+
+    // Cursor của sắp xếp theo createdAt không dùng được cho sắp xếp theo price
+    assertThatThrownBy(() -> postListReader.readAfter(
+        null, PostStatus.APPROVED, Sort.Order.desc("price"), first.getNextCursor(), 5, false))
+        .isInstanceOf(AppException.class);
+    assertThatThrownBy(() -> postListReader.readAfter(
+        null, null, Sort.Order.desc("createdAt"), "not-a-cursor", 5, false))
+        .isInstanceOf(AppException.class);
+  }
+
+  @Test
+  void rejectsSortOutsideCatalog() {
+    assertThatThrownBy(() -> postListReader.read(null, null, PageRequest.of(0, 10, Sort.by("title"))))
+        .isInstanceOf(AppException.class);
+    assertThatThrownBy(() -> postListReader.readAfter(null, null, Sort.Order.asc("viewCount"), null, 10, false))
+        .isInstanceOf(AppException.class);
+  }
+
+  @Test
+  void everySortFieldIsBackedByDeclaredIndexes() {
+    Set<String> declared = Arrays.stream(Post.class.getAnnotation(Table.class).indexes())
+        .map(Index::name)
+        .collect(Collectors.toSet());
+    for (PostSortField field : PostSortField.values()) {
+      assertThat(declared).as(field.getKey()).containsAll(field.getIndexes());
+    }
+  }
+
+  private long statementsFor(PageRequest pageable) {
+    entityManager.clear();
+    statistics.clear();
+    PageResponse<PostResponse> page = postListReader.read(null, null, pageable);
+    long statements = statistics.getPrepareStatementCount();
+
+    // Chạm vào mọi trường như khi serialize JSON, không được phát sinh thêm query
+    page.getItems().forEach(post -> {
+      post.getAuthor().getEmail();
+      post.getMedia().forEach(PostResponse.MediaResponse::getUrl);
+    });
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    assertThat(page.getItems()).hasSize(pageable.getPageSize());
+    return statements;
+  }
+}
@@ -0,0 +1,226 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.quocchung.dangbai.duandangbai.dtos.response.NotificationResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PageResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.PostResponse;
+import com.quocchung.dangbai.duandangbai.dtos.response.UserResponse;
+import com.quocchung.dangbai.duandangbai.exception.AppException;
+import com.quocchung.dangbai.duandangbai.model.Category;
+import com.quocchung.dangbai.duandangbai.model.Notification;
+import com.quocchung.dangbai.duandangbai.model.Post;
+import com.quocchung.dangbai.duandangbai.model.PostMedia;
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.repository.PostRepository;
+import com.quocchung.dangbai.duandangbai.service.impl.NotificationServiceImpl;
+import com.quocchung.dangbai.duandangbai.service.impl.PostListReader;
+import com.quocchung.dangbai.duandangbai.service.impl.UserServiceImpl;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import com.quocchung.dangbai.duandangbai.utils.enums.MediaType;
+import com.quocchung.dangbai.duandangbai.utils.enums.NotificationType;
+import com.quocchung.dangbai.duandangbai.utils.enums.PostStatus;
+import com.quocchung.dangbai.duandangbai.utils.notification.NotificationOutboxProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Chống hồi quy open-session-in-view: test chạy ngoài transaction (như controller khi tắt OSIV),
+ * mọi câu SQL phát sinh ngoài transaction của service làm test fail (TransactionRequiredStatementInspector).
+ * Các đường đọc phải trả về DTO đã load đủ, dùng kết quả không được kích hoạt lazy load.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.quocchung.dangbai.duandangbai.service.TransactionRequiredStatementInspector"
+})
+@Import({PostListReader.class, NotificationServiceImpl.class, UserServiceImpl.class,
+    NotificationOutboxRelay.class, NotificationOutboxProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadPathTransactionTest {
+
+  @Autowired
+  private PostListReader postListReader;
+  @Autowired
+  private NotificationServiceImpl notificationService;
+  @Autowired
+  private UserServiceImpl userService;
+  @Autowired
+  private PostRepository postRepository;
+  @Autowired
+  private EntityManager entityManager;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${spring.jpa.open-in-view:true}")
+  private boolean openInView;
+
+  private Long authorId;
+  private Long postId;
+
+  @BeforeEach
+  void setUp() {
+    transactionTemplate.executeWithoutResult(status -> {
+      User author = User.builder()
+          .username("author")
+          .email("author@example.com")
+          .passwordHash("hash")
+          .accountStatus(AccountStatus.ACTIVE)
+          .roles(new HashSet<>())
+          .build();
+      entityManager.persist(author);
+
+      Category category = Category.builder().name("Laptop").build();
+      entityManager.persist(category);
+
+      Post post = Post.builder()
+          .author(author)
+          .category(category)
+          .title("Post")
+          .status(PostStatus.APPROVED)
+          .build();
+      entityManager.persist(post);
+      entityManager.persist(PostMedia.builder()
+          .post(post).type(MediaType.IMAGE).url("/img/1").position(0).build());
+
+      entityManager.persist(Notification.builder()
+          .user(author)
+          .post(post)
+          .type(NotificationType.POST_APPROVED)
+          .message("approved")
+          .isRead(false)
+          .createdAt(LocalDateTime.now())
+          .build());
+      entityManager.persist(Notification.builder()
+          .user(author)
+          .type(NotificationType.POST_CREATE)
+          .message("no post")
+          .isRead(false)
+          .createdAt(LocalDateTime.now())
+          .build());
+
+      authorId = author.getId();
+      postId = post.getId();
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    transactionTemplate.executeWithoutResult(status -> {
+      entityManager.createQuery("DELETE FROM Notification").executeUpdate();
+      entityManager.createQuery("DELETE FROM PostMedia").executeUpdate();
+      entityManager.createQuery("DELETE FROM Post").executeUpdate();
+      entityManager.createQuery("DELETE FROM Category").executeUpdate();
+      entityManager.createQuery("DELETE FROM User").executeUpdate();
+    });
+  }
+
+  @Test
+  void openSessionInViewIsDisabled() {
+    assertThat(openInView).isFalse();
+  }
+
+  @Test
+  void postListPathsLoadEverythingInsideTheirTransaction() {
+    PageResponse<PostResponse> page = postListReader.read(
+        null, PostStatus.APPROVED, PageRequest.of(0, 10, Sort.by("createdAt").descending()));
+    PageResponse<PostResponse> cursorPage = postListReader.readAfter(
+        authorId, PostStatus.APPROVED, Sort.Order.desc("createdAt"), "", 10, true);
+    Map<Long, PostResponse> byId = postListReader.readByIds(List.of(postId));
+
+    assertThat(List.of(page.getItems().get(0), cursorPage.getItems().get(0), byId.get(postId)))
+        .allSatisfy(post -> {
+          assertThat(post.getAuthor().getUsername()).isEqualTo("author");
+          assertThat(post.getCategory().getName()).isEqualTo("Laptop");
+          assertThat(post.getMedia()).extracting(PostResponse.MediaResponse::getUrl).containsExactly("/img/1");
+        });
+  }
+
+  @Test
+  void notificationsAreReturnedAsDtosWithoutTouchingRelations() {
+    PageResponse<NotificationResponse> notifications = notificationService.getUserNotifications(authorId, null, 20);
+
+    assertThat(notifications.getItems()).hasSize(2);
+    assertThat(notifications.getItems()).extracting(NotificationResponse::getPostId)
+        .containsExactlyInAnyOrder(postId, null);
+    assertThat(notifications.isHasNext()).isFalse();
+  }
+
+  @Test
+  void notificationInboxWalksPagesByCursor() {
+    PageResponse<NotificationResponse> first = notificationService.getUserNotifications(authorId, "", 1);
+    PageResponse<NotificationResponse> second =
+        notificationService.getUserNotifications(authorId, first.getNextCursor(), 1);
+
+    assertThat(first.isHasNext()).isTrue();
+    assertThat(second.isHasNext()).isFalse();
+    assertThat(second.getNextCursor()).isNull();
+    // Cùng createdAt thì id quyết định thứ tự: không trùng, không sót
+    assertThat(List.of(first.getItems().get(0).getId(), second.getItems().get(0).getId()))
+        .doesNotHaveDuplicates()
+        .isSortedAccordingTo(Comparator.reverseOrder());
+  }
+
+  @Test
+  void unreadCountFollowsMarkAsReadWithoutRedis() {
+    Long notificationId = notificationService.getUserNotifications(authorId, null, 1).getItems().get(0).getId();
+
+    assertThat(notificationService.getUnreadCount(authorId)).isEqualTo(2);
+    notificationService.markAsRead(authorId, notificationId);
+    // Gọi lại không đổi gì
+    notificationService.markAsRead(authorId, notificationId);
+    assertThat(notificationService.getUnreadCount(authorId)).isEqualTo(1);
+    assertThat(notificationService.markAllAsRead(authorId)).isEqualTo(1);
+    assertThat(notificationService.getUnreadCount(authorId)).isZero();
+
+    assertThatThrownBy(() -> notificationService.markAsRead(authorId + 1, notificationId))
+        .isInstanceOf(AppException.class);
+  }
+
+  @Test
+  void userProfileIsMappedInsideTransaction() {
+    UserResponse user = userService.getUserById(authorId);
+
+    assertThat(user.getUsername()).isEqualTo("author");
+    assertThat(user.getAccountStatus()).isEqualTo(AccountStatus.ACTIVE.name());
+  }
+
+  @Test
+  void lazyLoadingAfterTheTransactionFails() {
+    // findById chạy trong transaction của repository; author là proxy, chạm vào sau đó phải lỗi
+    Post post = postRepository.findById(postId).orElseThrow();
+
+    assertThatThrownBy(() -> post.getAuthor().getUsername())
+        .isInstanceOfAny(LazyInitializationException.class, IllegalStateException.class);
+  }
+
+  @Test
+  void detailQueryFetchesEverythingTheResponseNeeds() {
+    Post post = postRepository.findDetailById(postId).orElseThrow();
+
+    assertThat(post.getAuthor().getUsername()).isEqualTo("author");
+    assertThat(post.getCategory().getName()).isEqualTo("Laptop");
+    assertThat(post.getMedia()).hasSize(1);
+  }
+}
@@ -0,0 +1,197 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import com.quocchung.dangbai.duandangbai.utils.resilience.RecoveringRedisMessageListenerContainer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Redis chưa lên lúc khởi động: container không ném lỗi (ứng dụng vẫn start) và tự subscribe khi Redis lên.
+ * Redis giả chỉ trả lời SUBSCRIBE, đủ cho việc đăng ký kênh.
+ */
+class RecoveringRedisMessageListenerContainerTest {
+
+  private JedisConnectionFactory connectionFactory;
+  private RecoveringRedisMessageListenerContainer container;
+  private FakeRedis fakeRedis;
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (container != null) {
+      container.destroy();
+    }
+    if (connectionFactory != null) {
+      connectionFactory.destroy();
+    }
+    if (fakeRedis != null) {
+      fakeRedis.close();
+    }
+  }
+
+  @Test
+  void startsWithoutRedisAndSubscribesWhenRedisComesUp() throws Exception {
+    int port = freePort();
+    connectionFactory = connectionFactory(port);
+    container = new RecoveringRedisMessageListenerContainer(new FixedBackOff(100, FixedBackOff.UNLIMITED_ATTEMPTS));
+    container.setConnectionFactory(connectionFactory);
+    RecordingListener listener = new RecordingListener();
+    container.addMessageListener(listener, new ChannelTopic("test_channel"));
+    container.afterPropertiesSet();
+
+    assertThatCode(container::start).doesNotThrowAnyException();
+    assertThat(container.isListening()).isFalse();
+
+    fakeRedis = new FakeRedis(port);
+
+    assertThat(listener.subscribed.await(10, TimeUnit.SECONDS)).isTrue();
+    // Callback subscribe có thể tới trước khi container chuyển trạng thái
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!container.isListening() && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+    }
+    assertThat(container.isListening()).isTrue();
+  }
+
+  @Test
+  void stopCancelsPendingRetries() throws Exception {
+    connectionFactory = connectionFactory(freePort());
+    container = new RecoveringRedisMessageListenerContainer(new FixedBackOff(100, FixedBackOff.UNLIMITED_ATTEMPTS));
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(new RecordingListener(), new ChannelTopic("test_channel"));
+    container.afterPropertiesSet();
+    container.start();
+
+    container.stop();
+    Thread.sleep(300);
+
+    assertThat(container.isRunning()).isFalse();
+    assertThat(container.isListening()).isFalse();
+  }
+
+  private static JedisConnectionFactory connectionFactory(int port) {
+    JedisClientConfiguration clientConfig = JedisClientConfiguration.builder()
+        .connectTimeout(Duration.ofMillis(200))
+        .readTimeout(Duration.ofMillis(500))
+        .usePooling()
+        .build();
+    JedisConnectionFactory factory =
+        new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port), clientConfig);
+    factory.afterPropertiesSet();
+    factory.start();
+    return factory;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static class RecordingListener implements MessageListener, SubscriptionListener {
+    private final CountDownLatch subscribed = new CountDownLatch(1);
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+      subscribed.countDown();
+    }
+  }
+
+  /*- Trả +OK cho mọi lệnh, SUBSCRIBE thì trả xác nhận đăng ký từng kênh -*/
+  private static class FakeRedis implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final List<Socket> clients = new ArrayList<>();
+
+    FakeRedis(int port) throws IOException {
+      serverSocket = new ServerSocket(port);
+      Thread acceptor = new Thread(this::acceptLoop, "fake-redis");
+      acceptor.setDaemon(true);
+      acceptor.start();
+    }
+
+    private void acceptLoop() {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket socket = serverSocket.accept();
+          synchronized (clients) {
+            clients.add(socket);
+          }
+          Thread handler = new Thread(() -> serve(socket), "fake-redis-client");
+          handler.setDaemon(true);
+          handler.start();
+        } catch (IOException e) {
+          return;
+        }
+      }
+    }
+
+    private void serve(Socket socket) {
+      try (socket) {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        OutputStream out = socket.getOutputStream();
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (!line.startsWith("*")) {
+            continue;
+          }
+          List<String> command = new ArrayList<>();
+          int size = Integer.parseInt(line.substring(1));
+          for (int i = 0; i < size; i++) {
+            reader.readLine();
+            command.add(reader.readLine());
+          }
+          StringBuilder reply = new StringBuilder();
+          if ("SUBSCRIBE".equalsIgnoreCase(command.get(0))) {
+            for (int i = 1; i < command.size(); i++) {
+              String channel = command.get(i);
+              reply.append("*3\r\n$9\r\nsubscribe\r\n$").append(channel.length()).append("\r\n")
+                  .append(channel).append("\r\n:").append(i).append("\r\n");
+            }
+          } else {
+            reply.append("+OK\r\n");
+          }
+          out.write(reply.toString().getBytes(StandardCharsets.UTF_8));
+          out.flush();
+        }
+      } catch (IOException ignored) {
+        // client đóng kết nối
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      serverSocket.close();
+      synchronized (clients) {
+        for (Socket client : clients) {
+          client.close();
+        }
+      }
+    }
+  }
+}
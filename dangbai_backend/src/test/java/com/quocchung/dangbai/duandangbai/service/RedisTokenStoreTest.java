@@ -0,0 +1,63 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import com.quocchung.dangbai.duandangbai.service.impl.RedisTokenStore;
+import com.quocchung.dangbai.duandangbai.utils.cache.LocalCacheProperties;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import com.quocchung.dangbai.duandangbai.utils.token.TokenStorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Cần Redis đang chạy: mvn test -Dredis.tests=true [-Dredis.host=localhost -Dredis.port=6379]
+ */
+@EnabledIfSystemProperty(named = "redis.tests", matches = "true")
+class RedisTokenStoreTest extends TokenStoreContractTest {
+
+  private static JedisConnectionFactory connectionFactory;
+  private static RedisMessageListenerContainer listenerContainer;
+
+  @BeforeAll
+  static void connect() {
+    RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(
+        System.getProperty("redis.host", "localhost"),
+        Integer.parseInt(System.getProperty("redis.port", "6379")));
+    connectionFactory = new JedisConnectionFactory(config);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+
+    listenerContainer = new RedisMessageListenerContainer();
+    listenerContainer.setConnectionFactory(connectionFactory);
+    listenerContainer.afterPropertiesSet();
+  }
+
+  @AfterAll
+  static void disconnect() throws Exception {
+    listenerContainer.destroy();
+    connectionFactory.destroy();
+  }
+
+  @Override
+  protected TokenStore createTokenStore() {
+    StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+    RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.setKeySerializer(RedisSerializer.string());
+    redisTemplate.setValueSerializer(RedisSerializer.json());
+    redisTemplate.afterPropertiesSet();
+
+    AccessTokenNearCache nearCache = new AccessTokenNearCache(
+        stringRedisTemplate, listenerContainer, new LocalCacheProperties(), new SimpleMeterRegistry());
+    return new RedisTokenStore(stringRedisTemplate, redisTemplate, nearCache, new TokenStorageProperties(),
+        new CircuitBreaker("redis", 5, Duration.ofSeconds(10)));
+  }
+}
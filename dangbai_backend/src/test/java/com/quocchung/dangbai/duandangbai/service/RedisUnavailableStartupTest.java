@@ -0,0 +1,115 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.repository.UserRepository;
+import com.quocchung.dangbai.duandangbai.security.AccessTokenAuthenticator;
+import com.quocchung.dangbai.duandangbai.security.RevocationList;
+import com.quocchung.dangbai.duandangbai.security.VerifiedToken;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import com.quocchung.dangbai.duandangbai.utils.resilience.CircuitBreaker;
+import io.jsonwebtoken.Jwts;
+import java.util.Date;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Ứng dụng khởi động được khi Redis không truy cập được (pool không mở sẵn connection, pub/sub subscribe lại ở nền)
+ * và request vẫn xác thực được theo fail-open: Redis lỗi liên tiếp thì circuit breaker mở,
+ * token đã verify chữ ký được chấp nhận trừ khi có trong revocation list cục bộ.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:redis_unavailable;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    // Không có gì lắng nghe trên cổng 1
+    "spring.data.redis.host=127.0.0.1",
+    "spring.data.redis.port=1",
+    "spring.data.redis.connect-timeout=100ms",
+    "redis-resilience.fail-open=true",
+    "redis-resilience.circuit-breaker.failure-threshold=2",
+    "redis-resilience.circuit-breaker.open-duration=1m",
+    "rate-limit.enabled=false",
+    "password-hashing.strength=4"
+})
+class RedisUnavailableStartupTest {
+
+  @Autowired
+  private AccessTokenAuthenticator accessTokenAuthenticator;
+  @Autowired
+  private JwtService jwtService;
+  @Autowired
+  private UserDetailsService userDetailsService;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private RevocationList revocationList;
+  @Autowired
+  private CircuitBreaker redisCircuitBreaker;
+
+  @Test
+  void acceptsValidTokensFailOpenAndOpensCircuitBreaker() {
+    UserDetails userDetails = register("fail_open_user");
+    String token = jwtService.generateToken(userDetails);
+    VerifiedToken verifiedToken = jwtService.verify(token);
+
+    // 2 lần Redis lỗi (failure-threshold) rồi breaker mở, lần sau không gọi Redis nữa
+    assertThat(accessTokenAuthenticator.authenticate(token, verifiedToken)).isNotNull();
+    assertThat(accessTokenAuthenticator.authenticate(token, verifiedToken)).isNotNull();
+    assertThat(redisCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(accessTokenAuthenticator.authenticate(token, verifiedToken)).isNotNull();
+  }
+
+  @Test
+  void rejectsLocallyRevokedTokenWhileRedisIsDown() {
+    UserDetails userDetails = register("revoked_user");
+    String token = jwtService.generateToken(userDetails);
+    VerifiedToken verifiedToken = jwtService.verify(token);
+
+    revocationList.revoke(verifiedToken);
+
+    assertThat(accessTokenAuthenticator.authenticate(token, verifiedToken)).isNull();
+  }
+
+  @Test
+  void logoutAllRevokesTokensIssuedUpToTheCutoffSecond() {
+    long userId = 4242L;
+    long before = System.currentTimeMillis();
+    revocationList.revokeUser(userId);
+    long second = Math.floorDiv(before, 1000L) * 1000L;
+
+    // iat chỉ có độ chính xác giây: token cấp trong cùng giây với mốc vẫn bị thu hồi
+    assertThat(revocationList.isRevoked(tokenIssuedAt(userId, second - 5_000))).isTrue();
+    assertThat(revocationList.isRevoked(tokenIssuedAt(userId, second + 999))).isTrue();
+    assertThat(revocationList.isRevoked(tokenIssuedAt(userId, second + 5_000))).isFalse();
+    assertThat(revocationList.isRevoked(tokenIssuedAt(userId + 1, second - 5_000))).isFalse();
+  }
+
+  private static VerifiedToken tokenIssuedAt(Long userId, long issuedAtMillis) {
+    return new VerifiedToken("token", Jwts.claims()
+        .subject("user_" + userId)
+        .add("userId", userId)
+        .issuedAt(new Date(issuedAtMillis))
+        .build());
+  }
+
+  private UserDetails register(String username) {
+    userRepository.save(User.builder()
+        .username(username)
+        .email(username + "@example.com")
+        .passwordHash("hash")
+        .accountStatus(AccountStatus.ACTIVE)
+        .roles(new HashSet<>())
+        .build());
+    return userDetailsService.loadUserByUsername(username);
+  }
+}
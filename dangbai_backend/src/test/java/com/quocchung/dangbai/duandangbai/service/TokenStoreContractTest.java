@@ -0,0 +1,140 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Hành vi chung mà mọi implementation của TokenStore phải thỏa mãn.
+ */
+public abstract class TokenStoreContractTest {
+
+  protected TokenStore tokenStore;
+
+  protected abstract TokenStore createTokenStore();
+
+  protected void destroyTokenStore(TokenStore tokenStore) {
+  }
+
+  @BeforeEach
+  void setUp() {
+    tokenStore = createTokenStore();
+  }
+
+  @AfterEach
+  void tearDown() {
+    destroyTokenStore(tokenStore);
+  }
+
+  @Test
+  void savedTokensAreValidAndResolveUser() {
+    long userId = randomUserId();
+    String accessToken = randomToken();
+    String refreshToken = randomToken();
+
+    tokenStore.saveUserTokens(userId, accessToken, refreshToken, 60, 120);
+
+    assertThat(tokenStore.isAccessTokenValid(accessToken)).isTrue();
+    assertThat(tokenStore.isAccessTokenValid(accessToken, userId, new Date(System.currentTimeMillis() + 60_000)))
+        .isTrue();
+    assertThat(tokenStore.isRefreshTokenValid(refreshToken)).isTrue();
+    assertThat(tokenStore.getUserIdFromAccessToken(accessToken)).isEqualTo(userId);
+    assertThat(tokenStore.getUserIdFromRefreshToken(refreshToken)).isEqualTo(userId);
+    assertThat(tokenStore.getTokenTTL(accessToken)).isBetween(1L, 60L);
+  }
+
+  @Test
+  void unknownTokensAreInvalid() {
+    String token = randomToken();
+
+    assertThat(tokenStore.isAccessTokenValid(token)).isFalse();
+    assertThat(tokenStore.isRefreshTokenValid(token)).isFalse();
+    assertThat(tokenStore.getUserIdFromAccessToken(token)).isNull();
+    assertThat(tokenStore.getTokenTTL(token)).isEqualTo(-2L);
+  }
+
+  @Test
+  void accessAndRefreshTokensAreSeparate() {
+    long userId = randomUserId();
+    String token = randomToken();
+
+    tokenStore.saveAccessToken(token, userId, 60);
+
+    assertThat(tokenStore.isAccessTokenValid(token)).isTrue();
+    assertThat(tokenStore.isRefreshTokenValid(token)).isFalse();
+  }
+
+  @Test
+  void deleteAccessTokenRevokesOnlyThatToken() {
+    long userId = randomUserId();
+    String accessToken = randomToken();
+    String refreshToken = randomToken();
+    tokenStore.saveUserTokens(userId, accessToken, refreshToken, 60, 120);
+    // Đưa token vào cache (nếu implementation có) trước khi xóa
+    tokenStore.isAccessTokenValid(accessToken, userId, new Date(System.currentTimeMillis() + 60_000));
+
+    tokenStore.deleteAccessToken(accessToken);
+
+    assertThat(tokenStore.isAccessTokenValid(accessToken)).isFalse();
+    assertThat(tokenStore.isAccessTokenValid(accessToken, userId, new Date(System.currentTimeMillis() + 60_000)))
+        .isFalse();
+    assertThat(tokenStore.isRefreshTokenValid(refreshToken)).isTrue();
+  }
+
+  @Test
+  void deleteRefreshToken() {
+    long userId = randomUserId();
+    String refreshToken = randomToken();
+    tokenStore.saveRefreshToken(refreshToken, userId, 60);
+
+    tokenStore.deleteRefreshToken(refreshToken);
+
+    assertThat(tokenStore.isRefreshTokenValid(refreshToken)).isFalse();
+  }
+
+  @Test
+  void deleteAllUserTokensRevokesEverySessionOfThatUserOnly() {
+    long userId = randomUserId();
+    long otherUserId = userId + 1;
+    String firstAccess = randomToken();
+    String firstRefresh = randomToken();
+    String secondAccess = randomToken();
+    String secondRefresh = randomToken();
+    String otherAccess = randomToken();
+    tokenStore.saveUserTokens(userId, firstAccess, firstRefresh, 60, 120);
+    tokenStore.saveUserTokens(userId, secondAccess, secondRefresh, 60, 120);
+    tokenStore.saveUserTokens(otherUserId, otherAccess, randomToken(), 60, 120);
+
+    tokenStore.deleteAllUserTokens(userId);
+
+    assertThat(tokenStore.isAccessTokenValid(firstAccess)).isFalse();
+    assertThat(tokenStore.isRefreshTokenValid(firstRefresh)).isFalse();
+    assertThat(tokenStore.isAccessTokenValid(secondAccess)).isFalse();
+    assertThat(tokenStore.isRefreshTokenValid(secondRefresh)).isFalse();
+    assertThat(tokenStore.isAccessTokenValid(otherAccess)).isTrue();
+  }
+
+  @Test
+  void tokensExpireAfterTtl() throws InterruptedException {
+    long userId = randomUserId();
+    String accessToken = randomToken();
+    tokenStore.saveAccessToken(accessToken, userId, 1);
+
+    Thread.sleep(1_500);
+
+    assertThat(tokenStore.isAccessTokenValid(accessToken)).isFalse();
+    assertThat(tokenStore.getUserIdFromAccessToken(accessToken)).isNull();
+  }
+
+  private static long randomUserId() {
+    return Math.abs(UUID.randomUUID().getMostSignificantBits() % 1_000_000_000L) + 1;
+  }
+
+  private static String randomToken() {
+    return "test." + UUID.randomUUID() + "." + UUID.randomUUID();
+  }
+}
@@ -0,0 +1,20 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Dùng trong test: câu SQL nào chạy khi không có transaction (lazy load sau khi service trả về,
+ * lazy load do Jackson khi serialize...) thì ném lỗi ngay thay vì âm thầm giữ connection.
+ * Đăng ký qua hibernate.session_factory.statement_inspector.
+ */
+public class TransactionRequiredStatementInspector implements StatementInspector {
+
+  @Override
+  public String inspect(String sql) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("SQL chạy ngoài transaction: " + sql);
+    }
+    return sql;
+  }
+}
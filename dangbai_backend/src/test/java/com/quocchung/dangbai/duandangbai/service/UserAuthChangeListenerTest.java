@@ -0,0 +1,115 @@
+package com.quocchung.dangbai.duandangbai.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quocchung.dangbai.duandangbai.model.Permission;
+import com.quocchung.dangbai.duandangbai.model.Role;
+import com.quocchung.dangbai.duandangbai.model.User;
+import com.quocchung.dangbai.duandangbai.security.UserAuthChangeListener;
+import com.quocchung.dangbai.duandangbai.utils.enums.AccountStatus;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * auth_version tăng khi quyền của user thay đổi (trạng thái, role, permission của role),
+ * không tăng khi sửa thông tin khác hay khi tạo user mới, và save(user) không ghi đè giá trị đã tăng.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.flyway.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(UserAuthChangeListener.class)
+class UserAuthChangeListenerTest {
+
+  @Autowired
+  private EntityManager entityManager;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Long userId;
+  private Long roleId;
+  private Long permissionId;
+
+  @BeforeEach
+  void setUp() {
+    Permission permission = Permission.builder().name("POST_CREATE").roles(new ArrayList<>()).build();
+    entityManager.persist(permission);
+    Role role = Role.builder().name("USER").permissions(new HashSet<>(Set.of(permission))).build();
+    entityManager.persist(role);
+    User user = User.builder()
+        .username("member")
+        .email("member@example.com")
+        .passwordHash("hash")
+        .accountStatus(AccountStatus.ACTIVE)
+        .roles(new HashSet<>(Set.of(role)))
+        .build();
+    entityManager.persist(user);
+    entityManager.flush();
+    entityManager.clear();
+    userId = user.getId();
+    roleId = role.getId();
+    permissionId = permission.getId();
+  }
+
+  @Test
+  void newUserAndProfileEditsKeepVersion() {
+    assertThat(authVersion()).isZero();
+
+    entityManager.find(User.class, userId).setDisplayName("Member");
+    entityManager.flush();
+
+    assertThat(authVersion()).isZero();
+  }
+
+  @Test
+  void accountStatusChangeBumpsVersion() {
+    User user = entityManager.find(User.class, userId);
+    user.setAccountStatus(AccountStatus.SUSPENDED);
+    entityManager.flush();
+
+    assertThat(authVersion()).isEqualTo(1L);
+    assertThat(user.getAuthVersion()).isEqualTo(1L);
+
+    // Lần save sau không ghi lại version đọc lúc load
+    user.setDisplayName("Member");
+    entityManager.flush();
+    assertThat(authVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  void roleCollectionChangeBumpsVersion() {
+    entityManager.find(User.class, userId).getRoles().clear();
+    entityManager.flush();
+
+    assertThat(authVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  void rolePermissionChangeBumpsHolders() {
+    entityManager.find(Role.class, roleId).getPermissions().clear();
+    entityManager.flush();
+
+    assertThat(authVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  void permissionChangeBumpsHolders() {
+    entityManager.find(Permission.class, permissionId).setName("POST_PUBLISH");
+    entityManager.flush();
+
+    assertThat(authVersion()).isEqualTo(1L);
+  }
+
+  private Long authVersion() {
+    return jdbcTemplate.queryForObject("SELECT auth_version FROM users WHERE id = ?", Long.class, userId);
+  }
+}